@@ -25,7 +25,10 @@ import static java.util.stream.Collectors.toSet;
 import static java.util.stream.StreamSupport.stream;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -155,110 +158,103 @@ public final class Clipboard
 		Set<Point> positions = aNodes.stream()
 				.map(Node::position)
 				.collect(toSet());
-		return pDiagram.allNodes().stream()
-				.map(Node::position)
-				.anyMatch(positions::contains);
+		return anyHasPosition(pDiagram.rootNodes(), positions);
+	}
+	
+	/*
+	 * Returns true if any node in pNodes or their descendants has a position in pPositions,
+	 * stopping at the first such node.
+	 */
+	private static boolean anyHasPosition(List<Node> pNodes, Set<Point> pPositions)
+	{
+		for( Node node : pNodes )
+		{
+			if( pPositions.contains(node.position()) || anyHasPosition(node.getChildren(), pPositions) )
+			{
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	/*
 	 * Makes a clone of every node in pSelection, copies it into the clipboard,
-	 * and reassigns its edges
+	 * and reassigns its edges. Each original node, including the descendants of 
+	 * the nodes in pSelection, is mapped to its clone, and each edge is then 
+	 * reassigned with a single lookup per end. If a node is cloned more than
+	 * once, its edges are reassigned to its first clone.
 	 */
 	private List<Node> copyNodes(List<Edge> pEdges, Iterable<DiagramElement> pSelection)
 	{
+		Set<Node> clipboardNodes = identitySet();
+		clipboardNodes.addAll(aNodes);
 		List<Node> result = new ArrayList<>();
+		Map<Node, Node> clones = new IdentityHashMap<>();
 		for( DiagramElement element : pSelection )
 		{
 			if( element instanceof Node node)
 			{
-				if( missingParent(node))
+				if( missingParent(node, clipboardNodes))
 				{
 					continue;
 				}
 				Node cloned = node.clone();
 				result.add(cloned);
-				reassignEdges(pEdges, node, cloned);
+				mapClones(node, cloned, clones);
 			}
 		}
+		for( Edge edge : pEdges )
+		{
+			edge.connect(clones.getOrDefault(edge.start(), edge.start()), 
+					clones.getOrDefault(edge.end(), edge.end()));
+		}
 		return result;
 	}
 	
-	private void removeDanglingEdges()
+	/*
+	 * Maps pOld to pNew, and each descendant of pOld to the corresponding descendant 
+	 * of pNew, unless it is already mapped.
+	 */
+	private static void mapClones(Node pOld, Node pNew, Map<Node, Node> pClones)
 	{
-		List<Edge> toDelete = new ArrayList<>();
-		for( Edge edge : aEdges )
-		{
-			if( !recursivelyContains(edge.start()) || !recursivelyContains(edge.end()))
-			{
-				toDelete.add(edge);
-			}
-		}
-		for( Edge edge : toDelete )
+		pClones.putIfAbsent(pOld, pNew);
+		List<Node> oldChildren = pOld.getChildren();
+		List<Node> newChildren = pNew.getChildren();
+		for( int i = 0; i < oldChildren.size(); i++ )
 		{
-			aEdges.remove(edge);
+			mapClones(oldChildren.get(i), newChildren.get(i), pClones);
 		}
 	}
 	
-	private boolean recursivelyContains(Node pNode)
+	/*
+	 * Removes the edges that are not connected at both ends to a node 
+	 * in the clipboard or to one of their descendants.
+	 */
+	private void removeDanglingEdges()
 	{
-		for( Node node : aNodes )
-		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( recursivelyContains(pNode, node.getChildren()) )
-			{
-				return true;
-			}
-		}
-		return false;
+		Set<Node> nodes = identitySet();
+		aNodes.forEach(node -> addWithDescendants(node, nodes));
+		aEdges.removeIf(edge -> !nodes.contains(edge.start()) || !nodes.contains(edge.end()));
 	}
 	
-	private boolean recursivelyContains(Node pNode, List<Node> pNodes)
+	private static void addWithDescendants(Node pNode, Set<Node> pNodes)
 	{
-		for( Node node : pNodes )
-		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( recursivelyContains(pNode, node.getChildren()) )
-			{
-				return true;
-			}
-		}
-		return false;
+		pNodes.add(pNode);
+		pNode.getChildren().forEach(child -> addWithDescendants(child, pNodes));
 	}
 	
-	private void reassignEdges(List<Edge> pEdges, Node pOld, Node pNew)
+	private static Set<Node> identitySet()
 	{
-		for( Edge edge : pEdges )
-		{
-			if( edge.start() == pOld )
-			{
-				edge.connect(pNew, edge.end());
-			}
-			if( edge.end() == pOld)
-			{
-				edge.connect(edge.start(), pNew);
-			}
-		}
-		List<Node> oldChildren = pOld.getChildren();
-		List<Node> newChildren = pNew.getChildren();
-		for( int i = 0; i < oldChildren.size(); i++ )
-		{
-			reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
-		}
+		return Collections.newSetFromMap(new IdentityHashMap<>());
 	}
 	
 	/*
 	 * Returns true if pNode needs a parent that isn't in 
 	 * the clipboard.
 	 */
-	private boolean missingParent(Node pNode)
+	private static boolean missingParent(Node pNode, Set<Node> pClipboardNodes)
 	{
-		return pNode.requiresParent() && !aNodes.contains(pNode.getParent()) ;
+		return pNode.requiresParent() && !pClipboardNodes.contains(pNode.getParent()) ;
 	}
 	
 	/*
@@ -28,6 +28,10 @@ package org.jetuml.diagram;
  */
 public abstract class AbstractDiagramElement implements DiagramElement
 {
+	/* The number of times any node or edge was modified. Elements do not know 
+	 * the diagram they belong to, so diagrams include this number in their version. */
+	private static long aModifications = 0;
+	
 	private Properties aProperties;
 	
 	/**
@@ -56,6 +60,23 @@ public abstract class AbstractDiagramElement implements DiagramElement
 		}
 	}
 	
+	/**
+	 * @return The number of times any node or edge was modified.
+	 */
+	public static long modifications()
+	{
+		return aModifications;
+	}
+	
+	/**
+	 * Records that a node or an edge was modified. Elements must call this 
+	 * method whenever their state changes in a way that can change their geometry.
+	 */
+	protected static void modified()
+	{
+		aModifications++;
+	}
+	
 	@Override
 	public final Properties properties()
 	{
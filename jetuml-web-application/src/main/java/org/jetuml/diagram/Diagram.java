@@ -23,8 +23,15 @@ package org.jetuml.diagram;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Predicate;
 
+import org.jetuml.diagram.nodes.AbstractNode;
 import org.jetuml.diagram.nodes.CallNode;
 import org.jetuml.diagram.nodes.FieldNode;
 
@@ -45,6 +52,28 @@ public final class Diagram implements DiagramData
 	private final ArrayList<Node> aRootNodes;
 	private final ArrayList<Edge> aEdges;
 	private final DiagramType aType;
+	
+	/*
+	 * Adjacency index: for each node, the edges connected to it and the 
+	 * edges that end on it, both in the order of aEdges. Outgoing edges are 
+	 * the connected edges that start on the node.
+	 */
+	private final Map<Node, List<Edge>> aConnectedEdges = new IdentityHashMap<>();
+	private final Map<Node, List<Edge>> aIncomingEdges = new IdentityHashMap<>();
+	
+	/*
+	 * Node index: all the nodes of the diagram in pre-order, and the same nodes 
+	 * in an identity set for membership checks. The index is null when it must be 
+	 * rebuilt. Nodes do not know the diagram they belong to, so changes to the 
+	 * children of a node are detected by comparing AbstractNode.childUpdates() with 
+	 * the value it had when the index was built.
+	 */
+	private List<Node> aAllNodes;
+	private Set<Node> aNodeSet;
+	private long aIndexedChildUpdates;
+	
+	/* The number of times root nodes or edges were added to or removed from this diagram. */
+	private long aModifications = 0;
 
 	/**
 	 * Creates an empty diagram.
@@ -60,52 +89,61 @@ public final class Diagram implements DiagramData
 
 	/**
 	 * Creates a copy of the current diagram. The copy is a completely distinct graph of nodes and edges with the same
-	 * topology as this diagram.
+	 * topology as this diagram. Each node is mapped to its copy as the nodes are cloned, so that each edge copy 
+	 * can be connected with one lookup per end.
 	 * 
 	 * @return A copy of this diagram. Never null.
 	 */
 	public Diagram duplicate()
 	{
 		Diagram copy = new Diagram(this.aType);
-		aEdges.forEach(edge -> copy.aEdges.add(edge.clone()));
-
+		Map<Node, Node> nodeCopies = new IdentityHashMap<>();
 		for( Node node : aRootNodes )
 		{
 			Node nodeCopy = node.clone();
 			copy.aRootNodes.add(nodeCopy);
-			reassignEdges(copy.aEdges, node, nodeCopy);
+			mapCopies(node, nodeCopy, nodeCopies);
+		}
+		for( Edge edge : aEdges )
+		{
+			Edge edgeCopy = edge.clone();
+			edgeCopy.connect(nodeCopies.getOrDefault(edge.start(), edge.start()), 
+					nodeCopies.getOrDefault(edge.end(), edge.end()));
+			copy.addEdge(edgeCopy);
 		}
-
-		// Reassign diagram
-		copy.aEdges.forEach(edge -> edge.connect(edge.start(), edge.end()));
 		return copy;
 	}
 
 	/*
-	 * For node pOriginal, go through all edges that refer to it and replace it with pCopy in the edge. Do this
-	 * recursively for all children of pOriginal, assuming the same topology for pCopy.
+	 * Maps pOriginal to pCopy, and recursively each child of pOriginal to the 
+	 * corresponding child of pCopy, assuming the same topology for pCopy.
 	 */
-	private static void reassignEdges(List<Edge> pEdges, Node pOriginal, Node pCopy)
+	private static void mapCopies(Node pOriginal, Node pCopy, Map<Node, Node> pCopies)
 	{
-		for( Edge edge : pEdges )
-		{
-			if( edge.start() == pOriginal )
-			{
-				edge.connect(pCopy, edge.end());
-			}
-			if( edge.end() == pOriginal )
-			{
-				edge.connect(edge.start(), pCopy);
-			}
-		}
+		pCopies.put(pOriginal, pCopy);
 		List<Node> oldChildren = pOriginal.getChildren();
 		List<Node> newChildren = pCopy.getChildren();
 		for( int i = 0; i < oldChildren.size(); i++ )
 		{
-			reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
+			mapCopies(oldChildren.get(i), newChildren.get(i), pCopies);
 		}
 	}
 
+	/**
+	 * Returns a number that changes whenever this diagram or any of its elements 
+	 * is modified, including when a node is moved or a property is set. Anything 
+	 * computed from the diagram when its version had a given value is still valid 
+	 * as long as the version has the same value. Because nodes and edges do not 
+	 * know the diagram they belong to, the version also changes when elements of 
+	 * other diagrams are modified.
+	 * 
+	 * @return The version of this diagram.
+	 */
+	public long version()
+	{
+		return aModifications + AbstractDiagramElement.modifications();
+	}
+
 	@Override
 	public List<Node> rootNodes()
 	{
@@ -114,13 +152,27 @@ public final class Diagram implements DiagramData
 	
 	/**
 	 * @return All the nodes in the diagram: both the root nodes
-	 * and their children.
+	 * and their children, in pre-order. The list is unmodifiable.
 	 */
 	public List<Node> allNodes()
 	{
-		List<Node> allNodes = new ArrayList<>();
-		rootNodes().forEach(node -> collectNodes(node, allNodes));
-		return allNodes;
+		indexNodes();
+		return Collections.unmodifiableList(aAllNodes);
+	}
+	
+	/*
+	 * Rebuilds the node index if it is stale.
+	 */
+	private void indexNodes()
+	{
+		if( aAllNodes == null || aIndexedChildUpdates != AbstractNode.childUpdates() )
+		{
+			aAllNodes = new ArrayList<>();
+			aNodeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+			aRootNodes.forEach(node -> collectNodes(node, aAllNodes));
+			aNodeSet.addAll(aAllNodes);
+			aIndexedChildUpdates = AbstractNode.childUpdates();
+		}
 	}
 	
 	/*
@@ -164,7 +216,8 @@ public final class Diagram implements DiagramData
 
 	/**
 	 * Checks whether pElement is in the diagram. If pElement is a node, the method returns true if it is a root node,
-	 * or any of its parent is a root node.
+	 * or any of its parent is a root node. Nodes are looked up in the node index, and edges in the 
+	 * edges connected to their start node.
 	 * 
 	 * @param pElement The element we want to check is in the diagram.
 	 * @return True if pElement is a node or edge in this diagram.
@@ -173,34 +226,12 @@ public final class Diagram implements DiagramData
 	public boolean contains(DiagramElement pElement)
 	{
 		assert pElement != null;
-		if( aEdges.contains(pElement) )
+		if( pElement instanceof Edge edge )
 		{
-			return true;
+			return aConnectedEdges.getOrDefault(edge.start(), List.of()).contains(edge);
 		}
-		for( Node node : aRootNodes )
-		{
-			if( containsNode(node, pElement) )
-			{
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private boolean containsNode(Node pTest, DiagramElement pTarget)
-	{
-		if( pTest == pTarget )
-		{
-			return true;
-		}
-		for( Node node : pTest.getChildren() )
-		{
-			if( containsNode(node, pTarget) )
-			{
-				return true;
-			}
-		}
-		return false;
+		indexNodes();
+		return aNodeSet.contains(pElement);
 	}
 
 	/**
@@ -234,15 +265,7 @@ public final class Diagram implements DiagramData
 	public Iterable<Edge> edgesConnectedTo(Node pNode)
 	{
 		assert pNode != null && contains(pNode);
-		Collection<Edge> lReturn = new ArrayList<>();
-		for( Edge edge : aEdges )
-		{
-			if( edge.start() == pNode || edge.end() == pNode )
-			{
-				lReturn.add(edge);
-			}
-		}
-		return lReturn;
+		return new ArrayList<>(aConnectedEdges.getOrDefault(pNode, List.of()));
 	}
 	
 	/**
@@ -257,9 +280,26 @@ public final class Diagram implements DiagramData
 	public List<Edge> edgesTo(Node pNode, Class<? extends Edge> pOfType)
 	{
 		assert pNode != null && pOfType != null;
-		return aEdges.stream()
+		return aIncomingEdges.getOrDefault(pNode, List.of()).stream()
+				.filter(pOfType::isInstance)
+				.toList();
+	}
+	
+	/**
+	 * Returns all the edges in the diagram of a type assignable to pType,
+	 * and that have pNode as start node.
+	 * 
+	 * @param pNode The desired start node.
+	 * @param pOfType The desired edge type. Use Edge.class to get edges of any type.
+	 * @return An unmodifiable list of edges of type pOfType (or a subtype) that
+	 * have pNode as start node, in the order of the edges of the diagram.
+	 */
+	public List<Edge> edgesFrom(Node pNode, Class<? extends Edge> pOfType)
+	{
+		assert pNode != null && pOfType != null;
+		return aConnectedEdges.getOrDefault(pNode, List.of()).stream()
+				.filter(edge -> edge.start() == pNode)
 				.filter(pOfType::isInstance)
-				.filter(edge -> edge.end() == pNode)
 				.toList();
 	}
 
@@ -274,6 +314,13 @@ public final class Diagram implements DiagramData
 	{
 		assert pNode != null;
 		aRootNodes.add(pNode);
+		aModifications++;
+		if( aAllNodes != null )
+		{
+			int start = aAllNodes.size();
+			collectNodes(pNode, aAllNodes);
+			aNodeSet.addAll(aAllNodes.subList(start, aAllNodes.size()));
+		}
 	}
 
 	/**
@@ -287,6 +334,8 @@ public final class Diagram implements DiagramData
 	{
 		assert pNode != null && aRootNodes.contains(pNode);
 		aRootNodes.remove(pNode);
+		aAllNodes = null;
+		aModifications++;
 	}
 
 	/**
@@ -300,6 +349,8 @@ public final class Diagram implements DiagramData
 	{
 		assert pEdge != null && pEdge.start() != null && pEdge.end() != null;
 		aEdges.add(pEdge);
+		index(pEdge, aEdges.size() - 1);
+		aModifications++;
 	}
 	
 	/**
@@ -313,6 +364,64 @@ public final class Diagram implements DiagramData
 	{
 		assert pEdge != null && pIndex >= 0 && pIndex <= aEdges.size();
 		aEdges.add(pIndex, pEdge);
+		index(pEdge, pIndex);
+		aModifications++;
+	}
+	
+	/*
+	 * Adds pEdge, which is at position pIndex in aEdges, to the adjacency index.
+	 */
+	private void index(Edge pEdge, int pIndex)
+	{
+		Node start = pEdge.start();
+		Node end = pEdge.end();
+		insert(aConnectedEdges, start, pEdge, pIndex, edge -> edge.start() == start || edge.end() == start);
+		if( end != start )
+		{
+			insert(aConnectedEdges, end, pEdge, pIndex, edge -> edge.start() == end || edge.end() == end);
+		}
+		insert(aIncomingEdges, end, pEdge, pIndex, edge -> edge.end() == end);
+	}
+	
+	/*
+	 * Inserts pEdge, which is at position pPosition in aEdges, in the list that pAdjacency 
+	 * maps to pNode, so that the list follows the order of aEdges. pInList determines 
+	 * which edges of aEdges are in the list. 
+	 */
+	private void insert(Map<Node, List<Edge>> pAdjacency, Node pNode, Edge pEdge, int pPosition, Predicate<Edge> pInList)
+	{
+		List<Edge> edges = pAdjacency.computeIfAbsent(pNode, node -> new ArrayList<>());
+		if( pPosition == aEdges.size() - 1 )
+		{
+			edges.add(pEdge);
+		}
+		else
+		{
+			edges.add((int) aEdges.subList(0, pPosition).stream().filter(pInList).count(), pEdge);
+		}
+	}
+	
+	/*
+	 * Removes pEdge from the adjacency index.
+	 */
+	private void unindex(Edge pEdge)
+	{
+		remove(aConnectedEdges, pEdge.start(), pEdge);
+		remove(aConnectedEdges, pEdge.end(), pEdge);
+		remove(aIncomingEdges, pEdge.end(), pEdge);
+	}
+	
+	private static void remove(Map<Node, List<Edge>> pAdjacency, Node pNode, Edge pEdge)
+	{
+		List<Edge> edges = pAdjacency.get(pNode);
+		if( edges != null )
+		{
+			edges.remove(pEdge);
+			if( edges.isEmpty() )
+			{
+				pAdjacency.remove(pNode);
+			}
+		}
 	}
 
 
@@ -338,6 +447,92 @@ public final class Diagram implements DiagramData
 	{
 		assert pEdge != null && aEdges.contains(pEdge);
 		aEdges.remove(pEdge);
+		unindex(pEdge);
+		aModifications++;
+	}
+	
+	/**
+	 * Removes all the edges in pEdges from this diagram, in a single pass over 
+	 * the edges of the diagram. Callers must ensure that the removal preserves 
+	 * the integrity of the diagram.
+	 * 
+	 * @param pEdges The edges to remove.
+	 * @pre pEdges != null && all edges in pEdges are contained in the diagram
+	 */
+	public void removeEdges(Collection<Edge> pEdges)
+	{
+		assert pEdges != null;
+		Set<Edge> edges = Collections.newSetFromMap(new IdentityHashMap<>());
+		edges.addAll(pEdges);
+		aEdges.removeIf(edges::contains);
+		reindex();
+		aModifications++;
+	}
+	
+	/**
+	 * Inserts each edge in pEdges at the index it is mapped to, in increasing 
+	 * order of index, in a single pass over the edges of the diagram. Inserting 
+	 * edges at the indices they had before a call to removeEdges restores the 
+	 * list of edges exactly.
+	 * 
+	 * @param pEdges The edges to add, mapped to their index once added.
+	 * @pre pEdges != null
+	 * @pre All edges in pEdges are connected.
+	 */
+	public void addEdges(SortedMap<Integer, Edge> pEdges)
+	{
+		assert pEdges != null;
+		ArrayList<Edge> merged = new ArrayList<>(aEdges.size() + pEdges.size());
+		Iterator<Edge> existing = aEdges.iterator();
+		for( Map.Entry<Integer, Edge> entry : pEdges.entrySet() )
+		{
+			while( merged.size() < entry.getKey() )
+			{
+				merged.add(existing.next());
+			}
+			merged.add(entry.getValue());
+		}
+		existing.forEachRemaining(merged::add);
+		aEdges.clear();
+		aEdges.addAll(merged);
+		reindex();
+		aModifications++;
+	}
+	
+	/**
+	 * Removes all the nodes in pNodes from the list of root nodes in this diagram, 
+	 * in a single pass over the root nodes. Callers must ensure that the removal 
+	 * preserves the integrity of the diagram.
+	 * 
+	 * @param pNodes The nodes to remove.
+	 * @pre pNodes != null && all nodes in pNodes are root nodes.
+	 */
+	public void removeRootNodes(Collection<Node> pNodes)
+	{
+		assert pNodes != null;
+		Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		nodes.addAll(pNodes);
+		aRootNodes.removeIf(nodes::contains);
+		aAllNodes = null;
+		aModifications++;
+	}
+	
+	/*
+	 * Rebuilds the adjacency index from the list of edges.
+	 */
+	private void reindex()
+	{
+		aConnectedEdges.clear();
+		aIncomingEdges.clear();
+		for( Edge edge : aEdges )
+		{
+			aConnectedEdges.computeIfAbsent(edge.start(), node -> new ArrayList<>()).add(edge);
+			if( edge.end() != edge.start() )
+			{
+				aConnectedEdges.computeIfAbsent(edge.end(), node -> new ArrayList<>()).add(edge);
+			}
+			aIncomingEdges.computeIfAbsent(edge.end(), node -> new ArrayList<>()).add(edge);
+		}
 	}
 
 	/**
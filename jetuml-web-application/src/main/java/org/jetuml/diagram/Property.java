@@ -76,5 +76,6 @@ public class Property
 	{
 		assert pValue != null;
 		aSetter.accept(pValue);
+		AbstractDiagramElement.modified();
 	}
 }
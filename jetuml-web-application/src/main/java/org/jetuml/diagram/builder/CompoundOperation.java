@@ -21,8 +21,12 @@
 package org.jetuml.diagram.builder;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.jetuml.diagram.Node;
 
 /**
  * An operation that is composed of other operations, following
@@ -32,6 +36,13 @@ import java.util.List;
  * in the order they were added. Undoing a compound operation
  * undoes all the sub-operation in the reverse order in which 
  * they were added.
+ * 
+ * Consecutive sub-operations that remove the same kind of element from 
+ * the same diagram when executed or undone are applied as a single batch. 
+ * This does not change the result, only the time it takes to obtain it.
+ * 
+ * A compound operation that only moves nodes can be merged with a following 
+ * one that moves the same set of nodes.
  */
 public class CompoundOperation implements DiagramOperation
 {
@@ -51,21 +62,107 @@ public class CompoundOperation implements DiagramOperation
 	@Override
 	public void execute()
 	{
-		for( DiagramOperation operation : aOperations)
+		for( int i = 0; i < aOperations.size(); i++ )
 		{
-			operation.execute();
+			List<DiagramElementOperation> removals = removalRun(i, 1, true);
+			if( removals.size() > 1 )
+			{
+				DiagramElementOperation.removeAll(removals);
+				i += removals.size() - 1;
+			}
+			else
+			{
+				aOperations.get(i).execute();
+			}
 		}
 	}
 
 	@Override
 	public void undo()
 	{
-		ArrayList<DiagramOperation> reverse = new ArrayList<>(aOperations);
-		Collections.reverse(reverse);
-		for( DiagramOperation operation : reverse)
+		for( int i = aOperations.size() - 1; i >= 0; i-- )
+		{
+			List<DiagramElementOperation> removals = removalRun(i, -1, false);
+			if( removals.size() > 1 )
+			{
+				DiagramElementOperation.removeAll(removals);
+				i -= removals.size() - 1;
+			}
+			else
+			{
+				aOperations.get(i).undo();
+			}
+		}
+	}
+	
+	/*
+	 * Returns the run of similar operations that starts at index pStart and continues 
+	 * in the direction of pStep, if executing them (pExecute) or undoing them removes 
+	 * an element from a diagram. Returns an empty list otherwise.
+	 */
+	private List<DiagramElementOperation> removalRun(int pStart, int pStep, boolean pExecute)
+	{
+		List<DiagramElementOperation> result = new ArrayList<>();
+		if( aOperations.get(pStart) instanceof DiagramElementOperation first && first.removes(pExecute) )
+		{
+			result.add(first);
+			for( int i = pStart + pStep; i >= 0 && i < aOperations.size() && 
+					aOperations.get(i) instanceof DiagramElementOperation next && first.isSimilarTo(next); i += pStep )
+			{
+				result.add(next);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @return The sum of the footprints of the sub-operations, and at least 1.
+	 */
+	@Override
+	public int footprint()
+	{
+		int result = 0;
+		for( DiagramOperation operation : aOperations )
+		{
+			result += operation.footprint();
+		}
+		return Math.max(1, result);
+	}
+	
+	/**
+	 * Merges this operation with pNext if both consist only of moves of 
+	 * the same set of nodes, each node being moved once. The result 
+	 * moves each node once, in the order of this operation.
+	 */
+	@Override
+	public Optional<DiagramOperation> mergeWith(DiagramOperation pNext)
+	{
+		assert pNext != null;
+		if( !(pNext instanceof CompoundOperation next) || aOperations.isEmpty() || 
+				next.aOperations.size() != aOperations.size() )
+		{
+			return Optional.empty();
+		}
+		Map<Node, DiagramOperation> nextMoves = new IdentityHashMap<>();
+		for( DiagramOperation operation : next.aOperations )
+		{
+			if( !(operation instanceof MoveNodeOperation move) || nextMoves.put(move.node(), move) != null )
+			{
+				return Optional.empty();
+			}
+		}
+		CompoundOperation result = new CompoundOperation();
+		for( DiagramOperation operation : aOperations )
 		{
-			operation.undo();
+			if( !(operation instanceof MoveNodeOperation move) || !nextMoves.containsKey(move.node()) )
+			{
+				return Optional.empty();
+			}
+			Optional<DiagramOperation> merged = move.mergeWith(nextMoves.remove(move.node()));
+			assert merged.isPresent();
+			result.add(merged.get());
 		}
+		return Optional.of(result);
 	}
 	
 	/**
@@ -23,22 +23,20 @@ package org.jetuml.diagram.builder;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.edges.NoteEdge;
-import org.jetuml.diagram.nodes.FieldNode;
 import org.jetuml.diagram.nodes.NoteNode;
-import org.jetuml.diagram.nodes.ObjectNode;
 import org.jetuml.diagram.nodes.PackageNode;
 import org.jetuml.diagram.nodes.PointNode;
 import org.jetuml.geom.Dimension;
@@ -127,8 +125,7 @@ public abstract class DiagramBuilder
 		// Skip the condition check for add node
 		//assert canAdd(pNode, pRequestedPosition);
 		positionNode(pNode, pRequestedPosition);
-		return new SimpleOperation( ()-> aDiagramRenderer.diagram().addRootNode(pNode), 
-				()-> aDiagramRenderer.diagram().removeRootNode(pNode));
+		return DiagramElementOperation.addRootNode(aDiagramRenderer.diagram(), pNode);
 	}
 	
 	/**
@@ -146,23 +143,11 @@ public abstract class DiagramBuilder
 		{
 			if( element instanceof Node node)
 			{
-				operation.add(new SimpleOperation(
-						()-> aDiagramRenderer.diagram().addRootNode(node),
-						()-> aDiagramRenderer.diagram().removeRootNode(node)));
+				operation.add(DiagramElementOperation.addRootNode(aDiagramRenderer.diagram(), node));
 			}
 			else if( element instanceof Edge edge)
 			{
-				/* We need to re-connect the edge to set the correct value for the
-				 * reference to the diagram, to cover the cases where elements might 
-				 * be added by being copied from one diagram and pasted into another.
-				 */
-				operation.add(new SimpleOperation(
-						()-> 
-						{ 
-							aDiagramRenderer.diagram().addEdge(edge); 
-							edge.connect(edge.start(), edge.end());	
-						},
-						()-> aDiagramRenderer.diagram().removeEdge((Edge)element)));
+				operation.add(DiagramElementOperation.addEdge(aDiagramRenderer.diagram(), edge));
 			}
 		}
 		
@@ -203,23 +188,26 @@ public abstract class DiagramBuilder
 		}
 		if( pElement instanceof Node node)
 		{
-			List<Node> descendants = getNodeAndAllChildren(node);
-			for(Edge edge : aDiagramRenderer.diagram().edges())
+			Set<Edge> edges = Collections.newSetFromMap(new IdentityHashMap<>());
+			for( Node descendant : getNodeAndAllChildren(node) )
 			{
-				if(descendants.contains(edge.start() ) || descendants.contains(edge.end()))
+				for( Edge edge : aDiagramRenderer.diagram().edgesConnectedTo(descendant) )
 				{
-					result.add(edge);
-					// Special case that if we remove a note edge we must always 
-					// remove the point node as well.
-					if( edge instanceof NoteEdge )
+					if( edges.add(edge) )
 					{
-						if( edge.start() instanceof PointNode )
-						{
-							result.add(edge.start());
-						}
-						if( edge.end() instanceof PointNode )
+						result.add(edge);
+						// Special case that if we remove a note edge we must always 
+						// remove the point node as well.
+						if( edge instanceof NoteEdge )
 						{
-							result.add(edge.end());
+							if( edge.start() instanceof PointNode )
+							{
+								result.add(edge.start());
+							}
+							if( edge.end() instanceof PointNode )
+							{
+								result.add(edge.end());
+							}
 						}
 					}
 				}
@@ -228,91 +216,16 @@ public abstract class DiagramBuilder
 		return result;
 	}
 	
-	/*
-	 * Organize the elements to delete so that they can be reinserted properly
-	 */
-	private List<DiagramElement> tweakOrder(Set<DiagramElement> pElements)
-	{
-		List<DiagramElement> result = new ArrayList<>();
-		Map<ObjectNode, List<FieldNode>> fields = new HashMap<>();
-		for( DiagramElement element : pElements )
-		{
-			if( element.getClass() != FieldNode.class )
-			{
-				result.add(element);
-			}
-			else
-			{
-				FieldNode field = (FieldNode) element;
-				if( !fields.containsKey(field.getParent()) )
-				{
-					fields.put((ObjectNode)field.getParent(), new ArrayList<>());
-				}
-				fields.get(field.getParent()).add(field);
-			}
-		}
-		for( ObjectNode object : fields.keySet() )
-		{
-			List<FieldNode> nodes = fields.get(object);
-			Collections.sort(nodes, new Comparator<FieldNode>()
-			{
-				@Override
-				public int compare(FieldNode pField1, FieldNode pField2)
-				{
-					return pField2.getParent().getChildren().indexOf(pField2) - 
-							pField1.getParent().getChildren().indexOf(pField1);
-				}
-			});
-			for( FieldNode node : nodes )
-			{
-				result.add(node);
-			}
-		}
-		ArrayList<DiagramElement> result2 = new ArrayList<>();
-		ArrayList<Edge> edges = new ArrayList<>();
-		ArrayList<Node> nodes = new ArrayList<>();
-		for( DiagramElement element : result )
-		{
-			if( element instanceof Edge edge)
-			{
-				edges.add(edge);
-			}
-			else if( element instanceof Node node && node.hasParent() )
-			{
-				nodes.add(node);
-			}
-			else
-			{
-				result2.add(element);
-			}
-		}
-		Collections.sort(edges, (pEdge1, pEdge2) -> aDiagramRenderer.diagram().indexOf(pEdge2) - aDiagramRenderer.diagram().indexOf(pEdge1));
-		Collections.sort(nodes, new Comparator<Node>() 
-		{
-			@Override
-			public int compare(Node pNode1, Node pNode2)
-			{
-				Node parent1 = pNode1.getParent();
-				Node parent2 = pNode2.getParent();
-				if( parent1 == parent2 )
-				{
-					return parent2.getChildren().indexOf(pNode2) -  parent1.getChildren().indexOf(pNode1);
-				}
-				else 
-				{
-					return aDiagramRenderer.diagram().rootNodes().indexOf(parent2) - 
-							aDiagramRenderer.diagram().rootNodes().indexOf(parent1);
-				}
-			}
-		});
-		result2.addAll(edges);
-		result2.addAll(nodes);
-		return result2;
-	}
-	
 	/**
 	 * Creates an operation that removes all the elements in pElements.
 	 * 
+	 * The root nodes and the edges to remove are each removed in a single batch.
+	 * When the operation is undone, the edges are restored at their original index, 
+	 * and the root nodes are added back on top of the other root nodes, in their 
+	 * original order. Child nodes are detached from their parent in decreasing 
+	 * order of index within each parent, so that they can be reinserted at their 
+	 * original index.
+	 * 
 	 * @param pElements The elements to remove.
 	 * @return The requested operation.
 	 * @pre pElements != null.
@@ -320,39 +233,71 @@ public abstract class DiagramBuilder
 	public final DiagramOperation createRemoveElementsOperation(Iterable<DiagramElement> pElements)
 	{
 		assert pElements != null;
-		Set<DiagramElement> toDelete = new HashSet<>();
+		Set<DiagramElement> toDelete = Collections.newSetFromMap(new IdentityHashMap<>());
 		for( DiagramElement element : pElements)
 		{
 			toDelete.addAll(getCoRemovals(element));
 		}
+		Diagram diagram = aDiagramRenderer.diagram();
 		CompoundOperation result = new CompoundOperation();
 		
-		for( DiagramElement element : tweakOrder(toDelete))
+		List<Node> rootNodes = diagram.rootNodes().stream().filter(toDelete::contains).toList();
+		if( !rootNodes.isEmpty() )
+		{
+			result.add(new SimpleOperation(
+					()-> diagram.removeRootNodes(rootNodes),
+					()-> rootNodes.forEach(diagram::addRootNode), rootNodes.size()));
+		}
+		SortedMap<Integer, Edge> edges = edgesAtIndices(toDelete);
+		if( !edges.isEmpty() )
+		{
+			result.add(new SimpleOperation(
+					()-> diagram.removeEdges(edges.values()),
+					()-> diagram.addEdges(edges), edges.size()));
+		}
+		List<Node> roots = diagram.rootNodes();
+		for( int i = roots.size() - 1; i >= 0; i-- )
+		{
+			addDetachOperations(roots.get(i), toDelete, result);
+		}
+		return result;
+	}
+	
+	/*
+	 * Returns the edges of the diagram that are in pElements, mapped to their index.
+	 */
+	private SortedMap<Integer, Edge> edgesAtIndices(Set<DiagramElement> pElements)
+	{
+		SortedMap<Integer, Edge> result = new TreeMap<>();
+		List<Edge> edges = aDiagramRenderer.diagram().edges();
+		for( int i = 0; i < edges.size(); i++ )
 		{
-			if( element instanceof Edge edge)
+			if( pElements.contains(edges.get(i)) )
 			{
-				int index = aDiagramRenderer.diagram().indexOf(edge);
-				result.add(new SimpleOperation(
-						()-> aDiagramRenderer.diagram().removeEdge(edge),
-						()-> aDiagramRenderer.diagram().addEdge(index, edge)));
+				result.put(i, edges.get(i));
 			}
-			else if( element instanceof Node node)
+		}
+		return result;
+	}
+	
+	/*
+	 * Adds an operation to detach each descendant of pParent that is in pElements, 
+	 * visiting the children of each node from the last to the first.
+	 */
+	private void addDetachOperations(Node pParent, Set<DiagramElement> pElements, CompoundOperation pOperation)
+	{
+		List<Node> children = pParent.getChildren();
+		for( int i = children.size() - 1; i >= 0; i-- )
+		{
+			Node child = children.get(i);
+			addDetachOperations(child, pElements, pOperation);
+			if( pElements.contains(child) )
 			{
-				if(node.hasParent())
-				{
-					result.add(new SimpleOperation(
-						createDetachOperation(node),
-						createReinsertOperation(node)));
-				}
-				else
-				{
-					result.add(new SimpleOperation(
-						()-> aDiagramRenderer.diagram().removeRootNode(node),
-						()-> aDiagramRenderer.diagram().addRootNode(node)));
-				}
+				pOperation.add(new SimpleOperation(
+						createDetachOperation(child),
+						createReinsertOperation(child, i)));
 			}
 		}
-		return result;
 	}
 	
 	/**
@@ -366,9 +311,7 @@ public abstract class DiagramBuilder
 	 */
 	public static DiagramOperation createMoveNodeOperation(Node pNode, int pX, int pY)
 	{
-		return new SimpleOperation(
-				()-> pNode.translate(pX, pY),
-				()-> pNode.translate(-pX, -pY));
+		return new MoveNodeOperation(pNode, pX, pY);
 	}
 	
 	/**
@@ -390,10 +333,9 @@ public abstract class DiagramBuilder
 		Edge edge = obtainEdge(pEdge, pStart, pEnd);
 		
 		CompoundOperation addEdgeOperation = new CompoundOperation();
-		if(!diagram().allNodes().contains(endNode))
+		if(!diagram().contains(endNode))
 		{
-			addEdgeOperation.add(new SimpleOperation(()-> aDiagramRenderer.diagram().addRootNode(endNode),
-					() -> aDiagramRenderer.diagram().removeRootNode(endNode)));
+			addEdgeOperation.add(DiagramElementOperation.addRootNode(aDiagramRenderer.diagram(), endNode));
 		}
 		completeEdgeAdditionOperation(addEdgeOperation, edge, startNode, endNode, pStart, pEnd);
 		return addEdgeOperation;
@@ -464,15 +406,13 @@ public abstract class DiagramBuilder
 			Point pStartPoint, Point pEndPoint)
 	{
 		pEdge.connect(pStartNode, pEndNode);
-		pOperation.add(new SimpleOperation(()-> aDiagramRenderer.diagram().addEdge(pEdge),
-				()-> aDiagramRenderer.diagram().removeEdge(pEdge)));
+		pOperation.add(DiagramElementOperation.addEdge(aDiagramRenderer.diagram(), pEdge));
 	}
 	
-	private static Runnable createReinsertOperation(Node pNode)
+	private static Runnable createReinsertOperation(Node pNode, int pIndex)
 	{
 		Node parent = pNode.getParent();
-		int index = parent.getChildren().indexOf(pNode);
-		return ()-> parent.addChild(index, pNode);
+		return ()-> parent.addChild(pIndex, pNode);
 	}
 	
 	private Runnable createDetachOperation(Node pNode)
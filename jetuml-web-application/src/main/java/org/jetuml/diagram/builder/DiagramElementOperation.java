@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+
+/**
+ * An operation that adds a root node or an edge to a diagram, or that removes 
+ * one from it. Added elements go at the end of the list of root nodes or edges.
+ * 
+ * Unlike a SimpleOperation, the effect of this operation is known. This allows 
+ * a CompoundOperation to apply a run of operations that all remove the same kind 
+ * of element from the same diagram as a single batch, with one pass over the 
+ * elements of the diagram instead of one pass per element removed.
+ */
+final class DiagramElementOperation implements DiagramOperation
+{
+	private final Diagram aDiagram;
+	private final DiagramElement aElement;
+	private final boolean aAddition;
+	
+	private DiagramElementOperation(Diagram pDiagram, DiagramElement pElement, boolean pAddition)
+	{
+		assert pDiagram != null && pElement != null;
+		aDiagram = pDiagram;
+		aElement = pElement;
+		aAddition = pAddition;
+	}
+	
+	/**
+	 * @param pDiagram The diagram to add the node to.
+	 * @param pNode The node to add as a root node.
+	 * @return An operation that adds pNode as a root node of pDiagram.
+	 * @pre pDiagram != null && pNode != null
+	 */
+	static DiagramElementOperation addRootNode(Diagram pDiagram, Node pNode)
+	{
+		return new DiagramElementOperation(pDiagram, pNode, true);
+	}
+	
+	/**
+	 * @param pDiagram The diagram to add the edge to.
+	 * @param pEdge The edge to add. It should already be connected.
+	 * @return An operation that adds pEdge to pDiagram.
+	 * @pre pDiagram != null && pEdge != null
+	 */
+	static DiagramElementOperation addEdge(Diagram pDiagram, Edge pEdge)
+	{
+		return new DiagramElementOperation(pDiagram, pEdge, true);
+	}
+	
+	@Override
+	public void execute()
+	{
+		apply(aAddition);
+	}
+
+	@Override
+	public void undo()
+	{
+		apply(!aAddition);
+	}
+	
+	private void apply(boolean pAddition)
+	{
+		if( aElement instanceof Node node )
+		{
+			if( pAddition )
+			{
+				aDiagram.addRootNode(node);
+			}
+			else
+			{
+				aDiagram.removeRootNode(node);
+			}
+		}
+		else if( pAddition )
+		{
+			aDiagram.addEdge((Edge) aElement);
+		}
+		else
+		{
+			aDiagram.removeEdge((Edge) aElement);
+		}
+	}
+	
+	/**
+	 * @param pExecute True if the operation is to be executed, false if it is to be undone.
+	 * @return True if executing or undoing this operation, as indicated by pExecute, 
+	 *     removes an element from the diagram.
+	 */
+	boolean removes(boolean pExecute)
+	{
+		return aAddition != pExecute;
+	}
+	
+	/**
+	 * @param pOperation Another operation.
+	 * @return True if pOperation has the same effect as this operation on a different element
+	 *     of the same kind.
+	 * @pre pOperation != null
+	 */
+	boolean isSimilarTo(DiagramElementOperation pOperation)
+	{
+		assert pOperation != null;
+		return aDiagram == pOperation.aDiagram && aAddition == pOperation.aAddition && 
+				aElement instanceof Node == pOperation.aElement instanceof Node;
+	}
+	
+	/**
+	 * Removes the elements of all the operations in pOperations from their diagram, with 
+	 * a single pass over the elements of the diagram. The result is the same as executing
+	 * or undoing each operation in turn.
+	 * 
+	 * @param pOperations Similar operations that remove an element when applied.
+	 * @pre pOperations != null && !pOperations.isEmpty()
+	 */
+	static void removeAll(List<DiagramElementOperation> pOperations)
+	{
+		assert pOperations != null && !pOperations.isEmpty();
+		DiagramElementOperation first = pOperations.get(0);
+		if( first.aElement instanceof Node )
+		{
+			List<Node> nodes = new ArrayList<>();
+			pOperations.forEach(operation -> nodes.add((Node) operation.aElement));
+			first.aDiagram.removeRootNodes(nodes);
+		}
+		else
+		{
+			List<Edge> edges = new ArrayList<>();
+			pOperations.forEach(operation -> edges.add((Edge) operation.aElement));
+			first.aDiagram.removeEdges(edges);
+		}
+	}
+}
@@ -20,6 +20,8 @@
  *******************************************************************************/
 package org.jetuml.diagram.builder;
 
+import java.util.Optional;
+
 /**
  * Represents an operation to change a diagram, that
  * can be undone. Operations are only required to be valid
@@ -36,4 +38,30 @@ public interface DiagramOperation
 	 * Undoes the operation.
 	 */
 	void undo();
+	
+	/**
+	 * Returns an estimate of the memory retained by this operation, as the 
+	 * number of elementary changes it makes to a diagram. This is used to 
+	 * bound the memory used by the history of operations.
+	 * 
+	 * @return The footprint of this operation. At least 1.
+	 */
+	default int footprint()
+	{
+		return 1;
+	}
+	
+	/**
+	 * Returns a single operation with the same effect as executing this 
+	 * operation then pNext, if the two operations can be merged. Neither 
+	 * operation is modified.
+	 * 
+	 * @param pNext The operation executed right after this one.
+	 * @return The merged operation, or empty if the operations cannot be merged.
+	 * @pre pNext != null
+	 */
+	default Optional<DiagramOperation> mergeWith(DiagramOperation pNext)
+	{
+		return Optional.empty();
+	}
 }
@@ -21,6 +21,7 @@
 
 package org.jetuml.diagram.builder;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -29,12 +30,101 @@ import java.util.Optional;
  * Responsible for executing and undoing operations, and managing the collection 
  * of previously executed and undone operations. Can also compute whether a 
  * diagram has unsaved modifications.
+ * 
+ * Because operations keep the elements they add or remove reachable, the history 
+ * of operations is bounded both in number of operations and in total footprint, 
+ * as estimated by DiagramOperation.footprint(). When a bound is exceeded, the 
+ * oldest executed operations are discarded first, then the undone operations 
+ * furthest from being redone. The last executed operation is never discarded.
+ * 
+ * An operation stored within the merge window of the previous one is merged 
+ * with it if possible, for example when the same nodes are moved repeatedly. 
+ * The merged operation is then undone as a single operation. Operations are 
+ * never merged with the operation at the time the diagram was saved.
  */
 public class DiagramOperationProcessor
 {
-	private final List<DiagramOperation> aExecutedOperations = new ArrayList<>();
-	private final List<DiagramOperation> aUndoneOperations = new ArrayList<>();
+	/**
+	 * The default maximum number of operations kept in the history.
+	 */
+	public static final int DEFAULT_MAXIMUM_DEPTH = 1000;
+	
+	/**
+	 * The default maximum total footprint of the operations kept in the history.
+	 */
+	public static final long DEFAULT_MAXIMUM_FOOTPRINT = 500000;
+	
+	/**
+	 * The default merge window, which disables merging.
+	 */
+	public static final Duration DEFAULT_MERGE_WINDOW = Duration.ZERO;
+	
+	/*
+	 * An operation in the history, with its footprint computed when it was added.
+	 */
+	private record HistoryEntry(DiagramOperation operation, int footprint) 
+	{
+		HistoryEntry(DiagramOperation pOperation)
+		{
+			this(pOperation, pOperation.footprint());
+		}
+	}
+	
+	private final int aMaximumDepth;
+	private final long aMaximumFootprint;
+	private final long aMergeWindow; // In nanoseconds
+	private long aLastStoreTime = 0;
+	// False if an operation was undone or redone since the last operation was stored
+	private boolean aLastStoreIsLatest = false;
+	private final List<HistoryEntry> aExecutedOperations = new ArrayList<>();
+	private final List<HistoryEntry> aUndoneOperations = new ArrayList<>();
+	private long aFootprint = 0;
 	private Optional<DiagramOperation> aLastSavedOperation = Optional.empty();
+	// True if the state in which the diagram was last saved can no longer be reached
+	private boolean aSavedStateDiscarded = false;
+	
+	/**
+	 * Creates a processor with the default bounds on the history.
+	 */
+	public DiagramOperationProcessor()
+	{
+		this(DEFAULT_MAXIMUM_DEPTH, DEFAULT_MAXIMUM_FOOTPRINT);
+	}
+	
+	/**
+	 * Creates a processor whose history keeps at most pMaximumDepth operations,
+	 * with a total footprint of at most pMaximumFootprint, and that does not 
+	 * merge operations.
+	 * 
+	 * @param pMaximumDepth The maximum number of executed and undone operations kept.
+	 * @param pMaximumFootprint The maximum total footprint of the operations kept.
+	 * @pre pMaximumDepth > 0 && pMaximumFootprint > 0
+	 */
+	public DiagramOperationProcessor(int pMaximumDepth, long pMaximumFootprint)
+	{
+		this(pMaximumDepth, pMaximumFootprint, DEFAULT_MERGE_WINDOW);
+	}
+	
+	/**
+	 * Creates a processor whose history keeps at most pMaximumDepth operations,
+	 * with a total footprint of at most pMaximumFootprint, and that merges an 
+	 * operation with the previous one if it is stored less than pMergeWindow 
+	 * after it.
+	 * 
+	 * @param pMaximumDepth The maximum number of executed and undone operations kept.
+	 * @param pMaximumFootprint The maximum total footprint of the operations kept.
+	 * @param pMergeWindow The maximum time between two operations that can be merged.
+	 * @pre pMaximumDepth > 0 && pMaximumFootprint > 0
+	 * @pre pMergeWindow != null && !pMergeWindow.isNegative()
+	 */
+	public DiagramOperationProcessor(int pMaximumDepth, long pMaximumFootprint, Duration pMergeWindow)
+	{
+		assert pMaximumDepth > 0 && pMaximumFootprint > 0;
+		assert pMergeWindow != null && !pMergeWindow.isNegative();
+		aMaximumDepth = pMaximumDepth;
+		aMaximumFootprint = pMaximumFootprint;
+		aMergeWindow = pMergeWindow.toNanos();
+	}
 	
 	/**
 	 * Executes pOperation and adds it to the list of executed
@@ -47,7 +137,7 @@ public class DiagramOperationProcessor
 	{
 		assert pOperation != null;
 		pOperation.execute();
-		aExecutedOperations.add(pOperation);
+		storeAlreadyExecutedOperation(pOperation);
 	}
 	
 	/**
@@ -55,7 +145,11 @@ public class DiagramOperationProcessor
 	 */
 	public boolean hasUnsavedOperations()
 	{
-		if( aLastSavedOperation.isPresent() )
+		if( aSavedStateDiscarded )
+		{
+			return true;
+		}
+		else if( aLastSavedOperation.isPresent() )
 		{
 			if( aExecutedOperations.isEmpty() )
 			{
@@ -74,7 +168,7 @@ public class DiagramOperationProcessor
 	
 	private DiagramOperation peek()
 	{
-		return aExecutedOperations.get(aExecutedOperations.size()-1);
+		return aExecutedOperations.get(aExecutedOperations.size()-1).operation();
 	}
 	
 	/**
@@ -83,6 +177,7 @@ public class DiagramOperationProcessor
 	public void diagramSaved()
 	{
 		aLastSavedOperation = Optional.empty();
+		aSavedStateDiscarded = false;
 		if( aExecutedOperations.size() > 0 )
 		{
 			aLastSavedOperation = Optional.of(peek());
@@ -99,7 +194,123 @@ public class DiagramOperationProcessor
 	public void storeAlreadyExecutedOperation(DiagramOperation pOperation)
 	{
 		assert pOperation != null;
-		aExecutedOperations.add(pOperation);
+		long time = System.nanoTime();
+		Optional<DiagramOperation> merged = merge(pOperation, time);
+		if( merged.isPresent() )
+		{
+			HistoryEntry previous = aExecutedOperations.remove(aExecutedOperations.size() - 1);
+			aFootprint -= previous.footprint();
+			add(merged.get());
+		}
+		else
+		{
+			add(pOperation);
+		}
+		aLastStoreTime = time;
+		aLastStoreIsLatest = true;
+		trimHistory();
+	}
+	
+	private void add(DiagramOperation pOperation)
+	{
+		HistoryEntry entry = new HistoryEntry(pOperation);
+		aExecutedOperations.add(entry);
+		aFootprint += entry.footprint();
+	}
+	
+	/*
+	 * Returns the result of merging the last executed operation with pOperation, if 
+	 * pOperation is stored within the merge window, there is nothing to redo, 
+	 * no operation was undone or redone since the last one was stored, the diagram 
+	 * was not saved right after the last executed operation, and the operations 
+	 * can be merged.
+	 */
+	private Optional<DiagramOperation> merge(DiagramOperation pOperation, long pTime)
+	{
+		if( aExecutedOperations.isEmpty() || !aUndoneOperations.isEmpty() || !aLastStoreIsLatest || 
+				pTime - aLastStoreTime >= aMergeWindow )
+		{
+			return Optional.empty();
+		}
+		DiagramOperation previous = peek();
+		if( aLastSavedOperation.isPresent() && aLastSavedOperation.get() == previous )
+		{
+			return Optional.empty();
+		}
+		return previous.mergeWith(pOperation);
+	}
+	
+	/*
+	 * Discards the oldest executed operations, then the undone operations that 
+	 * would be redone last, until the history is within its bounds.
+	 */
+	private void trimHistory()
+	{
+		while( historySize() > aMaximumDepth || aFootprint > aMaximumFootprint )
+		{
+			if( aExecutedOperations.size() > 1 )
+			{
+				discardOldestExecutedOperation();
+			}
+			else if( !aUndoneOperations.isEmpty() )
+			{
+				discardLastUndoneOperation();
+			}
+			else
+			{
+				return;
+			}
+		}
+	}
+	
+	/*
+	 * The state that follows the oldest executed operation becomes the earliest 
+	 * state that can be reached by undoing operations. If the diagram was saved 
+	 * in the state before it, that state is no longer reachable.
+	 */
+	private void discardOldestExecutedOperation()
+	{
+		HistoryEntry entry = aExecutedOperations.remove(0);
+		aFootprint -= entry.footprint();
+		if( aLastSavedOperation.isEmpty() )
+		{
+			aSavedStateDiscarded = true;
+		}
+		else if( aLastSavedOperation.get() == entry.operation() )
+		{
+			aLastSavedOperation = Optional.empty();
+		}
+	}
+	
+	/*
+	 * The state that follows the undone operation that would be redone last is 
+	 * no longer reachable.
+	 */
+	private void discardLastUndoneOperation()
+	{
+		HistoryEntry entry = aUndoneOperations.remove(0);
+		aFootprint -= entry.footprint();
+		if( aLastSavedOperation.isPresent() && aLastSavedOperation.get() == entry.operation() )
+		{
+			aLastSavedOperation = Optional.empty();
+			aSavedStateDiscarded = true;
+		}
+	}
+	
+	/**
+	 * @return The number of executed and undone operations kept in the history.
+	 */
+	public int historySize()
+	{
+		return aExecutedOperations.size() + aUndoneOperations.size();
+	}
+	
+	/**
+	 * @return The total footprint of the executed and undone operations kept in the history.
+	 */
+	public long historyFootprint()
+	{
+		return aFootprint;
 	}
 	
 	/**
@@ -110,9 +321,10 @@ public class DiagramOperationProcessor
 	public void undoLastExecutedOperation()
 	{
 		assert canUndo();
-		DiagramOperation operation = aExecutedOperations.remove(aExecutedOperations.size() - 1);
-		operation.undo();
-		aUndoneOperations.add(operation);
+		HistoryEntry entry = aExecutedOperations.remove(aExecutedOperations.size() - 1);
+		entry.operation().undo();
+		aUndoneOperations.add(entry);
+		aLastStoreIsLatest = false;
 	}
 	
 	/**
@@ -123,9 +335,10 @@ public class DiagramOperationProcessor
 	public void redoLastUndoneOperation()
 	{
 		assert canRedo();
-		DiagramOperation operation = aUndoneOperations.remove(aUndoneOperations.size() - 1);
-		operation.execute();
-		aExecutedOperations.add(operation);
+		HistoryEntry entry = aUndoneOperations.remove(aUndoneOperations.size() - 1);
+		entry.operation().execute();
+		aExecutedOperations.add(entry);
+		aLastStoreIsLatest = false;
 	}
 
 	/**
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.builder;
+
+import java.util.Optional;
+
+import org.jetuml.diagram.Node;
+
+/**
+ * An operation that translates a node. Two consecutive moves of the 
+ * same node can be merged into a single one.
+ */
+final class MoveNodeOperation implements DiagramOperation
+{
+	private final Node aNode;
+	private final int aDeltaX;
+	private final int aDeltaY;
+	
+	/**
+	 * @param pNode The node to move.
+	 * @param pDeltaX The amount to move the node in the x-coordinate.
+	 * @param pDeltaY The amount to move the node in the y-coordinate.
+	 * @pre pNode != null
+	 */
+	MoveNodeOperation(Node pNode, int pDeltaX, int pDeltaY)
+	{
+		assert pNode != null;
+		aNode = pNode;
+		aDeltaX = pDeltaX;
+		aDeltaY = pDeltaY;
+	}
+	
+	/**
+	 * @return The node moved by this operation.
+	 */
+	Node node()
+	{
+		return aNode;
+	}
+	
+	@Override
+	public void execute()
+	{
+		aNode.translate(aDeltaX, aDeltaY);
+	}
+
+	@Override
+	public void undo()
+	{
+		aNode.translate(-aDeltaX, -aDeltaY);
+	}
+	
+	@Override
+	public Optional<DiagramOperation> mergeWith(DiagramOperation pNext)
+	{
+		assert pNext != null;
+		if( pNext instanceof MoveNodeOperation next && next.aNode == aNode )
+		{
+			return Optional.of(new MoveNodeOperation(aNode, aDeltaX + next.aDeltaX, aDeltaY + next.aDeltaY));
+		}
+		return Optional.empty();
+	}
+}
@@ -30,6 +30,7 @@ public class SimpleOperation implements DiagramOperation
 {
 	private final Runnable aOperation;
 	private final Runnable aReverse;
+	private final int aFootprint;
 	
 	/**
 	 * Creates an operation.
@@ -41,9 +42,25 @@ public class SimpleOperation implements DiagramOperation
 	 */
 	public SimpleOperation(Runnable pOperation, Runnable pReverse)
 	{
-		assert pOperation != null && pReverse != null;
+		this(pOperation, pReverse, 1);
+	}
+	
+	/**
+	 * Creates an operation that changes pFootprint elements at once.
+	 * 
+	 * @param pOperation The code to run when the operation is executed.
+	 * @param pReverse The code to run when the operation is undone.
+	 * @param pFootprint The number of elementary changes made by the operation.
+	 * @pre pOperation != null
+	 * @pre pReverse != null
+	 * @pre pFootprint > 0
+	 */
+	public SimpleOperation(Runnable pOperation, Runnable pReverse, int pFootprint)
+	{
+		assert pOperation != null && pReverse != null && pFootprint > 0;
 		aOperation = pOperation;
 		aReverse = pReverse;
+		aFootprint = pFootprint;
 	}
 
 	@Override
@@ -57,4 +74,10 @@ public class SimpleOperation implements DiagramOperation
 	{
 		aReverse.run();
 	}
+	
+	@Override
+	public int footprint()
+	{
+		return aFootprint;
+	}
 }
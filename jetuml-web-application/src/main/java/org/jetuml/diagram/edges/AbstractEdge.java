@@ -38,6 +38,7 @@ public abstract class AbstractEdge extends AbstractDiagramElement implements Edg
 		assert pStart != null && pEnd != null;
 		aStart = pStart;
 		aEnd = pEnd;
+		modified();
 	}
 
 	@Override
@@ -67,6 +67,7 @@ public final class GeneralizationEdge extends AbstractEdge
 	public void setType(Type pType)
 	{
 		aType = pType;
+		modified();
 	}
 	
 	@Override
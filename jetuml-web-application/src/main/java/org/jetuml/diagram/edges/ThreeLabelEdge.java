@@ -36,6 +36,7 @@ public abstract class ThreeLabelEdge extends SingleLabelEdge
 	public void setStartLabel(String pLabel)
 	{
 		aStartLabel = pLabel;
+		modified();
 	}
 	
 	/**
@@ -44,6 +45,7 @@ public abstract class ThreeLabelEdge extends SingleLabelEdge
 	public void setEndLabel(String pLabel)
 	{
 		aEndLabel = pLabel;
+		modified();
 	}
 	
 	/**
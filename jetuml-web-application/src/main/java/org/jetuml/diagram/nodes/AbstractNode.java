@@ -33,12 +33,36 @@ import org.jetuml.geom.Point;
  */
 public abstract class AbstractNode extends AbstractDiagramElement implements Node
 {
+	/* The number of times a child was added to or removed from any node. Nodes 
+	 * do not know the diagram they belong to, so diagrams compare this number 
+	 * with the one they last saw to know whether their index of nodes is stale. */
+	private static long aChildUpdates = 0;
+	
 	private Point aPosition = new Point(0, 0);
 	
+	/**
+	 * @return The number of times a child was added to or removed from any node.
+	 */
+	public static long childUpdates()
+	{
+		return aChildUpdates;
+	}
+	
+	/**
+	 * Records that a child was added to or removed from a node. Nodes that 
+	 * hold children must call this method whenever their children change.
+	 */
+	protected static void childrenChanged()
+	{
+		aChildUpdates++;
+		modified();
+	}
+	
 	@Override
 	public void translate(int pDeltaX, int pDeltaY)
 	{
 		aPosition = new Point( aPosition.x() + pDeltaX, aPosition.y() + pDeltaY );
+		modified();
 	}
 	
 	@Override
@@ -51,6 +75,7 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 	public final void moveTo(Point pPoint)
 	{
 		aPosition = pPoint;
+		modified();
 	}
 
 	@Override
@@ -53,6 +53,7 @@ public class CallNode extends AbstractNode
 	public void setOpenBottom(boolean pNewValue)
 	{ 
 		aOpenBottom = pNewValue; 
+		modified();
 	}
 
 	@Override
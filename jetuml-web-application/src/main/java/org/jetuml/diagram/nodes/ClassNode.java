@@ -48,6 +48,7 @@ public final class ClassNode extends TypeNode
 	{
 		assert pNewValue != null;
 		aAttributes = pNewValue;
+		modified();
 	}
 
 	/**
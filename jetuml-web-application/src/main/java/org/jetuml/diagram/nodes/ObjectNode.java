@@ -77,6 +77,7 @@ public final class ObjectNode extends NamedNode
 		}
 		aFields.add(pIndex, pNode);
 		pNode.link(this);
+		childrenChanged();
 	}
 
 	@Override
@@ -92,6 +93,7 @@ public final class ObjectNode extends NamedNode
 		assert pNode.getParent() == this;
 		aFields.remove(pNode);
 		pNode.unlink();
+		childrenChanged();
 	}
 	
 	@Override
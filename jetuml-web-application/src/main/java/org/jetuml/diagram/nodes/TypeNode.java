@@ -44,6 +44,7 @@ public abstract class TypeNode extends NamedNode
 	{
 		assert pMethods != null;
 		aMethods = pMethods;
+		modified();
 	}
 	
 	/**
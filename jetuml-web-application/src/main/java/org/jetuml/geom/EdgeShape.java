@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.geom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A framework independent representation of the line of an edge: a start point 
+ * followed by straight segments and quadratic curves. The shape is immutable, 
+ * so it can be stored and tested repeatedly without allocating anything. 
+ * Curves are approximated by straight segments to test the distance to a point.
+ */
+public final class EdgeShape
+{
+	/* The number of straight segments that approximate a curve. */
+	private static final int CURVE_STEPS = 16;
+	
+	/* Half the width of the line as drawn, and the extra margin of the bounds 
+	 * of a stroked JavaFX shape. */
+	private static final double HALF_LINE_WIDTH = 0.5;
+	private static final double BOUNDS_MARGIN = 0.5;
+	
+	private final Point aStart;
+	private final List<Segment> aSegments;
+	private final double[] aXs;
+	private final double[] aYs;
+	private final Rectangle aBounds;
+	
+	/**
+	 * A straight segment or quadratic curve from the end of the previous 
+	 * segment, or from the start of the shape, to an end point.
+	 * 
+	 * @param control The control point of a quadratic curve, or empty for a straight segment.
+	 * @param end The end point of the segment.
+	 */
+	public record Segment(Optional<Point> control, Point end)
+	{
+		/**
+		 * @param pEnd The end point of the segment.
+		 * @return A straight segment to pEnd.
+		 * @pre pEnd != null
+		 */
+		public static Segment lineTo(Point pEnd)
+		{
+			assert pEnd != null;
+			return new Segment(Optional.empty(), pEnd);
+		}
+		
+		/**
+		 * @param pControl The control point of the curve.
+		 * @param pEnd The end point of the curve.
+		 * @return A quadratic curve to pEnd.
+		 * @pre pControl != null && pEnd != null
+		 */
+		public static Segment curveTo(Point pControl, Point pEnd)
+		{
+			assert pControl != null && pEnd != null;
+			return new Segment(Optional.of(pControl), pEnd);
+		}
+	}
+	
+	/**
+	 * Creates a shape from a start point and a sequence of segments.
+	 * 
+	 * @param pStart The start point of the shape.
+	 * @param pSegments The segments of the shape, in order.
+	 * @pre pStart != null && pSegments != null
+	 */
+	public EdgeShape(Point pStart, List<Segment> pSegments)
+	{
+		assert pStart != null && pSegments != null;
+		aStart = pStart;
+		aSegments = List.copyOf(pSegments);
+		List<double[]> vertices = flatten(pStart, aSegments);
+		aXs = new double[vertices.size()];
+		aYs = new double[vertices.size()];
+		for( int i = 0; i < vertices.size(); i++ )
+		{
+			aXs[i] = vertices.get(i)[0];
+			aYs[i] = vertices.get(i)[1];
+		}
+		aBounds = computeBounds();
+	}
+	
+	/**
+	 * @param pPoints The points of the polyline, in order.
+	 * @return The shape of a polyline that joins pPoints with straight segments.
+	 * @pre pPoints != null && pPoints.length > 0
+	 */
+	public static EdgeShape polyline(Point... pPoints)
+	{
+		assert pPoints != null && pPoints.length > 0;
+		List<Segment> segments = new ArrayList<>();
+		for( int i = 1; i < pPoints.length; i++ )
+		{
+			segments.add(Segment.lineTo(pPoints[i]));
+		}
+		return new EdgeShape(pPoints[0], segments);
+	}
+	
+	/**
+	 * @return The start point of the shape.
+	 */
+	public Point start()
+	{
+		return aStart;
+	}
+	
+	/**
+	 * @return The segments of the shape, in order.
+	 */
+	public List<Segment> segments()
+	{
+		return aSegments;
+	}
+	
+	/**
+	 * Returns the bounds of the shape drawn with a line one pixel wide with 
+	 * square ends. These are the bounds a JavaFX path of the shape has with its 
+	 * default stroke, truncated to integers.
+	 * 
+	 * @return The bounds of the shape, computed once.
+	 */
+	public Rectangle getBounds()
+	{
+		return aBounds;
+	}
+	
+	/**
+	 * @param pPoint The point to test.
+	 * @return The shortest distance between pPoint and the line of the shape.
+	 * @pre pPoint != null
+	 */
+	public double distance(Point pPoint)
+	{
+		assert pPoint != null;
+		if( aXs.length == 1 )
+		{
+			return Math.hypot(pPoint.x() - aXs[0], pPoint.y() - aYs[0]);
+		}
+		double result = Double.MAX_VALUE;
+		for( int i = 1; i < aXs.length; i++ )
+		{
+			result = Math.min(result, distanceToSegment(pPoint.x(), pPoint.y(), aXs[i-1], aYs[i-1], aXs[i], aYs[i]));
+		}
+		return result;
+	}
+	
+	/**
+	 * Tests whether pPoint is at most pDistance away from the line of the shape.
+	 * Points far from the bounds are rejected without measuring any segment.
+	 * 
+	 * @param pPoint The point to test.
+	 * @param pDistance The maximum distance.
+	 * @return True if pPoint is within pDistance of the line of the shape.
+	 * @pre pPoint != null && pDistance >= 0
+	 */
+	public boolean isNear(Point pPoint, double pDistance)
+	{
+		assert pPoint != null && pDistance >= 0;
+		if( pPoint.x() < aBounds.x() - pDistance || pPoint.x() > aBounds.maxX() + pDistance || 
+				pPoint.y() < aBounds.y() - pDistance || pPoint.y() > aBounds.maxY() + pDistance )
+		{
+			return false;
+		}
+		return distance(pPoint) <= pDistance;
+	}
+	
+	private static double distanceToSegment(double pX, double pY, double pX1, double pY1, double pX2, double pY2)
+	{
+		double dx = pX2 - pX1;
+		double dy = pY2 - pY1;
+		double lengthSquared = dx * dx + dy * dy;
+		double ratio = 0;
+		if( lengthSquared > 0 )
+		{
+			ratio = Math.max(0, Math.min(1, ((pX - pX1) * dx + (pY - pY1) * dy) / lengthSquared));
+		}
+		return Math.hypot(pX1 + ratio * dx - pX, pY1 + ratio * dy - pY);
+	}
+	
+	/*
+	 * Returns the vertices of the polyline that approximates the shape.
+	 */
+	private static List<double[]> flatten(Point pStart, List<Segment> pSegments)
+	{
+		List<double[]> vertices = new ArrayList<>();
+		vertices.add(new double[] {pStart.x(), pStart.y()});
+		Point previous = pStart;
+		for( Segment segment : pSegments )
+		{
+			if( segment.control().isPresent() )
+			{
+				Point control = segment.control().get();
+				for( int step = 1; step <= CURVE_STEPS; step++ )
+				{
+					double t = step / (double) CURVE_STEPS;
+					double u = 1 - t;
+					vertices.add(new double[] {
+							u * u * previous.x() + 2 * u * t * control.x() + t * t * segment.end().x(),
+							u * u * previous.y() + 2 * u * t * control.y() + t * t * segment.end().y()});
+				}
+			}
+			else
+			{
+				vertices.add(new double[] {segment.end().x(), segment.end().y()});
+			}
+			previous = segment.end();
+		}
+		return vertices;
+	}
+	
+	/*
+	 * Each segment of the approximating polyline covers a rectangle half a line wide on 
+	 * each side that extends half a line beyond its ends. The corners of these rectangles 
+	 * bound the line as drawn. A shape reduced to a point covers a square. 
+	 */
+	private Rectangle computeBounds()
+	{
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		boolean hasSegment = false;
+		for( int i = 1; i < aXs.length; i++ )
+		{
+			double length = Math.hypot(aXs[i] - aXs[i-1], aYs[i] - aYs[i-1]);
+			if( length == 0 )
+			{
+				continue;
+			}
+			hasSegment = true;
+			// The corners are half a line away along the segment and across it, on both axes
+			double extent = HALF_LINE_WIDTH * (Math.abs(aXs[i] - aXs[i-1]) + Math.abs(aYs[i] - aYs[i-1])) / length;
+			minX = Math.min(minX, Math.min(aXs[i-1], aXs[i]) - extent);
+			maxX = Math.max(maxX, Math.max(aXs[i-1], aXs[i]) + extent);
+			minY = Math.min(minY, Math.min(aYs[i-1], aYs[i]) - extent);
+			maxY = Math.max(maxY, Math.max(aYs[i-1], aYs[i]) + extent);
+		}
+		if( !hasSegment )
+		{
+			minX = aXs[0] - HALF_LINE_WIDTH;
+			maxX = aXs[0] + HALF_LINE_WIDTH;
+			minY = aYs[0] - HALF_LINE_WIDTH;
+			maxY = aYs[0] + HALF_LINE_WIDTH;
+		}
+		minX -= BOUNDS_MARGIN;
+		minY -= BOUNDS_MARGIN;
+		maxX += BOUNDS_MARGIN;
+		maxY += BOUNDS_MARGIN;
+		return new Rectangle((int) minX, (int) minY, (int) (maxX - minX), (int) (maxY - minY));
+	}
+}
@@ -81,6 +81,19 @@ public record Rectangle(int x, int y, int width, int height)
 				pRectangle.maxY() <= maxY();
 	}
 	
+	/**
+	 * @param pRectangle The rectangle to check.
+	 * @return True iif pRectangle and this rectangle have at least one point in common, 
+	 *     including points on their boundary.
+	 * @pre pRectangle != null.
+	 */
+	public boolean intersects(Rectangle pRectangle)
+	{
+		assert pRectangle != null;
+		return pRectangle.x <= maxX() && x <= pRectangle.maxX() &&
+				pRectangle.y <= maxY() && y <= pRectangle.maxY();
+	}
+	
 	/**
 	 * @return A point in the center of this rectangle.
 	 */
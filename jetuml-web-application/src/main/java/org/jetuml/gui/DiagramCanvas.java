@@ -19,10 +19,10 @@
  * along with this program.  If not, see http://www.gnu.org/licenses.
  *******************************************************************************/
 package org.jetuml.gui;
-import static java.util.stream.Collectors.toList;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -54,12 +54,14 @@ import org.jetuml.geom.Direction;
 import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
+import org.jetuml.rendering.DiagramRenderer;
 import org.jetuml.rendering.Grid;
 import org.jetuml.rendering.ToolGraphics;
 
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
@@ -78,8 +80,20 @@ StringPreferenceChangeHandler
 	private static final int GRID_SIZE = 10;
 	private static final int DIAGRAM_PADDING = 4;
 	private static final int CONNECT_THRESHOLD = 8;
-	
-	private DiagramOperationProcessor aProcessor = new DiagramOperationProcessor();
+	/* Arrow heads and the outline of some elements are drawn slightly outside 
+	 * of their bounds. */
+	private static final int DAMAGE_MARGIN = 20;
+	/* The size of the areas of an exported image that are drawn at once. It is 
+	 * well below the largest texture that a canvas can be rendered to. */
+	private static final int EXPORT_TILE_SIZE = 1024;
+	
+	/* Consecutive moves of the same nodes that are this close in time are 
+	 * undone as one. */
+	private static final Duration MERGE_WINDOW = Duration.ofSeconds(1);
+	
+	private DiagramOperationProcessor aProcessor = new DiagramOperationProcessor(
+			DiagramOperationProcessor.DEFAULT_MAXIMUM_DEPTH, DiagramOperationProcessor.DEFAULT_MAXIMUM_FOOTPRINT, 
+			MERGE_WINDOW);
 	private final DiagramBuilder aDiagramBuilder;
 	private final DiagramValidator aDiagramValidator;
 	private final DiagramTabToolBar aToolBar;
@@ -93,9 +107,10 @@ StringPreferenceChangeHandler
 	private Point aLastMousePoint;
 	private Point aMouseDownPoint;  
 	
-	private List<DiagramElement> aSelected = new ArrayList<>();
+	private final SelectionModel aSelected = new SelectionModel();
 	private Optional<Line> aRubberband = Optional.empty();
 	private Optional<Rectangle> aLasso = Optional.empty();
+	private Optional<Rectangle> aVisibleArea = Optional.empty();
 	
 	/**
 	 * Constructs the canvas, assigns the diagram to it.
@@ -131,15 +146,7 @@ StringPreferenceChangeHandler
 	 */
 	public void synchronizeSelectionModel()
 	{
-		Set<DiagramElement> toBeRemoved = new HashSet<>();
-		for(DiagramElement selected : aSelected )
-		{
-			if(!diagram().contains(selected)) 
-			{
-				toBeRemoved.add(selected);
-			}
-		}
-		toBeRemoved.forEach( element -> removeFromSelection(element));            
+		aSelected.removeIf(selected -> !diagram().contains(selected));
 	}
 	
 	/**
@@ -174,14 +181,9 @@ StringPreferenceChangeHandler
 			shiftElements(newElements, GRID_SIZE);
 		}
 		aProcessor.executeNewOperation(aDiagramBuilder.createAddElementsOperation(newElements));
-		List<DiagramElement> newElementList = new ArrayList<>();
-		for( DiagramElement element : newElements )
-		{
-			newElementList.add(element);
-		}
-		setSelectionTo(newElementList);
+		aSelected.setAll(newElements);
 		Clipboard.instance().copy(newElements);
-		paintPanel(); // TODO double-check if this is necessary since it's already called in setSelectionTo
+		paintPanel();
 	}
 	
 	/**
@@ -204,7 +206,7 @@ StringPreferenceChangeHandler
 	 */
 	public void editSelected()
 	{
-		Optional<DiagramElement> edited = getLastSelected();
+		Optional<DiagramElement> edited = aSelected.getLastSelected();
 		if( edited.isPresent() )
 		{
 			PropertyEditorDialog dialog = new PropertyEditorDialog( ((EditorFrame) getScene().getRoot()).getDialogStage(), 
@@ -232,6 +234,22 @@ StringPreferenceChangeHandler
 		return aDiagramBuilder.diagram();
 	}
 	
+	/**
+	 * Sets the area of the canvas that is visible to the user, and repaints the canvas. 
+	 * When a visible area is set, only the elements of the diagram that can be seen 
+	 * in this area are drawn, so the canvas must be repainted whenever the visible 
+	 * area changes. When it is empty, the entire diagram is drawn.
+	 * 
+	 * @param pVisibleArea The visible area, in the coordinates of the canvas, if known.
+	 * @pre pVisibleArea != null
+	 */
+	public void setVisibleArea(Optional<Rectangle> pVisibleArea)
+	{
+		assert pVisibleArea != null;
+		aVisibleArea = pVisibleArea;
+		paintPanel();
+	}
+	
 	/**
 	 * Paints the panel and all the graph elements in aDiagramView.
 	 * Called after the panel is resized.
@@ -245,11 +263,55 @@ StringPreferenceChangeHandler
 		{
 			Grid.draw(context, new Rectangle(0, 0, (int) getWidth(), (int) getHeight()));
 		}
-		aDiagramBuilder.renderer().draw(context);
+		if( aVisibleArea.isPresent() )
+		{
+			aDiagramBuilder.renderer().draw(context, aVisibleArea.get());
+		}
+		else
+		{
+			aDiagramBuilder.renderer().draw(context);
+		}
+		paintSelection(context);
+	}
+	
+	/*
+	 * Repaints only the part of the canvas within pDamagedArea. This produces the 
+	 * same image as paintPanel as long as everything that changed since the last 
+	 * time the canvas was painted, both before and after the change, is within 
+	 * pDamagedArea. The area is extended to align with the grid, so that the grid
+	 * lines are drawn at the same position as when painting the entire panel.
+	 */
+	private void paintRegion(Rectangle pDamagedArea)
+	{
+		int x = Math.floorDiv(pDamagedArea.x() - DAMAGE_MARGIN, GRID_SIZE) * GRID_SIZE;
+		int y = Math.floorDiv(pDamagedArea.y() - DAMAGE_MARGIN, GRID_SIZE) * GRID_SIZE;
+		Rectangle area = new Rectangle(x, y, pDamagedArea.maxX() + DAMAGE_MARGIN - x, 
+				pDamagedArea.maxY() + DAMAGE_MARGIN - y);
+		GraphicsContext context = getGraphicsContext2D();
+		context.save();
+		context.beginPath();
+		context.rect(area.x(), area.y(), area.width(), area.height());
+		context.clip();
+		context.setFill(ColorScheme.getScheme().getCanvasColor());
+		context.fillRect(area.x(), area.y(), area.width(), area.height());
+		if(UserPreferences.instance().getBoolean(BooleanPreference.showGrid)) 
+		{
+			Grid.draw(context, area);
+		}
+		aDiagramBuilder.renderer().draw(context, area);
+		paintSelection(context);
+		context.restore();
+	}
+	
+	/*
+	 * Draws the selection handles and the selection tools over the diagram.
+	 */
+	private void paintSelection(GraphicsContext pGraphics)
+	{
 		synchronizeSelectionModel();
-		aSelected.forEach( selected -> aDiagramBuilder.renderer().drawSelectionHandles(selected, context));
-		aRubberband.ifPresent( rubberband -> ToolGraphics.drawRubberband(context, rubberband));
-		aLasso.ifPresent( lasso -> ToolGraphics.drawLasso(context, lasso));
+		aSelected.forEach( selected -> aDiagramBuilder.renderer().drawSelectionHandles(selected, pGraphics));
+		aRubberband.ifPresent( rubberband -> ToolGraphics.drawRubberband(pGraphics, rubberband));
+		aLasso.ifPresent( lasso -> ToolGraphics.drawLasso(pGraphics, lasso));
 	}
 	
 	/**
@@ -300,7 +362,7 @@ StringPreferenceChangeHandler
 	public void removeSelected()
 	{
 		aProcessor.executeNewOperation(aDiagramBuilder.createRemoveElementsOperation(aSelected));
-		clearSelection();
+		aSelected.clear();
 		paintPanel();
 	}
 	
@@ -320,9 +382,9 @@ StringPreferenceChangeHandler
 	public void selectAll()
 	{
 		aToolBar.setToolToBeSelect();
-		clearSelection();
-		aDiagramBuilder.diagram().rootNodes().forEach(this::internalAddToSelection);
-		aDiagramBuilder.diagram().edges().forEach(this::internalAddToSelection);
+		aSelected.clear();
+		aSelected.addAll(aDiagramBuilder.diagram().rootNodes());
+		aSelected.addAll(aDiagramBuilder.diagram().edges());
 		paintPanel();
 	}
 	
@@ -458,19 +520,19 @@ StringPreferenceChangeHandler
 		{
 			if(pEvent.isControlDown())
 			{
-				if(!contains(element.get()))
+				if(!aSelected.contains(element.get()))
 				{
-					addToSelection(element.get());
+					aSelected.add(element.get());
 				}
 				else
 				{
-					removeFromSelection(element.get());
+					aSelected.remove(element.get());
 				}
 			}
-			else if(!contains(element.get()))
+			else if(!aSelected.contains(element.get()))
 			{
 				// The test is necessary to ensure we don't undo multiple selections
-				setSelection(element.get());
+				aSelected.set(element.get());
 			}
 			// Reorder the selected nodes to ensure that they appear on the top
 			for(Node pSelected: selectedNodes()) 
@@ -484,7 +546,7 @@ StringPreferenceChangeHandler
 		{
 			if(!pEvent.isControlDown()) 
 			{
-				clearSelection();
+				aSelected.clear();
 			}
 			aDragMode = DragMode.DRAG_LASSO;
 		}
@@ -545,11 +607,12 @@ StringPreferenceChangeHandler
 		
 		if(violation.isEmpty())
 		{
-			setSelection(newNode);
+			aSelected.set(newNode);
 			diagram().placeOnTop(newNode);
-			paintPanel();
 			if( UserPreferences.instance().getBoolean(BooleanPreference.autoEditNode))
 			{
+				// The new node is shown before its properties are edited
+				paintPanel();
 				editSelected();
 			}
 		}
@@ -648,7 +711,6 @@ StringPreferenceChangeHandler
 			{
 				selected.translate(dx, dy);
 			}
-			paintPanel();
 		}
 	}
 	
@@ -668,8 +730,7 @@ StringPreferenceChangeHandler
 			}
 			else
 			{
-				setSelection(newEdge);
-				paintPanel();
+				aSelected.set(newEdge);
 			}
 		}
 		deactivateRubberband();
@@ -702,11 +763,7 @@ StringPreferenceChangeHandler
 		else if(aDragMode == DragMode.DRAG_LASSO)
 		{
 			aLastMousePoint = mousePoint;
-			if( !pEvent.isControlDown() )
-			{
-				clearSelection();
-			}
-			activateLasso();
+			activateLasso(pEvent.isControlDown());
 		}
 		else if(aDragMode == DragMode.DRAG_RUBBERBAND)
 		{
@@ -723,6 +780,7 @@ StringPreferenceChangeHandler
 		
 		int dx = pMousePoint.x() - aLastMousePoint.x();
 		int dy = pMousePoint.y() - aLastMousePoint.y();
+		Rectangle damagedArea = getMovedArea();
 		
 		// Perform the move without painting it
 		selectedNodes().forEach(selected -> selected.translate(dx, dy));
@@ -736,7 +794,37 @@ StringPreferenceChangeHandler
 		selectedNodes().forEach(selected -> selected.translate(dxCorrection, dyCorrection));
 		
 		aLastMousePoint = pMousePoint; 
-		paintPanel();
+		Optional<Rectangle> relaidOutArea = aDiagramBuilder.renderer().updateGeometry();
+		damagedArea = damagedArea.add(getMovedArea());
+		if( relaidOutArea.isPresent() )
+		{
+			damagedArea = damagedArea.add(relaidOutArea.get());
+		}
+		paintRegion(damagedArea);
+	}
+	
+	/*
+	 * Returns the area covered by the selection and its handles, including 
+	 * the parents of the selected nodes, and by the edges attached to the 
+	 * selected nodes or to any of their descendants.
+	 */
+	private Rectangle getMovedArea()
+	{
+		DiagramRenderer renderer = aDiagramBuilder.renderer();
+		Rectangle area = ToolGraphics.getHandleBounds(renderer.getBoundsIncludingParents(aSelected));
+		Set<Edge> attachedEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+		selectedNodes().forEach(node -> collectAttachedEdges(node, attachedEdges));
+		for( Edge edge : attachedEdges )
+		{
+			area = area.add(renderer.getBounds(edge));
+		}
+		return area;
+	}
+	
+	private void collectAttachedEdges(Node pNode, Set<Edge> pEdges)
+	{
+		diagram().edgesConnectedTo(pNode).forEach(pEdges::add);
+		pNode.getChildren().forEach(child -> collectAttachedEdges(child, pEdges));
 	}
 	
 	/**
@@ -760,37 +848,96 @@ StringPreferenceChangeHandler
 		return image;
 	}
 	
+	/**
+	 * Creates an image of an entire diagram, with a white border around, 
+	 * that is drawn in tiles as its pixels are read. The image can be 
+	 * larger than the largest canvas, and must be read in the JavaFX 
+	 * application thread.
+	 * 
+	 * @param pOpaque True if the image has no alpha channel.
+	 * @return An image of the diagram.
+	 */
+	public TiledImage createTiledImage(boolean pOpaque)
+	{
+		Rectangle bounds = aDiagramBuilder.renderer().getBounds();
+		return new TiledImage(bounds.width() + DIAGRAM_PADDING * 2, bounds.height() + DIAGRAM_PADDING * 2, 
+				EXPORT_TILE_SIZE, pOpaque, (tile, pixels, offset, stride) -> 
+		{
+			Rectangle area = new Rectangle(bounds.x() - DIAGRAM_PADDING + tile.x(), 
+					bounds.y() - DIAGRAM_PADDING + tile.y(), tile.width(), tile.height());
+			Canvas canvas = new Canvas(tile.width(), tile.height());
+			GraphicsContext context = canvas.getGraphicsContext2D();
+			context.setLineWidth(LINE_WIDTH);
+			context.setFill(ColorScheme.getScheme().getCanvasColor());
+			context.fillRect(0, 0, tile.width(), tile.height());
+			context.translate(-area.x(), -area.y());
+			aDiagramBuilder.renderer().draw(context, area);
+			WritableImage image = new WritableImage(tile.width(), tile.height());
+			canvas.snapshot(null, image);
+			image.getPixelReader().getPixels(0, 0, tile.width(), tile.height(), 
+					PixelFormat.getIntArgbInstance(), pixels, offset, stride);
+		});
+	}
+	
 	/**
 	 * @return A list of all the selected nodes. 
 	 */
 	private List<Node> selectedNodes()
 	{
-		return aSelected.stream()
-				.filter(e -> Node.class.isAssignableFrom(e.getClass()))
-				.map(Node.class::cast)
-				.collect(toList());
+		return aSelected.getSelectedNodes();
 	}
 	
 	/**
 	 * Records information about an active lasso selection tool, select all elements
-	 * in the lasso, and triggers a notification.
+	 * in the lasso, and repaints the area where the lasso or the selection changed.
 	 * 
-	 * @param pLasso The bounds of the current lasso.
-	 * @pre pLasso != null;
+	 * @param pAddToSelection True if the elements in the lasso are added to the
+	 *     current selection instead of replacing it.
 	 */
-	private void activateLasso()
+	private void activateLasso(boolean pAddToSelection)
 	{
+		Set<DiagramElement> previousSelection = Collections.newSetFromMap(new IdentityHashMap<>());
+		aSelected.forEach(previousSelection::add);
+		Rectangle damagedArea = ToolGraphics.getLassoBounds(computeLasso());
+		if( aLasso.isPresent() )
+		{
+			damagedArea = damagedArea.add(ToolGraphics.getLassoBounds(aLasso.get()));
+		}
+		if( !pAddToSelection )
+		{
+			aSelected.clear();
+		}
 		aLasso = Optional.of(computeLasso());
 		aDiagramBuilder.diagram().rootNodes().forEach( node -> selectNode(node, aLasso.get()));
 		aDiagramBuilder.diagram().edges().forEach( edge -> selectEdge(edge, aLasso.get()));
-		paintPanel();
+		
+		for( DiagramElement element : previousSelection )
+		{
+			if( !aSelected.contains(element) )
+			{
+				damagedArea = damagedArea.add(getHandleBounds(element));
+			}
+		}
+		for( DiagramElement element : aSelected )
+		{
+			if( !previousSelection.contains(element) )
+			{
+				damagedArea = damagedArea.add(getHandleBounds(element));
+			}
+		}
+		paintRegion(damagedArea);
+	}
+	
+	private Rectangle getHandleBounds(DiagramElement pElement)
+	{
+		return ToolGraphics.getHandleBounds(aDiagramBuilder.renderer().getBounds(pElement));
 	}
 	
 	private void selectNode(Node pNode, Rectangle pLasso)
 	{
 		if(pLasso.contains(aDiagramBuilder.renderer().getBounds(pNode)))
 		{
-			internalAddToSelection(pNode);
+			aSelected.add(pNode);
 		}
 		pNode.getChildren().forEach(child -> selectNode(child, pLasso));
 	}
@@ -799,7 +946,7 @@ StringPreferenceChangeHandler
 	{
 		if(pLasso.contains(aDiagramBuilder.renderer().getBounds(pEdge)))
 		{
-			internalAddToSelection(pEdge);
+			aSelected.add(pEdge);
 		}		
 	}
 	
@@ -813,15 +960,21 @@ StringPreferenceChangeHandler
 	}
 	
 	/**
-	 * Records information about an active rubberband selection tool and triggers a notification.
+	 * Records information about an active rubberband selection tool and repaints 
+	 * the area where the rubberband changed.
 	 * @param pLine The line that represents the rubberband.
 	 * @pre pLine != null;
 	 */
 	private void activateRubberband(Line pLine)
 	{
 		assert pLine != null;
+		Rectangle damagedArea = ToolGraphics.getRubberbandBounds(pLine);
+		if( aRubberband.isPresent() )
+		{
+			damagedArea = damagedArea.add(ToolGraphics.getRubberbandBounds(aRubberband.get()));
+		}
 		aRubberband = Optional.of(pLine);
-		paintPanel();
+		paintRegion(damagedArea);
 	}
 	
 	/**
@@ -832,151 +985,4 @@ StringPreferenceChangeHandler
 		aRubberband = Optional.empty();
 		paintPanel();
 	}
-	
-	/**
-	 * Clears any existing selection and initializes it with pNewSelection.
-	 * Triggers a notification.
-	 * 
-	 * @param pNewSelection A list of elements to select.
-	 * @pre pNewSelection != null;
-	 */
-	private void setSelectionTo(List<DiagramElement> pNewSelection)
-	{
-		assert pNewSelection != null;
-		clearSelection();
-		pNewSelection.forEach(this::internalAddToSelection);
-		paintPanel();
-	}
-	
-	/**
-	 * Adds an element to the selection set and sets it as the last 
-	 * selected element. If the element is already in the list, it
-	 * is added to the end of the list. If the node is transitively 
-	 * a child of any node in the list, it is not added.
-	 * Triggers a notification.
-	 * 
-	 * @param pElement The element to add to the list.
-	 * @pre pElement != null
-	 */
-	private void addToSelection(DiagramElement pElement)
-	{
-		assert pElement != null;
-		internalAddToSelection(pElement);
-		paintPanel();
-	}
-	
-	private void internalAddToSelection(DiagramElement pElement)
-	{
-		if( !containsParent( pElement ))
-		{
-			aSelected.remove(pElement);
-			aSelected.add(pElement);
-			
-			// Remove children in case a parent was added.
-			ArrayList<DiagramElement> toRemove = new ArrayList<>();
-			for( DiagramElement element : aSelected )
-			{
-				if( containsParent(element) )
-				{
-					toRemove.add(element);
-				}
-			}
-			for( DiagramElement element : toRemove )
-			{
-				// Do no use removeFromSelection because it notifies the observer
-				aSelected.remove(element); 
-			}
-		}
-	}
-	
-	/*
-	 * Returns true if any of the parents of pElement is contained
-	 * (transitively).
-	 * @param pElement The element to test
-	 * @return true if any of the parents of pElement are included in the 
-	 * selection.
-	 */
-	private boolean containsParent(DiagramElement pElement)
-	{
-		if( pElement instanceof Node node)
-		{
-			if( !node.hasParent() )
-			{
-				return false;
-			}
-			else if( aSelected.contains(node.getParent()))
-			{
-				return true;
-			}
-			else
-			{
-				return containsParent(node.getParent());
-			}
-		}
-		else
-		{
-			return false;
-		}
-	}
-	
-	/**
-	 * Removes all selections and triggers a notification.
-	 */
-	private void clearSelection()
-	{
-		aSelected.clear();
-		paintPanel();
-	}
-	
-	/**
-	 * @return The last element that was selected, if present.
-	 */
-	private Optional<DiagramElement> getLastSelected()
-	{
-		if( aSelected.isEmpty() )
-		{
-			return Optional.empty();
-		}
-		else
-		{
-			return Optional.of(aSelected.get(aSelected.size()-1));
-		}
-	}
-	
-	/**
-	 * @param pElement The element to test.
-	 * @return True if pElement is in the list of selected elements.
-	 */
-	private boolean contains(DiagramElement pElement)
-	{
-		return aSelected.contains(pElement);
-	}
-	
-	/**
-	 * Removes pElement from the list of selected elements,
-	 * or does nothing if pElement is not selected.
-	 * Triggers a notification.
-	 * @param pElement The element to remove.
-	 * @pre pElement != null;
-	 */
-	private void removeFromSelection(DiagramElement pElement)
-	{
-		assert pElement != null;
-		aSelected.remove(pElement);
-		paintPanel();
-	}
-	
-	/**
-	 * Sets pElement as the single selected element.
-	 * Triggers a notification.
-	 * @param pElement The element to set as selected.
-	 * @pre pElement != null;
-	 */
-	private void setSelection(DiagramElement pElement)
-	{
-		assert pElement != null;
-		aSelected.clear();
-		aSelected.add(pElement);
-		paintPanel();
-	}
 }
@@ -112,6 +112,13 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		setTitle();
 		setContent(layout);
 		
+		// Only the part of the diagram visible in the viewport is drawn, so the canvas
+		// must be repainted whenever this part changes.
+		scroll.hvalueProperty().addListener((pObservable, pOldValue, pNewValue) -> updateVisibleArea());
+		scroll.vvalueProperty().addListener((pObservable, pOldValue, pNewValue) -> updateVisibleArea());
+		scroll.viewportBoundsProperty().addListener((pObservable, pOldValue, pNewValue) -> updateVisibleArea());
+		aZoom.addListener((pObservable, pOldValue, pNewValue) -> updateVisibleArea());
+		
 		setOnCloseRequest(event -> 
 		{
 			event.consume();
@@ -326,6 +333,27 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		return (ScrollPane)((BorderPane)getContent()).getCenter();
 	}
 	
+	/*
+	 * Restricts the drawing of the canvas to the part of the canvas that can be seen 
+	 * in the scroll pane. This part is obtained by projecting the bounds of the scroll 
+	 * pane onto the canvas, which accounts for the scroll position and the zoom. 
+	 */
+	private void updateVisibleArea()
+	{
+		ScrollPane scrollPane = scrollPane();
+		Bounds viewport = scrollPane.getViewportBounds();
+		if( viewport.getWidth() <= 0 || viewport.getHeight() <= 0 )
+		{
+			aDiagramCanvas.setVisibleArea(Optional.empty());
+			return;
+		}
+		Bounds visible = aDiagramCanvas.sceneToLocal(scrollPane.localToScene(scrollPane.getLayoutBounds()));
+		int x = (int) Math.floor(visible.getMinX());
+		int y = (int) Math.floor(visible.getMinY());
+		aDiagramCanvas.setVisibleArea(Optional.of(new Rectangle(x, y, 
+				(int) Math.ceil(visible.getMaxX()) - x, (int) Math.ceil(visible.getMaxY()) - y)));
+	}
+	
 	private ViewportProjection getViewportProjection()
 	{
 		ScrollPane scrollPane = (ScrollPane)((BorderPane)getContent()).getCenter();
@@ -391,4 +419,13 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	{
 		return aDiagramCanvas.createImage();
 	}
+	
+	/**
+	 * @param pOpaque True if the image has no alpha channel.
+	 * @return An image of this canvas that is drawn as it is read.
+	 */
+	public TiledImage createTiledImage(boolean pOpaque)
+	{
+		return aDiagramCanvas.createTiledImage(pOpaque);
+	}
 }	        
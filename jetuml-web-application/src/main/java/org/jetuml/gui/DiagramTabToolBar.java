@@ -23,7 +23,9 @@ package org.jetuml.gui;
 import static org.jetuml.application.ApplicationResources.RESOURCES;
 import static org.jetuml.rendering.FontMetrics.DEFAULT_FONT_SIZE;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.jetuml.application.UserPreferences;
@@ -31,6 +33,7 @@ import org.jetuml.application.UserPreferences.BooleanPreference;
 import org.jetuml.application.UserPreferences.BooleanPreferenceChangeHandler;
 import org.jetuml.application.UserPreferences.IntegerPreference;
 import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Prototypes;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
@@ -41,6 +44,7 @@ import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Parent;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
@@ -51,7 +55,11 @@ import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.control.ToolBar;
 import javafx.scene.control.Tooltip;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+import javafx.stage.Screen;
 
 /**
  *  A tool bar than contains various tools and command shortcut buttons. 
@@ -61,8 +69,19 @@ import javafx.scene.image.ImageView;
  */
 public class DiagramTabToolBar extends ToolBar implements BooleanPreferenceChangeHandler
 {
+	/* The icons of the prototypes, shared by all the tool bars. Only the icons 
+	 * of the current color scheme are kept. */
+	private static final Map<IconKey, Image> ICONS = new HashMap<>();
+	
 	private ContextMenu aPopupMenu = new ContextMenu();
 	private DiagramRenderer aDiagramRenderer;
+	
+	/*
+	 * Identifies the icon of a prototype. Prototypes of the same class can have 
+	 * different icons, so the prototype itself is part of the key. The icon is 
+	 * drawn with as many pixels as a screen with the output scale uses for it.
+	 */
+	private record IconKey(DiagramElement prototype, DiagramType diagramType, ColorScheme scheme, double scale) {}
 
 	/**
      * Constructs the tool bar.
@@ -106,18 +125,66 @@ public class DiagramTabToolBar extends ToolBar implements BooleanPreferenceChang
 	
 	private void installDiagramElementTools(DiagramRenderer pDiagramRenderer, ToggleGroup pToggleGroup)
 	{
-		final int oldFontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
-		UserPreferences.instance().setInteger(IntegerPreference.fontSize, DEFAULT_FONT_SIZE);
 		for( DiagramElement element : pDiagramRenderer.diagram().getPrototypes() )
 		{
-			SelectableToolButton button = new SelectableToolButton(pDiagramRenderer.createIcon(element),
+			SelectableToolButton button = new SelectableToolButton(createIconView(element),
 					Prototypes.instance().tooltip(element, 
 							UserPreferences.instance().getBoolean(BooleanPreference.verboseToolTips)), 
 					pToggleGroup, element);
 			UserPreferences.instance().addBooleanPreferenceChangeHandler(button);
-			add(button, pDiagramRenderer.createIcon(element), Prototypes.instance().tooltip(element, false));
+			add(button, createIconView(element), Prototypes.instance().tooltip(element, false));
+		}
+	}
+	
+	/*
+	 * Returns a view of the icon of pPrototype at the size at which it was drawn, 
+	 * with the pixels of the screen on which this tool bar is shown.
+	 */
+	private ImageView createIconView(DiagramElement pPrototype)
+	{
+		double scale = outputScale();
+		Image icon = getIcon(aDiagramRenderer, pPrototype, scale);
+		ImageView view = new ImageView(icon);
+		view.setFitWidth(icon.getWidth() / scale);
+		view.setFitHeight(icon.getHeight() / scale);
+		return view;
+	}
+	
+	/*
+	 * The output scale of the window of this tool bar, or of the primary 
+	 * screen if the tool bar is not shown yet.
+	 */
+	private double outputScale()
+	{
+		if( getScene() == null || getScene().getWindow() == null )
+		{
+			return Screen.getPrimary().getOutputScaleX();
 		}
+		return getScene().getWindow().getOutputScaleX();
+	}
+	
+	/*
+	 * Returns the icon of pPrototype, which is drawn with the default font size
+	 * the first time it is requested with the current color scheme and pScale.
+	 */
+	private static Image getIcon(DiagramRenderer pDiagramRenderer, DiagramElement pPrototype, double pScale)
+	{
+		ColorScheme scheme = ColorScheme.getScheme();
+		ICONS.keySet().removeIf(key -> key.scheme() != scheme);
+		return ICONS.computeIfAbsent(new IconKey(pPrototype, pDiagramRenderer.diagram().getType(), scheme, pScale), 
+				key -> createIcon(pDiagramRenderer, pPrototype, pScale));
+	}
+	
+	private static Image createIcon(DiagramRenderer pDiagramRenderer, DiagramElement pPrototype, double pScale)
+	{
+		final int oldFontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		UserPreferences.instance().setInteger(IntegerPreference.fontSize, DEFAULT_FONT_SIZE);
+		Canvas canvas = pDiagramRenderer.createIcon(pPrototype);
 		UserPreferences.instance().setInteger(IntegerPreference.fontSize, oldFontSize);
+		SnapshotParameters parameters = new SnapshotParameters();
+		parameters.setFill(Color.TRANSPARENT);
+		parameters.setTransform(Transform.scale(pScale, pScale));
+		return canvas.snapshot(parameters, null);
 	}
 	
 	private void installCopyToClipboard()
@@ -160,7 +227,7 @@ public class DiagramTabToolBar extends ToolBar implements BooleanPreferenceChang
 	 * @param pButton The button to add.
 	 * @param pText The text for the menu
 	 */
-	private void add(ButtonBase pButton, Canvas pIcon, String pText)
+	private void add(ButtonBase pButton, Node pIcon, String pText)
 	{
 		assert pButton != null;
 		getItems().add( pButton );
@@ -267,7 +334,7 @@ public class DiagramTabToolBar extends ToolBar implements BooleanPreferenceChang
 	}
 	
 	/**
-	 * Recreates the tool bar button and pop-up menu icons 
+	 * Replaces the tool bar button and pop-up menu icons 
 	 * when turning dark mode on or off.
 	 */
 	private void recreateButtonIcons()
@@ -280,8 +347,8 @@ public class DiagramTabToolBar extends ToolBar implements BooleanPreferenceChang
 			if( toolBarItems.get(i) instanceof SelectableToolButton toolButton && 
 					toolButton.getPrototype().isPresent() )
 			{
-				button.setGraphic(aDiagramRenderer.createIcon(toolButton.getPrototype().get()));
-				contextMenuItems.get(i).setGraphic(aDiagramRenderer.createIcon(toolButton.getPrototype().get()));
+				button.setGraphic(createIconView(toolButton.getPrototype().get()));
+				contextMenuItems.get(i).setGraphic(createIconView(toolButton.getPrototype().get()));
 			}
 		}
 	}
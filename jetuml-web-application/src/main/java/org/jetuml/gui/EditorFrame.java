@@ -23,10 +23,6 @@ package org.jetuml.gui;
 
 import static org.jetuml.application.ApplicationResources.RESOURCES;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.Transparency;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -54,7 +50,6 @@ import org.jetuml.gui.tips.TipDialog;
 import org.jetuml.persistence.DeserializationException;
 import org.jetuml.persistence.PersistenceService;
 
-import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
@@ -588,27 +583,8 @@ public class EditorFrame extends BorderPane implements BooleanPreferenceChangeHa
 		DiagramTab frame = getSelectedDiagramTab();
 		try (OutputStream out = new FileOutputStream(file)) 
 		{
-			BufferedImage image = getBufferedImage(frame); 
-			if("jpg".equals(format))	// to correct the display of JPEG/JPG images (removes red hue)
-			{
-				BufferedImage imageRGB = new BufferedImage(image.getWidth(), image.getHeight(), Transparency.OPAQUE);
-				Graphics2D graphics = imageRGB.createGraphics();
-				graphics.drawImage(image, 0,  0, null);
-				ImageIO.write(imageRGB, format, out);
-				graphics.dispose();
-			}
-			else if("bmp".equals(format))	// to correct the BufferedImage type
-			{
-				BufferedImage imageRGB = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
-				Graphics2D graphics = imageRGB.createGraphics();
-				graphics.drawImage(image, 0, 0, Color.WHITE, null);
-				ImageIO.write(imageRGB, format, out);
-				graphics.dispose();
-			}
-			else
-			{
-				ImageIO.write(image, format, out);
-			}
+			// JPEG/JPG images with an alpha channel display with a red hue, and BMP images cannot have one
+			ImageIO.write(frame.createTiledImage("jpg".equals(format) || "bmp".equals(format)), format, out);
 		} 
 		catch(IOException exception) 
 		{
@@ -646,11 +622,6 @@ public class EditorFrame extends BorderPane implements BooleanPreferenceChangeHa
 		return fileChooser;
 	}
 
-	private static BufferedImage getBufferedImage(DiagramTab pDiagramTab) 
-	{
-		return SwingFXUtils.fromFXImage(pDiagramTab.createImage(), null);
-	}
-	
 	private int getNumberOfUsavedDiagrams()
 	{
 		return (int) tabs().stream()
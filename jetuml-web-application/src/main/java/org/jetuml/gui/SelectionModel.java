@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.Node;
+
+/**
+ * The elements selected in a diagram, in the order in which they were selected. 
+ * A node is never selected together with one of its ancestors: selecting a node
+ * deselects its descendants, and a node whose ancestor is selected cannot be 
+ * selected. 
+ * 
+ * Membership is tested in constant time, so that checking whether a node 
+ * has a selected ancestor only costs the depth of the node. The model does not 
+ * repaint anything: the methods that modify the selection return whether it 
+ * changed, so that the canvas can repaint once per user gesture.
+ */
+public final class SelectionModel implements Iterable<DiagramElement>
+{
+	/* Diagram elements do not redefine equals, so this set compares them by identity. */
+	private final Set<DiagramElement> aSelected = new LinkedHashSet<>();
+	
+	/* The last selected element, or null if the selection is empty or if the 
+	 * last element was removed and must be looked up again. */
+	private DiagramElement aLast;
+	
+	/**
+	 * Adds pElement to the selection and makes it the last selected element,
+	 * unless one of its ancestors is selected. The descendants of pElement 
+	 * are deselected.
+	 * 
+	 * @param pElement The element to select.
+	 * @return True if the selection changed.
+	 * @pre pElement != null
+	 */
+	public boolean add(DiagramElement pElement)
+	{
+		assert pElement != null;
+		if( containsAncestor(pElement) )
+		{
+			return false;
+		}
+		boolean changed = getLastSelected().orElse(null) != pElement;
+		aSelected.remove(pElement);
+		aSelected.add(pElement);
+		if( pElement instanceof Node node )
+		{
+			for( Node child : node.getChildren() )
+			{
+				changed |= removeSubtree(child);
+			}
+		}
+		aLast = pElement;
+		return changed;
+	}
+	
+	/**
+	 * Adds each element of pElements to the selection, in order, as 
+	 * with add.
+	 * 
+	 * @param pElements The elements to select.
+	 * @return True if the selection changed.
+	 * @pre pElements != null
+	 */
+	public boolean addAll(Iterable<? extends DiagramElement> pElements)
+	{
+		assert pElements != null;
+		boolean changed = false;
+		for( DiagramElement element : pElements )
+		{
+			changed |= add(element);
+		}
+		return changed;
+	}
+	
+	/**
+	 * Makes pElement the only selected element.
+	 * 
+	 * @param pElement The element to select.
+	 * @return True if the selection changed.
+	 * @pre pElement != null
+	 */
+	public boolean set(DiagramElement pElement)
+	{
+		assert pElement != null;
+		if( aSelected.size() == 1 && aSelected.contains(pElement) )
+		{
+			return false;
+		}
+		aSelected.clear();
+		aSelected.add(pElement);
+		aLast = pElement;
+		return true;
+	}
+	
+	/**
+	 * Replaces the selection with the elements of pElements, added in 
+	 * order as with add.
+	 * 
+	 * @param pElements The elements to select.
+	 * @return True if the selection changed.
+	 * @pre pElements != null
+	 */
+	public boolean setAll(Iterable<? extends DiagramElement> pElements)
+	{
+		assert pElements != null;
+		List<DiagramElement> previous = new ArrayList<>(aSelected);
+		aSelected.clear();
+		aLast = null;
+		addAll(pElements);
+		return !previous.equals(new ArrayList<>(aSelected));
+	}
+	
+	/**
+	 * Deselects pElement, or does nothing if it is not selected.
+	 * 
+	 * @param pElement The element to deselect.
+	 * @return True if the selection changed.
+	 * @pre pElement != null
+	 */
+	public boolean remove(DiagramElement pElement)
+	{
+		assert pElement != null;
+		return removeElement(pElement);
+	}
+	
+	/**
+	 * Deselects all the elements that satisfy pFilter.
+	 * 
+	 * @param pFilter The condition for an element to be deselected.
+	 * @return True if the selection changed.
+	 * @pre pFilter != null
+	 */
+	public boolean removeIf(Predicate<DiagramElement> pFilter)
+	{
+		assert pFilter != null;
+		if( aSelected.removeIf(pFilter) )
+		{
+			aLast = null;
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Deselects all the elements.
+	 * 
+	 * @return True if the selection changed.
+	 */
+	public boolean clear()
+	{
+		if( aSelected.isEmpty() )
+		{
+			return false;
+		}
+		aSelected.clear();
+		aLast = null;
+		return true;
+	}
+	
+	/**
+	 * @param pElement The element to test.
+	 * @return True if pElement is selected.
+	 */
+	public boolean contains(DiagramElement pElement)
+	{
+		return aSelected.contains(pElement);
+	}
+	
+	/**
+	 * @return True if no element is selected.
+	 */
+	public boolean isEmpty()
+	{
+		return aSelected.isEmpty();
+	}
+	
+	/**
+	 * @return The number of selected elements.
+	 */
+	public int size()
+	{
+		return aSelected.size();
+	}
+	
+	/**
+	 * @return The last element that was selected, if present.
+	 */
+	public Optional<DiagramElement> getLastSelected()
+	{
+		if( aLast == null )
+		{
+			for( DiagramElement element : aSelected )
+			{
+				aLast = element;
+			}
+		}
+		return Optional.ofNullable(aLast);
+	}
+	
+	/**
+	 * @return The selected nodes, in the order in which they were selected.
+	 */
+	public List<Node> getSelectedNodes()
+	{
+		List<Node> nodes = new ArrayList<>();
+		for( DiagramElement element : aSelected )
+		{
+			if( element instanceof Node node )
+			{
+				nodes.add(node);
+			}
+		}
+		return nodes;
+	}
+	
+	@Override
+	public Iterator<DiagramElement> iterator()
+	{
+		return aSelected.iterator();
+	}
+	
+	private boolean removeElement(DiagramElement pElement)
+	{
+		if( aSelected.remove(pElement) )
+		{
+			if( aLast == pElement )
+			{
+				aLast = null;
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	/*
+	 * Returns true if any of the ancestors of pElement is selected.
+	 */
+	private boolean containsAncestor(DiagramElement pElement)
+	{
+		if( !(pElement instanceof Node node) )
+		{
+			return false;
+		}
+		while( node.hasParent() )
+		{
+			node = node.getParent();
+			if( aSelected.contains(node) )
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/*
+	 * Deselects pNode and its descendants, and returns true if any of them was selected.
+	 */
+	private boolean removeSubtree(Node pNode)
+	{
+		boolean changed = removeElement(pNode);
+		for( Node child : pNode.getChildren() )
+		{
+			changed |= removeSubtree(child);
+		}
+		return changed;
+	}
+}
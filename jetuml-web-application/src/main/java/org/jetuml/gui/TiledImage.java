@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Vector;
+
+import org.jetuml.geom.Rectangle;
+
+/**
+ * An image whose pixels are painted on demand, one horizontal strip of tiles
+ * at a time, as an image encoder reads them. Only the pixels of the last strip
+ * painted are kept, so the memory used depends on the width of the image and
+ * the size of the tiles, but not on the height of the image. Encoders that read
+ * the image row by row, downwards or upwards, get each tile painted once. This
+ * includes encoders that read the raster of the whole image, which only
+ * reads the pixels as they are accessed.
+ */
+public final class TiledImage implements RenderedImage
+{
+	private static final int[] RGB_MASKS = {0xff0000, 0xff00, 0xff};
+	private static final int[] ARGB_MASKS = {0xff0000, 0xff00, 0xff, 0xff000000};
+	
+	/**
+	 * Paints an area of a tiled image.
+	 */
+	@FunctionalInterface
+	public interface TilePainter
+	{
+		/**
+		 * Writes the ARGB pixels of pTile in pPixels, row by row. The top left
+		 * pixel is written at pOffset and each row starts pScanlineStride
+		 * pixels after the previous one.
+		 *
+		 * @param pTile The area to paint, in the coordinates of the image.
+		 * @param pPixels The array in which to write the pixels.
+		 * @param pOffset The index of the top left pixel of pTile in pPixels.
+		 * @param pScanlineStride The distance between two rows of pixels in pPixels.
+		 */
+		void paint(Rectangle pTile, int[] pPixels, int pOffset, int pScanlineStride);
+	}
+	
+	private final int aWidth;
+	private final int aHeight;
+	private final int aTileSize;
+	private final int[] aMasks;
+	private final ColorModel aColorModel;
+	private final TilePainter aPainter;
+	private final int[] aPixels;
+	private int aStripIndex = -1;
+	private Raster aStrip;
+	
+	/**
+	 * Creates an image whose tiles are painted by pPainter.
+	 *
+	 * @param pWidth The width of the image.
+	 * @param pHeight The height of the image.
+	 * @param pTileSize The width and height of the tiles.
+	 * @param pOpaque True if the alpha channel of the pixels is ignored.
+	 * @param pPainter The painter of the tiles.
+	 * @pre pWidth > 0 && pHeight > 0 && pTileSize > 0 && pPainter != null
+	 * @pre (long) pWidth * pHeight <= Integer.MAX_VALUE
+	 */
+	public TiledImage(int pWidth, int pHeight, int pTileSize, boolean pOpaque, TilePainter pPainter)
+	{
+		assert pWidth > 0 && pHeight > 0 && pTileSize > 0 && pPainter != null;
+		assert (long) pWidth * pHeight <= Integer.MAX_VALUE;
+		aWidth = pWidth;
+		aHeight = pHeight;
+		aTileSize = pTileSize;
+		aPainter = pPainter;
+		if( pOpaque )
+		{
+			aMasks = RGB_MASKS;
+			aColorModel = new DirectColorModel(24, RGB_MASKS[0], RGB_MASKS[1], RGB_MASKS[2]);
+		}
+		else
+		{
+			aMasks = ARGB_MASKS;
+			aColorModel = ColorModel.getRGBdefault();
+		}
+		aPixels = new int[pWidth * Math.min(pTileSize, pHeight)];
+	}
+	
+	/*
+	 * Returns the strip at pIndex, painting its tiles unless it is the last
+	 * strip painted. The pixels of a strip are overwritten by the next one.
+	 */
+	private Raster strip(int pIndex)
+	{
+		if( pIndex != aStripIndex )
+		{
+			int y = pIndex * aTileSize;
+			int height = Math.min(aTileSize, aHeight - y);
+			for( int x = 0; x < aWidth; x += aTileSize )
+			{
+				aPainter.paint(new Rectangle(x, y, Math.min(aTileSize, aWidth - x), height), aPixels, x, aWidth);
+			}
+			aStrip = Raster.createPackedRaster(new DataBufferInt(aPixels, aWidth * height),
+					aWidth, height, aWidth, aMasks, new Point(0, y));
+			aStripIndex = pIndex;
+		}
+		return aStrip;
+	}
+	
+	@Override
+	public WritableRaster copyData(WritableRaster pRaster)
+	{
+		WritableRaster raster = pRaster;
+		if( raster == null )
+		{
+			raster = aColorModel.createCompatibleWritableRaster(aWidth, aHeight);
+		}
+		int minY = Math.max(raster.getMinY(), 0);
+		int maxY = Math.min(raster.getMinY() + raster.getHeight(), aHeight);
+		for( int index = minY / aTileSize; index * aTileSize < maxY; index++ )
+		{
+			raster.setRect(strip(index));
+		}
+		return raster;
+	}
+	
+	@Override
+	public Raster getData(java.awt.Rectangle pArea)
+	{
+		SampleModel model = aColorModel.createCompatibleSampleModel(pArea.width, pArea.height);
+		return copyData(Raster.createWritableRaster(model, new Point(pArea.x, pArea.y)));
+	}
+	
+	/*
+	 * The raster of the whole image does not hold its pixels: they are read from 
+	 * the strips that contain them when they are accessed. Encoders such as the 
+	 * JPEG one read the raster row by row, so memory stays bounded by a strip.
+	 */
+	@Override
+	public Raster getData()
+	{
+		return Raster.createRaster(aColorModel.createCompatibleSampleModel(aWidth, aHeight), 
+				new StripDataBuffer(), new Point(0, 0));
+	}
+	
+	/*
+	 * The tiles of this image are its strips. A copy is returned because
+	 * the pixels of the strip are overwritten by the next one.
+	 */
+	@Override
+	public Raster getTile(int pTileX, int pTileY)
+	{
+		assert pTileX == 0 && pTileY >= 0 && pTileY < getNumYTiles();
+		int y = pTileY * aTileSize;
+		return getData(new java.awt.Rectangle(0, y, aWidth, Math.min(aTileSize, aHeight - y)));
+	}
+	
+	@Override
+	public Vector<RenderedImage> getSources()
+	{
+		return null;
+	}
+	
+	@Override
+	public Object getProperty(String pName)
+	{
+		return Image.UndefinedProperty;
+	}
+	
+	@Override
+	public String[] getPropertyNames()
+	{
+		return null;
+	}
+	
+	@Override
+	public ColorModel getColorModel()
+	{
+		return aColorModel;
+	}
+	
+	@Override
+	public SampleModel getSampleModel()
+	{
+		return aColorModel.createCompatibleSampleModel(aWidth, Math.min(aTileSize, aHeight));
+	}
+	
+	@Override
+	public int getWidth()
+	{
+		return aWidth;
+	}
+	
+	@Override
+	public int getHeight()
+	{
+		return aHeight;
+	}
+	
+	@Override
+	public int getMinX()
+	{
+		return 0;
+	}
+	
+	@Override
+	public int getMinY()
+	{
+		return 0;
+	}
+	
+	@Override
+	public int getNumXTiles()
+	{
+		return 1;
+	}
+	
+	@Override
+	public int getNumYTiles()
+	{
+		return (aHeight + aTileSize - 1) / aTileSize;
+	}
+	
+	@Override
+	public int getMinTileX()
+	{
+		return 0;
+	}
+	
+	@Override
+	public int getMinTileY()
+	{
+		return 0;
+	}
+	
+	@Override
+	public int getTileWidth()
+	{
+		return aWidth;
+	}
+	
+	@Override
+	public int getTileHeight()
+	{
+		return Math.min(aTileSize, aHeight);
+	}
+	
+	@Override
+	public int getTileGridXOffset()
+	{
+		return 0;
+	}
+	
+	@Override
+	public int getTileGridYOffset()
+	{
+		return 0;
+	}
+	
+	/*
+	 * The packed pixels of the whole image, in rows, that are read from the 
+	 * strip that contains them. They cannot be modified.
+	 */
+	private final class StripDataBuffer extends DataBuffer
+	{
+		StripDataBuffer()
+		{
+			super(DataBuffer.TYPE_INT, aWidth * aHeight);
+		}
+		
+		@Override
+		public int getElem(int pBank, int pIndex)
+		{
+			int y = pIndex / aWidth;
+			strip(y / aTileSize);
+			return aPixels[(y % aTileSize) * aWidth + pIndex % aWidth];
+		}
+		
+		@Override
+		public void setElem(int pBank, int pIndex, int pValue)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -20,6 +20,7 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -35,7 +36,8 @@ import org.jetuml.diagram.Node;
  */
 public abstract class AbstractContext implements Iterable<Node>
 {
-	protected final Map<Node, Integer> aNodes = new LinkedHashMap<>();
+	private final Map<Node, Integer> aNodes = new LinkedHashMap<>();
+	private final Map<Integer, Node> aIdentifiedNodes = new HashMap<>();
 	private final Diagram aDiagram;
 	
 	/**
@@ -77,7 +79,54 @@ public abstract class AbstractContext implements Iterable<Node>
 	 */
 	public boolean idExists(int pId)
 	{
-		return aNodes.containsValue(pId);
+		return aIdentifiedNodes.containsKey(pId);
+	}
+	
+	/**
+	 * @return The number of nodes in the context.
+	 */
+	protected int size()
+	{
+		return aNodes.size();
+	}
+	
+	/**
+	 * Maps pNode to pId, replacing any previous id of pNode. If the same 
+	 * id is mapped to more than one node, it identifies the node that was 
+	 * added to the context first.
+	 * 
+	 * @param pNode The node to map.
+	 * @param pId The id of the node.
+	 * @pre pNode != null
+	 */
+	protected void map(Node pNode, int pId)
+	{
+		assert pNode != null;
+		Integer previousId = aNodes.put(pNode, pId);
+		if( previousId != null && previousId != pId && aIdentifiedNodes.get(previousId) == pNode )
+		{
+			// Rare case: fall back on the next node with the previous id, if any
+			aIdentifiedNodes.remove(previousId);
+			aNodes.forEach((node, id) -> 
+			{
+				if( id.equals(previousId) )
+				{
+					aIdentifiedNodes.putIfAbsent(id, node);
+				}
+			});
+		}
+		aIdentifiedNodes.putIfAbsent(pId, pNode);
+	}
+	
+	/**
+	 * @param pId The id to look up.
+	 * @return The node identified by pId.
+	 * @pre idExists(pId)
+	 */
+	protected Node nodeWithId(int pId)
+	{
+		assert idExists(pId);
+		return aIdentifiedNodes.get(pId);
 	}
 	
 	@Override
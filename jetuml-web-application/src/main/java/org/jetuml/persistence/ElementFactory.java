@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.ConstructorEdge;
+import org.jetuml.diagram.nodes.CallNode;
+import org.jetuml.diagram.nodes.PointNode;
+
+/**
+ * Creates the nodes and edges of serialized diagrams from the name of their 
+ * type, which is the simple name of their class. The elements are created by
+ * cloning the prototypes of the diagram types, so that decoding does not 
+ * require reflection. The properties of a created element still need to be set.
+ */
+final class ElementFactory
+{
+	private static final Map<String, Supplier<Node>> NODES = new HashMap<>();
+	private static final Map<String, Supplier<Edge>> EDGES = new HashMap<>();
+	
+	static
+	{
+		for( DiagramType type : DiagramType.values() )
+		{
+			for( DiagramElement prototype : type.getPrototypes() )
+			{
+				if( prototype instanceof Node node )
+				{
+					NODES.putIfAbsent(typeName(node), node::clone);
+				}
+				else if( prototype instanceof Edge edge )
+				{
+					EDGES.putIfAbsent(typeName(edge), edge::clone);
+				}
+			}
+		}
+		// Elements that are not created from the tool bar
+		NODES.put(typeName(new CallNode()), CallNode::new);
+		NODES.put(typeName(new PointNode()), PointNode::new);
+		EDGES.put(typeName(new ConstructorEdge()), ConstructorEdge::new);
+	}
+	
+	private ElementFactory() {}
+	
+	private static String typeName(DiagramElement pElement)
+	{
+		return pElement.getClass().getSimpleName();
+	}
+	
+	/**
+	 * @param pType The name of a type of node.
+	 * @return A new node of type pType, or empty if there is no such type.
+	 * @pre pType != null
+	 */
+	static Optional<Node> createNode(String pType)
+	{
+		assert pType != null;
+		return Optional.ofNullable(NODES.get(pType)).map(Supplier::get);
+	}
+	
+	/**
+	 * @param pType The name of a type of edge.
+	 * @return A new edge of type pType, or empty if there is no such type.
+	 * @pre pType != null
+	 */
+	static Optional<Edge> createEdge(String pType)
+	{
+		assert pType != null;
+		return Optional.ofNullable(EDGES.get(pType)).map(Supplier::get);
+	}
+}
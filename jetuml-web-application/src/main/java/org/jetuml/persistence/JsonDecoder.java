@@ -20,6 +20,13 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
 import org.jetuml.application.Version;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
@@ -31,12 +38,18 @@ import org.jetuml.persistence.DeserializationException.Category;
 import org.jetuml.persistence.json.JsonArray;
 import org.jetuml.persistence.json.JsonException;
 import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonParsingException;
+import org.jetuml.persistence.json.JsonStreamReader;
+import org.jetuml.persistence.json.JsonStreamReader.Token;
 
 /**
  * Converts a JSONObject to a diagram. Instances of this class are intended to be
  * used as a single-use wrapper around a JSON object that is to be decoded, as such
  * new JsonDecoder(pInputObject).decode()
  * 
+ * Alternatively, JsonDecoder.decode(Reader) decodes the diagram while the JSON text 
+ * is read, without building a JSON object for the entire text.
+ * 
  * The version information stored in a diagram file is purposefully discarded 
  * as JetUML no longer migrates versions. Storing and handling version numbers
  * is deemed not to be worth the complexity. In very rare cases were an decoding
@@ -45,9 +58,6 @@ import org.jetuml.persistence.json.JsonObject;
  */
 public final class JsonDecoder
 {
-	private static final String PREFIX_NODES = "org.jetuml.diagram.nodes.";
-	private static final String PREFIX_EDGES = "org.jetuml.diagram.edges.";
-	
 	private static final String PROPERTY_DIAGRAM = "diagram";
 	private static final String PROPERTY_NODES = "nodes";
 	private static final String PROPERTY_EDGES = "edges";
@@ -61,11 +71,102 @@ public final class JsonDecoder
 	private static final String PROPERTY_END = "end";
 
 	/* 
-	 * The object that will be decoded.
+	 * The object that will be decoded. When decoding from JSON text, only 
+	 * holds the properties other than the nodes and edges.
 	 */
 	private final JsonObject aInputObject;
 	private DeserializationContext aContext; // Wraps the diagram
 	
+	/*
+	 * A node decoded from JSON text, which is added to the diagram once 
+	 * the entire text is read. The object of a node with children is kept 
+	 * to restore the children.
+	 */
+	private record DecodedNode(Node node, int id, Optional<JsonObject> parent) {}
+	
+	/*
+	 * An edge decoded from JSON text, which is connected once the entire 
+	 * text is read.
+	 */
+	private record DecodedEdge(Edge edge, int start, int end) {}
+	
+	/*
+	 * The elements decoded from the array of nodes or edges in JSON text. 
+	 * A problem that prevents decoding an element is only reported once the 
+	 * entire text is read, after the elements that precede it are added to the 
+	 * diagram, so that problems are reported in the same order as when decoding
+	 * a JSON object.
+	 */
+	private static final class DecodedArray<T>
+	{
+		private final String aName;
+		private final List<T> aElements = new ArrayList<>();
+		private Optional<RuntimeException> aProblem = Optional.empty();
+		private boolean aRead = false;
+		
+		DecodedArray(String pName)
+		{
+			aName = pName;
+		}
+		
+		void read(JsonStreamReader pReader, Function<JsonObject, T> pDecoder) throws IOException
+		{
+			if( pReader.peek() != Token.BEGIN_ARRAY )
+			{
+				pReader.nextValue();
+				return;
+			}
+			aRead = true;
+			pReader.beginArray();
+			while( pReader.hasNext() )
+			{
+				Object value = pReader.nextValue();
+				if( aProblem.isEmpty() )
+				{
+					decode(value, pDecoder);
+				}
+			}
+			pReader.endArray();
+		}
+		
+		private void decode(Object pValue, Function<JsonObject, T> pDecoder)
+		{
+			try
+			{
+				if( !(pValue instanceof JsonObject object) )
+				{
+					throw new JsonException(String.format("Element of property '%s' is not an object", aName));
+				}
+				aElements.add(pDecoder.apply(object));
+			}
+			catch(RuntimeException exception)
+			{
+				aProblem = Optional.of(exception);
+			}
+		}
+		
+		/*
+		 * Returns the elements decoded before the first problem, if any.
+		 */
+		List<T> elements()
+		{
+			if( !aRead )
+			{
+				throw new DeserializationException(Category.STRUCTURAL, 
+						String.format("Cannot obtain value of property '%s'", aName));
+			}
+			return aElements;
+		}
+		
+		void reportProblem()
+		{
+			if( aProblem.isPresent() )
+			{
+				throw aProblem.get();
+			}
+		}
+	}
+
 	/**
 	 * @param pInputObject The object to decode into a diagram.
 	 * @pre pInputObject != null;
@@ -75,6 +176,116 @@ public final class JsonDecoder
 		assert pInputObject != null;
 		aInputObject = pInputObject;
 	}
+	
+	/**
+	 * Decodes a diagram from JSON text as the text is read. Only the JSON object 
+	 * of one node or edge is built at a time. Errors are reported as when the text 
+	 * is parsed into a JSON object that is then decoded. In particular, malformed
+	 * text is a syntactic error even if the part read before the malformation 
+	 * cannot be decoded.
+	 * 
+	 * @param pInput The JSON text of the diagram.
+	 * @return The decoded diagram.
+	 * @throws IOException If the text cannot be read.
+	 * @throws DeserializationException If the text is not well-formed JSON or 
+	 *     does not encode a valid diagram.
+	 * @pre pInput != null
+	 */
+	public static Diagram decode(Reader pInput) throws IOException
+	{
+		assert pInput != null;
+		JsonStreamReader reader = new JsonStreamReader(pInput);
+		try
+		{
+			if( reader.peek() != Token.BEGIN_OBJECT )
+			{
+				throw new DeserializationException(Category.SYNTACTIC, "Diagram text is not a JSON object");
+			}
+			JsonObject properties = new JsonObject();
+			DecodedArray<DecodedNode> nodes = new DecodedArray<>(PROPERTY_NODES);
+			DecodedArray<DecodedEdge> edges = new DecodedArray<>(PROPERTY_EDGES);
+			reader.beginObject();
+			while( reader.hasNext() )
+			{
+				String name = reader.nextName();
+				if( name.equals(PROPERTY_NODES) )
+				{
+					nodes.read(reader, JsonDecoder::decodeNodeElement);
+				}
+				else if( name.equals(PROPERTY_EDGES) )
+				{
+					edges.read(reader, JsonDecoder::decodeEdgeElement);
+				}
+				else
+				{
+					properties.put(name, reader.nextValue());
+				}
+			}
+			reader.endObject();
+			return new JsonDecoder(properties).decode(nodes, edges);
+		}
+		catch(JsonParsingException exception)
+		{
+			throw new DeserializationException(Category.SYNTACTIC, exception.getMessage());
+		}
+	}
+	
+	private static DecodedNode decodeNodeElement(JsonObject pObject)
+	{
+		try
+		{
+			Optional<JsonObject> parent = Optional.empty();
+			if( pObject.hasProperty(PROPERTY_CHILDREN) )
+			{
+				parent = Optional.of(pObject);
+			}
+			return new DecodedNode(decodeNode(pObject), pObject.getInt(PROPERTY_ID), parent);
+		}
+		catch(JsonException exception)
+		{
+			throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
+		}
+	}
+	
+	private static DecodedEdge decodeEdgeElement(JsonObject pObject)
+	{
+		return new DecodedEdge(decodeEdge(pObject), pObject.getInt(PROPERTY_START), pObject.getInt(PROPERTY_END));
+	}
+	
+	/*
+	 * Completes the decoding of a diagram read from JSON text.
+	 */
+	private Diagram decode(DecodedArray<DecodedNode> pNodes, DecodedArray<DecodedEdge> pEdges)
+	{
+		extractVersion();
+		extractDiagram();
+		try
+		{
+			for( DecodedNode node : pNodes.elements() )
+			{
+				aContext.addNode(node.node(), node.id());
+			}
+			pNodes.reportProblem();
+			for( DecodedNode node : pNodes.elements() )
+			{
+				if( node.parent().isPresent() )
+				{
+					restoreChildren(node.node(), node.parent().get().getJsonArray(PROPERTY_CHILDREN));
+				}
+			}
+			restoreRootNodes();
+			for( DecodedEdge edge : pEdges.elements() )
+			{
+				connect(edge.edge(), edge.start(), edge.end());
+			}
+			pEdges.reportProblem();
+			return aContext.diagram();
+		}
+		catch( JsonException exception )
+		{
+			throw new DeserializationException(Category.STRUCTURAL, exception.getMessage());
+		}
+	}
 
 	/**
 	 * @param pDiagram A JSON object that encodes the diagram.
@@ -174,21 +385,29 @@ public final class JsonDecoder
 			try
 			{
 				JsonObject object = nodes.getJsonObject(i);
-				Class<?> nodeClass = Class.forName(PREFIX_NODES + object.getString(PROPERTY_TYPE));
-				Node node = (Node) nodeClass.getDeclaredConstructor().newInstance();
-				node.moveTo(new Point(object.getInt(PROPERTY_X), object.getInt(PROPERTY_Y)));
-				for( Property property : node.properties() )
-				{
-					property.set(object.get(property.name().external()));
-				}
-				aContext.addNode(node, object.getInt(PROPERTY_ID));
+				aContext.addNode(decodeNode(object), object.getInt(PROPERTY_ID));
 			}
-			catch(ReflectiveOperationException | JsonException exception)
+			catch(JsonException exception)
 			{
 				throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
 			}
 		}
 	}
+	
+	/*
+	 * Creates the node encoded by pObject, without its children.
+	 */
+	private static Node decodeNode(JsonObject pObject)
+	{
+		Node node = ElementFactory.createNode(pObject.getString(PROPERTY_TYPE))
+				.orElseThrow(JsonDecoder::cannotInstantiate);
+		node.moveTo(new Point(pObject.getInt(PROPERTY_X), pObject.getInt(PROPERTY_Y)));
+		for( Property property : node.properties() )
+		{
+			property.set(pObject.get(property.name().external()));
+		}
+		return node;
+	}
 
 	/*
 	 * Discovers the root nodes and stores them in the diagram.
@@ -216,25 +435,28 @@ public final class JsonDecoder
 			JsonObject object = nodes.getJsonObject(i);
 			if( object.hasProperty(PROPERTY_CHILDREN) )
 			{
-				Node node = aContext.getNode(object.getInt(PROPERTY_ID));
-				JsonArray children = object.getJsonArray(PROPERTY_CHILDREN);
-				for( int j = 0; j < children.size(); j++ )
-				{
-					int childNodeId = children.getInt(j);
-					if( !aContext.idExists(childNodeId))
-					{
-						throw new DeserializationException(Category.STRUCTURAL, "Invalid node id found in children nodes");
-					}
-					Node childNode = aContext.getNode(childNodeId);
-					if( !node.allowsAsChild(childNode) )
-					{
-						throw new DeserializationException(Category.STRUCTURAL, "Invalid parent-child relation");
-					}
-					node.addChild(aContext.getNode(childNodeId));
-				}
+				restoreChildren(aContext.getNode(object.getInt(PROPERTY_ID)), object.getJsonArray(PROPERTY_CHILDREN));
 			}
 		}
 	}
+	
+	private void restoreChildren(Node pNode, JsonArray pChildren)
+	{
+		for( int j = 0; j < pChildren.size(); j++ )
+		{
+			int childNodeId = pChildren.getInt(j);
+			if( !aContext.idExists(childNodeId))
+			{
+				throw new DeserializationException(Category.STRUCTURAL, "Invalid node id found in children nodes");
+			}
+			Node childNode = aContext.getNode(childNodeId);
+			if( !pNode.allowsAsChild(childNode) )
+			{
+				throw new DeserializationException(Category.STRUCTURAL, "Invalid parent-child relation");
+			}
+			pNode.addChild(aContext.getNode(childNodeId));
+		}
+	}
 
 	/*
 	 * Extracts information about nodes from pObject and creates new objects to
@@ -245,29 +467,41 @@ public final class JsonDecoder
 		JsonArray edges = extractArray(PROPERTY_EDGES);
 		for( int i = 0; i < edges.size(); i++ )
 		{
-			try
-			{
-				JsonObject object = edges.getJsonObject(i);
-				Class<?> edgeClass = Class.forName(PREFIX_EDGES + object.getString(PROPERTY_TYPE));
-				Edge edge = (Edge) edgeClass.getDeclaredConstructor().newInstance();
+			JsonObject object = edges.getJsonObject(i);
+			connect(decodeEdge(object), object.getInt(PROPERTY_START), object.getInt(PROPERTY_END));
+		}
+	}
+	
+	/*
+	 * Creates the edge encoded by pObject, without connecting it.
+	 */
+	private static Edge decodeEdge(JsonObject pObject)
+	{
+		Edge edge = ElementFactory.createEdge(pObject.getString(PROPERTY_TYPE))
+				.orElseThrow(JsonDecoder::cannotInstantiate);
 
-				for( Property property : edge.properties() )
-				{
-					property.set(object.get(property.name().external()));
-				}
-				int startNodeId = object.getInt(PROPERTY_START);
-				int endNodeId = object.getInt(PROPERTY_END);
-				if( !aContext.idExists(startNodeId) || !aContext.idExists(endNodeId))
-				{
-					throw new DeserializationException(Category.STRUCTURAL, "At least one edge vertex cannot be found");
-				}
-				edge.connect(aContext.getNode(startNodeId), aContext.getNode(endNodeId));
-				aContext.diagram().addEdge(edge);
-			}
-			catch (ReflectiveOperationException exception)
-			{
-				throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
-			}
+		for( Property property : edge.properties() )
+		{
+			property.set(pObject.get(property.name().external()));
+		}
+		return edge;
+	}
+	
+	private static DeserializationException cannotInstantiate()
+	{
+		return new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object");
+	}
+	
+	/*
+	 * Connects pEdge to the nodes with the given ids and adds it to the diagram.
+	 */
+	private void connect(Edge pEdge, int pStartNodeId, int pEndNodeId)
+	{
+		if( !aContext.idExists(pStartNodeId) || !aContext.idExists(pEndNodeId))
+		{
+			throw new DeserializationException(Category.STRUCTURAL, "At least one edge vertex cannot be found");
 		}
+		pEdge.connect(aContext.getNode(pStartNodeId), aContext.getNode(pEndNodeId));
+		aContext.diagram().addEdge(pEdge);
 	}
 }
@@ -20,6 +20,15 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.jetuml.JetUML;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
@@ -28,6 +37,7 @@ import org.jetuml.diagram.Properties;
 import org.jetuml.diagram.Property;
 import org.jetuml.persistence.json.JsonArray;
 import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonStreamWriter;
 
 /**
  * Converts a graph to JSON notation. The notation includes:
@@ -35,9 +45,21 @@ import org.jetuml.persistence.json.JsonObject;
  * * The graph type
  * * An array of node encodings
  * * An array of edge encodings
+ * 
+ * The properties of each encoded object are collected in the same way whether
+ * the graph is converted to a JSON object or written as a stream, and the
+ * stream writes them in the order in which a JSON object writes them.
  */
 public final class JsonEncoder
 {
+	private static final String PROPERTY_NODES = "nodes";
+	private static final String PROPERTY_EDGES = "edges";
+	
+	/* The order in which a JSON object writes its properties, for each list of
+	 * property names in the order in which they are added to the object. There is
+	 * one list for the diagram and a few for each type of node and edge. */
+	private static final Map<List<String>, List<String>> WRITING_ORDERS = new ConcurrentHashMap<>();
+	
 	private JsonEncoder() {}
 	
 	/**
@@ -48,44 +70,96 @@ public final class JsonEncoder
 	{
 		assert pDiagram != null;
 		
-		JsonObject object = new JsonObject();
-		object.put("version", JetUML.VERSION.toString());
-		object.put("diagram", pDiagram.getName());
+		JsonObject object = toJsonObject(diagramProperties(pDiagram));
 		SerializationContext context = new SerializationContext(pDiagram);
-		object.put("nodes", encodeNodes(context));
-		object.put("edges", encodeEdges(context));
+		object.put(PROPERTY_NODES, encodeNodes(context));
+		object.put(PROPERTY_EDGES, encodeEdges(context));
 		return object;
 	}
 	
-	private static JsonArray encodeNodes(SerializationContext pContext)
+	/**
+	 * Writes the JSON text of pDiagram to pWriter while traversing the diagram,
+	 * without building a JSON object. The text is the same as the one of the
+	 * object returned by encode(pDiagram), including the order of the properties
+	 * of each object.
+	 * 
+	 * @param pDiagram The diagram to serialize.
+	 * @param pWriter The writer to write to. It should be buffered.
+	 * @throws IOException If the text cannot be written.
+	 * @pre pDiagram != null && pWriter != null
+	 */
+	public static void encode(Diagram pDiagram, Writer pWriter) throws IOException
 	{
-		JsonArray nodes = new JsonArray();
+		assert pDiagram != null && pWriter != null;
+		JsonStreamWriter writer = new JsonStreamWriter(pWriter);
+		SerializationContext context = new SerializationContext(pDiagram);
+		Map<String, Object> properties = diagramProperties(pDiagram);
+		List<String> names = new ArrayList<>(properties.keySet());
+		names.add(PROPERTY_NODES);
+		names.add(PROPERTY_EDGES);
+		writer.beginObject();
+		for( String name : writingOrder(names) )
+		{
+			writer.name(name);
+			if( name.equals(PROPERTY_NODES) )
+			{
+				writeNodes(context, writer);
+			}
+			else if( name.equals(PROPERTY_EDGES) )
+			{
+				writeEdges(context, writer);
+			}
+			else
+			{
+				writeValue(properties.get(name), writer);
+			}
+		}
+		writer.endObject();
+	}
+	
+	/*
+	 * A JsonObject stores its properties in a HashMap, so the order in which it
+	 * writes them depends on their names and on the order in which they are added.
+	 * Adding the names to a HashMap in the same order yields the same order.
+	 */
+	private static List<String> writingOrder(List<String> pNames)
+	{
+		return WRITING_ORDERS.computeIfAbsent(List.copyOf(pNames), names -> 
+		{
+			Map<String, Boolean> properties = new HashMap<>();
+			names.forEach(name -> properties.put(name, true));
+			return List.copyOf(properties.keySet());
+		});
+	}
+	
+	private static void writeNodes(SerializationContext pContext, JsonStreamWriter pWriter) throws IOException
+	{
+		pWriter.beginArray();
 		for( Node node : pContext ) 
 		{
-			nodes.add(encodeNode(node, pContext));
+			writeObject(nodeProperties(node, pContext), pWriter);
 		}
-		return nodes;
+		pWriter.endArray();
 	}
 	
-	private static JsonObject encodeNode(Node pNode, SerializationContext pContext)
+	private static void writeEdges(AbstractContext pContext, JsonStreamWriter pWriter) throws IOException
 	{
-		JsonObject object = toJSONObject(pNode.properties());
-		object.put("id", pContext.getId(pNode));
-		object.put("type", pNode.getClass().getSimpleName());
-		object.put("x", pNode.position().x());
-		object.put("y", pNode.position().y());
-		if( pNode.getChildren().size() > 0 )
+		pWriter.beginArray();
+		for( Edge edge : pContext.diagram().edges() ) 
 		{
-			object.put("children", encodeChildren(pNode, pContext));
+			writeObject(edgeProperties(edge, pContext), pWriter);
 		}
-		return object;
+		pWriter.endArray();
 	}
 	
-	private static JsonArray encodeChildren(Node pNode, SerializationContext pContext)
+	private static JsonArray encodeNodes(SerializationContext pContext)
 	{
-		JsonArray children = new JsonArray();
-		pNode.getChildren().forEach(child -> children.add(pContext.getId(child)));
-		return children;
+		JsonArray nodes = new JsonArray();
+		for( Node node : pContext ) 
+		{
+			nodes.add(toJsonObject(nodeProperties(node, pContext)));
+		}
+		return nodes;
 	}
 	
 	private static JsonArray encodeEdges(AbstractContext pContext)
@@ -93,35 +167,117 @@ public final class JsonEncoder
 		JsonArray edges = new JsonArray();
 		for( Edge edge : pContext.diagram().edges() ) 
 		{
-			JsonObject object = toJSONObject(edge.properties());
-			object.put("type", edge.getClass().getSimpleName());
-			object.put("start", pContext.getId(edge.start()));
-			object.put("end", pContext.getId(edge.end()));
-			
-			edges.add(object);
+			edges.add(toJsonObject(edgeProperties(edge, pContext)));
 		}
 		return edges;
 	}
 	
-	private static JsonObject toJSONObject(Properties pProperties)
+	/*
+	 * The properties of the diagram that precede its nodes and edges.
+	 */
+	private static Map<String, Object> diagramProperties(Diagram pDiagram)
 	{
-		JsonObject object = new JsonObject();
+		Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put("version", JetUML.VERSION.toString());
+		properties.put("diagram", pDiagram.getName());
+		return properties;
+	}
+	
+	/*
+	 * The children of the node, if any, are a list of ids.
+	 */
+	private static Map<String, Object> nodeProperties(Node pNode, SerializationContext pContext)
+	{
+		Map<String, Object> properties = elementProperties(pNode.properties());
+		properties.put("id", pContext.getId(pNode));
+		properties.put("type", pNode.getClass().getSimpleName());
+		properties.put("x", pNode.position().x());
+		properties.put("y", pNode.position().y());
+		if( pNode.getChildren().size() > 0 )
+		{
+			properties.put("children", pNode.getChildren().stream().map(pContext::getId).toList());
+		}
+		return properties;
+	}
+	
+	private static Map<String, Object> edgeProperties(Edge pEdge, AbstractContext pContext)
+	{
+		Map<String, Object> properties = elementProperties(pEdge.properties());
+		properties.put("type", pEdge.getClass().getSimpleName());
+		properties.put("start", pContext.getId(pEdge.start()));
+		properties.put("end", pContext.getId(pEdge.end()));
+		return properties;
+	}
+	
+	private static Map<String, Object> elementProperties(Properties pProperties)
+	{
+		Map<String, Object> properties = new LinkedHashMap<>();
 		for( Property property : pProperties )
 		{
 			Object value = property.get();
 			if( value instanceof String || value instanceof Enum )
 			{
-				object.put(property.name().external(), value.toString());
+				properties.put(property.name().external(), value.toString());
 			}
 			else if( value instanceof Integer)
 			{
-				object.put(property.name().external(), value);
+				properties.put(property.name().external(), value);
 			}
 			else if( value instanceof Boolean)
 			{
-				object.put(property.name().external(), value);
+				properties.put(property.name().external(), value);
 			}
 		}
+		return properties;
+	}
+	
+	private static JsonObject toJsonObject(Map<String, Object> pProperties)
+	{
+		JsonObject object = new JsonObject();
+		pProperties.forEach((name, value) -> 
+		{
+			if( value instanceof List<?> list )
+			{
+				JsonArray array = new JsonArray();
+				list.forEach(array::add);
+				object.put(name, array);
+			}
+			else
+			{
+				object.put(name, value);
+			}
+		});
 		return object;
 	}
+	
+	private static void writeObject(Map<String, Object> pProperties, JsonStreamWriter pWriter) throws IOException
+	{
+		pWriter.beginObject();
+		for( String name : writingOrder(List.copyOf(pProperties.keySet())) )
+		{
+			pWriter.name(name);
+			writeValue(pProperties.get(name), pWriter);
+		}
+		pWriter.endObject();
+	}
+	
+	/*
+	 * Writes a string, integer, boolean, or list of integers.
+	 */
+	private static void writeValue(Object pValue, JsonStreamWriter pWriter) throws IOException
+	{
+		if( pValue instanceof List<?> list )
+		{
+			pWriter.beginArray();
+			for( Object value : list )
+			{
+				pWriter.value(value);
+			}
+			pWriter.endArray();
+		}
+		else
+		{
+			pWriter.value(pValue);
+		}
+	}
 }
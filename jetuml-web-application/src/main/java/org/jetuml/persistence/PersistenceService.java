@@ -20,13 +20,16 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.Optional;
 
 import org.jetuml.diagram.Diagram;
@@ -35,7 +38,6 @@ import org.jetuml.diagram.validator.DiagramValidator;
 import org.jetuml.diagram.validator.Violation;
 import org.jetuml.persistence.DeserializationException.Category;
 import org.jetuml.persistence.json.JsonException;
-import org.jetuml.persistence.json.JsonParser;
 
 /**
  * Services for saving and loading Diagram objects. The files are encoded
@@ -57,10 +59,11 @@ public final class PersistenceService
 	public static void save(Diagram pDiagram, File pFile) throws IOException
 	{
 		assert pDiagram != null && pFile != null;
-		try( PrintWriter out = new PrintWriter(
+		try( Writer out = new BufferedWriter(
 				new OutputStreamWriter(new FileOutputStream(pFile), StandardCharsets.UTF_8)))
 		{
-			out.println(JsonEncoder.encode(pDiagram).toString());
+			JsonEncoder.encode(pDiagram, out);
+			out.write(System.lineSeparator());
 		}
 	}
 	
@@ -76,10 +79,10 @@ public final class PersistenceService
 	public static Diagram read(File pFile) throws IOException, DeserializationException
 	{
 		assert pFile != null;
-		try
+		// The decoder of the charset, unlike the charset, reports malformed input
+		try( Reader input = new InputStreamReader(new FileInputStream(pFile), StandardCharsets.UTF_8.newDecoder()) )
 		{
-			String inputLine = Files.readString(pFile.toPath(), StandardCharsets.UTF_8);
-			Diagram diagram = new JsonDecoder(JsonParser.parse(inputLine)).decode();
+			Diagram diagram = JsonDecoder.decode(input);
 			DiagramValidator validator = DiagramType.newValidatorInstanceFor(diagram);
 			Optional<Violation> violation = validator.validate();
 			if( violation.isPresent() )
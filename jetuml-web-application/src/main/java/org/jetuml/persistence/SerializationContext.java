@@ -40,6 +40,6 @@ public class SerializationContext extends AbstractContext
 	{
 		super(pDiagram);
 		pDiagram.allNodes()
-				.forEach(node -> aNodes.put(node, aNodes.size()));
+				.forEach(node -> map(node, size()));
 	}
 }
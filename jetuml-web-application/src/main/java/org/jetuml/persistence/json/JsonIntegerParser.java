@@ -45,7 +45,7 @@ final class JsonIntegerParser implements JsonValueParser
      * This is different from Character.isDigit, which 
      * also returns true for non-JSON digits.
      */
-    private static boolean isDigit(char pCharacter)
+    static boolean isDigit(char pCharacter)
     {
     	return pCharacter >= CHAR_ZERO && pCharacter <= CHAR_NINE;
     }
@@ -74,7 +74,11 @@ final class JsonIntegerParser implements JsonValueParser
     	return parseInt(numberAsString.toString(), pInput.position());
 	}
 	
-    private static int parseInt(String pNumber, int pPosition)
+    /*
+     * Converts the text of a number read at pPosition, or throws a 
+     * JsonParsingException if the text is not a valid JSON integer.
+     */
+    static int parseInt(String pNumber, int pPosition)
     {
     	try
     	{
@@ -0,0 +1,514 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.json;
+
+import static java.lang.Character.isISOControl;
+import static java.lang.Character.isWhitespace;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads JSON text from a Reader one token at a time, so that clients can 
+ * process the values as they are read instead of building a JsonObject 
+ * for the entire text. The text is read in blocks into an internal buffer,
+ * so the Reader does not need to be buffered.
+ * 
+ * The reader accepts the same subset of the ECMA-404 2nd edition (December 2017)
+ * standard as JsonParser, and reports malformed text, including duplicate 
+ * property names in an object, with a JsonParsingException. Requesting a token 
+ * of a different type than the next one in the text raises a JsonException 
+ * and does not consume any input. As for JsonParser, any text that follows the 
+ * top-level value is ignored.
+ */
+public final class JsonStreamReader
+{
+	/**
+	 * The types of tokens that can be read.
+	 */
+	public enum Token
+	{
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, INTEGER, BOOLEAN, END_DOCUMENT
+	}
+	
+	/*
+	 * What is expected next in the containers that are being read.
+	 */
+	private enum Scope
+	{
+		EMPTY_DOCUMENT, NONEMPTY_DOCUMENT, EMPTY_ARRAY, NONEMPTY_ARRAY, EMPTY_OBJECT, NONEMPTY_OBJECT, DANGLING_NAME
+	}
+	
+	private static final CharacterEscapes CHARACTER_ESCAPES = new CharacterEscapes();
+	private static final int BUFFER_SIZE = 8192;
+	private static final int NUMBER_OF_UNICODE_DIGITS = 4;
+	private static final int RADIX_HEXADECIMAL = 16;
+	
+	private static final char CHAR_START_OBJECT = '{';
+	private static final char CHAR_END_OBJECT = '}';
+	private static final char CHAR_START_ARRAY = '[';
+	private static final char CHAR_END_ARRAY = ']';
+	private static final char CHAR_COMMA = ',';
+	private static final char CHAR_COLON = ':';
+	private static final char CHAR_QUOTE = '"';
+	private static final char CHAR_ESCAPE = '\\';
+	private static final char CHAR_UNICODE_ESCAPE = 'u';
+	private static final char CHAR_MINUS = '-';
+	
+	private final Reader aReader;
+	private final char[] aBuffer = new char[BUFFER_SIZE];
+	private int aPosition = 0; // Index of the next character to read in the buffer
+	private int aLimit = 0; // Number of characters in the buffer
+	private int aOffset = 0; // Number of characters read before those in the buffer
+	private final List<Scope> aScopes = new ArrayList<>(List.of(Scope.EMPTY_DOCUMENT));
+	private final List<Set<String>> aNames = new ArrayList<>(); // The names read in each open object
+	private final StringBuilder aText = new StringBuilder();
+	private Token aPeeked; // The type of the next token, if its first character was already read
+	
+	/**
+	 * Creates a reader positioned at the beginning of the text.
+	 * 
+	 * @param pReader The source of the JSON text.
+	 * @pre pReader != null
+	 */
+	public JsonStreamReader(Reader pReader)
+	{
+		assert pReader != null;
+		aReader = pReader;
+	}
+	
+	/**
+	 * @return The type of the next token, without consuming it.
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonParsingException If the next token is malformed.
+	 */
+	public Token peek() throws IOException
+	{
+		if( aPeeked == null )
+		{
+			aPeeked = readToken();
+		}
+		return aPeeked;
+	}
+	
+	/**
+	 * @return True if the current object or array has another element.
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonParsingException If the next token is malformed.
+	 */
+	public boolean hasNext() throws IOException
+	{
+		Token next = peek();
+		return next != Token.END_OBJECT && next != Token.END_ARRAY && next != Token.END_DOCUMENT;
+	}
+	
+	/**
+	 * Consumes the beginning of an object.
+	 * 
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not the beginning of an object.
+	 */
+	public void beginObject() throws IOException
+	{
+		consume(Token.BEGIN_OBJECT);
+		aScopes.add(Scope.EMPTY_OBJECT);
+		aNames.add(new HashSet<>());
+	}
+	
+	/**
+	 * Consumes the end of the current object.
+	 * 
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not the end of an object.
+	 */
+	public void endObject() throws IOException
+	{
+		consume(Token.END_OBJECT);
+		aScopes.remove(aScopes.size() - 1);
+		aNames.remove(aNames.size() - 1);
+	}
+	
+	/**
+	 * Consumes the beginning of an array.
+	 * 
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not the beginning of an array.
+	 */
+	public void beginArray() throws IOException
+	{
+		consume(Token.BEGIN_ARRAY);
+		aScopes.add(Scope.EMPTY_ARRAY);
+	}
+	
+	/**
+	 * Consumes the end of the current array.
+	 * 
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not the end of an array.
+	 */
+	public void endArray() throws IOException
+	{
+		consume(Token.END_ARRAY);
+		aScopes.remove(aScopes.size() - 1);
+	}
+	
+	/**
+	 * @return The name of the next property of the current object.
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not a property name.
+	 * @throws JsonParsingException If the name was already used in the current object.
+	 */
+	public String nextName() throws IOException
+	{
+		consume(Token.NAME);
+		String name = readString();
+		if( !aNames.get(aNames.size() - 1).add(name) )
+		{
+			throw new JsonParsingException(position());
+		}
+		setScope(Scope.DANGLING_NAME);
+		return name;
+	}
+	
+	/**
+	 * @return The next value, which must be a string.
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not a string.
+	 */
+	public String nextString() throws IOException
+	{
+		consume(Token.STRING);
+		return readString();
+	}
+	
+	/**
+	 * @return The next value, which must be an integer.
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not an integer.
+	 */
+	public int nextInt() throws IOException
+	{
+		consume(Token.INTEGER);
+		return readInteger();
+	}
+	
+	/**
+	 * @return The next value, which must be a boolean.
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not a boolean.
+	 */
+	public boolean nextBoolean() throws IOException
+	{
+		consume(Token.BOOLEAN);
+		return readBoolean();
+	}
+	
+	/**
+	 * Reads the next value completely. Objects and arrays are returned as 
+	 * JsonObject and JsonArray instances.
+	 * 
+	 * @return The next value: a String, Integer, Boolean, JsonObject, or JsonArray.
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token does not start a value.
+	 */
+	public Object nextValue() throws IOException
+	{
+		switch( peek() )
+		{
+		case STRING:
+			return nextString();
+		case INTEGER:
+			return nextInt();
+		case BOOLEAN:
+			return nextBoolean();
+		case BEGIN_OBJECT:
+			JsonObject object = new JsonObject();
+			beginObject();
+			while( hasNext() )
+			{
+				String name = nextName();
+				object.put(name, nextValue());
+			}
+			endObject();
+			return object;
+		case BEGIN_ARRAY:
+			List<Object> values = new ArrayList<>();
+			beginArray();
+			while( hasNext() )
+			{
+				values.add(nextValue());
+			}
+			endArray();
+			return new JsonArray(values);
+		default:
+			throw new JsonException(String.format("Expected a value but found %s at character position: %d", 
+					peek(), position()));
+		}
+	}
+	
+	/**
+	 * Reads the next value, which must be an object, completely.
+	 * 
+	 * @return The next object.
+	 * @throws IOException If the text cannot be read.
+	 * @throws JsonException If the next token is not the beginning of an object.
+	 */
+	public JsonObject nextJsonObject() throws IOException
+	{
+		if( peek() != Token.BEGIN_OBJECT )
+		{
+			throw mismatch(Token.BEGIN_OBJECT);
+		}
+		return (JsonObject) nextValue();
+	}
+	
+	/*
+	 * @return The position of the last character read, from the beginning of the text.
+	 */
+	private int position()
+	{
+		return aOffset + aPosition - 1;
+	}
+	
+	private void consume(Token pToken) throws IOException
+	{
+		if( peek() != pToken )
+		{
+			throw mismatch(pToken);
+		}
+		aPeeked = null;
+	}
+	
+	private JsonException mismatch(Token pExpected) throws IOException
+	{
+		return new JsonException(String.format("Expected %s but found %s at character position: %d", 
+				pExpected, peek(), position()));
+	}
+	
+	private void setScope(Scope pScope)
+	{
+		aScopes.set(aScopes.size() - 1, pScope);
+	}
+	
+	/*
+	 * Reads the separators that precede the next token, if any, and the first
+	 * character of the token, except for integers and booleans, which are read 
+	 * completely when they are consumed.
+	 */
+	private Token readToken() throws IOException
+	{
+		Scope scope = aScopes.get(aScopes.size() - 1);
+		char next;
+		switch( scope )
+		{
+		case EMPTY_DOCUMENT:
+			setScope(Scope.NONEMPTY_DOCUMENT);
+			return readValueToken(nextNonBlank());
+		case NONEMPTY_DOCUMENT:
+			return Token.END_DOCUMENT;
+		case EMPTY_ARRAY:
+		case NONEMPTY_ARRAY:
+			next = nextNonBlank();
+			if( next == CHAR_END_ARRAY )
+			{
+				return Token.END_ARRAY;
+			}
+			if( scope == Scope.NONEMPTY_ARRAY )
+			{
+				expect(CHAR_COMMA, next);
+				next = nextNonBlank();
+			}
+			setScope(Scope.NONEMPTY_ARRAY);
+			return readValueToken(next);
+		case EMPTY_OBJECT:
+		case NONEMPTY_OBJECT:
+			next = nextNonBlank();
+			if( next == CHAR_END_OBJECT )
+			{
+				return Token.END_OBJECT;
+			}
+			if( scope == Scope.NONEMPTY_OBJECT )
+			{
+				expect(CHAR_COMMA, next);
+				next = nextNonBlank();
+			}
+			expect(CHAR_QUOTE, next);
+			return Token.NAME;
+		default: // DANGLING_NAME
+			expect(CHAR_COLON, nextNonBlank());
+			setScope(Scope.NONEMPTY_OBJECT);
+			return readValueToken(nextNonBlank());
+		}
+	}
+	
+	private Token readValueToken(char pFirst)
+	{
+		if( pFirst == CHAR_START_OBJECT )
+		{
+			return Token.BEGIN_OBJECT;
+		}
+		else if( pFirst == CHAR_START_ARRAY )
+		{
+			return Token.BEGIN_ARRAY;
+		}
+		else if( pFirst == CHAR_QUOTE )
+		{
+			return Token.STRING;
+		}
+		else if( pFirst == Boolean.TRUE.toString().charAt(0) || pFirst == Boolean.FALSE.toString().charAt(0) )
+		{
+			aPosition--;
+			return Token.BOOLEAN;
+		}
+		else if( pFirst == CHAR_MINUS || JsonIntegerParser.isDigit(pFirst) )
+		{
+			aPosition--;
+			return Token.INTEGER;
+		}
+		throw new JsonParsingException(position());
+	}
+	
+	private void expect(char pExpected, char pActual)
+	{
+		if( pActual != pExpected )
+		{
+			throw new JsonParsingException(position());
+		}
+	}
+	
+	/*
+	 * Reads the characters of a string up to and including the closing quote.
+	 * The opening quote must already have been read.
+	 */
+	private String readString() throws IOException
+	{
+		aText.setLength(0);
+		while( true )
+		{
+			char next = nextCharacter();
+			if( isISOControl(next) )
+			{
+				throw new JsonParsingException(position());
+			}
+			else if( next == CHAR_ESCAPE )
+			{
+				aText.append(readEscape());
+			}
+			else if( next == CHAR_QUOTE )
+			{
+				return aText.toString();
+			}
+			else
+			{
+				aText.append(next);
+			}
+		}
+	}
+	
+	private char readEscape() throws IOException
+	{
+		char next = nextCharacter();
+		if( CHARACTER_ESCAPES.isSymbol(next) )
+		{
+			return CHARACTER_ESCAPES.getCodePoint(next);
+		}
+		else if( next == CHAR_UNICODE_ESCAPE )
+		{
+			char[] digits = new char[NUMBER_OF_UNICODE_DIGITS];
+			for( int i = 0; i < digits.length; i++ )
+			{
+				digits[i] = nextCharacter();
+			}
+			try
+			{
+				return (char) Integer.parseInt(new String(digits), RADIX_HEXADECIMAL);
+			}
+			catch(NumberFormatException exception)
+			{
+				throw new JsonParsingException(position());
+			}
+		}
+		throw new JsonParsingException(position());
+	}
+	
+	private int readInteger() throws IOException
+	{
+		aText.setLength(0);
+		aText.append(nextCharacter()); // Either a minus sign or a digit
+		while( (aPosition < aLimit || fill()) && JsonIntegerParser.isDigit(aBuffer[aPosition]) )
+		{
+			aText.append(nextCharacter());
+		}
+		return JsonIntegerParser.parseInt(aText.toString(), position());
+	}
+	
+	private boolean readBoolean() throws IOException
+	{
+		boolean value = nextCharacter() == Boolean.TRUE.toString().charAt(0);
+		String text = Boolean.toString(value);
+		for( int i = 1; i < text.length(); i++ )
+		{
+			expect(text.charAt(i), nextCharacter());
+		}
+		return value;
+	}
+	
+	private char nextNonBlank() throws IOException
+	{
+		char next = nextCharacter();
+		while( isWhitespace(next) )
+		{
+			next = nextCharacter();
+		}
+		return next;
+	}
+	
+	private char nextCharacter() throws IOException
+	{
+		if( aPosition == aLimit && !fill() )
+		{
+			throw new JsonParsingException(position());
+		}
+		return aBuffer[aPosition++];
+	}
+	
+	/*
+	 * Replaces the content of the buffer with the next block of text. 
+	 * Returns false if there is no more text.
+	 */
+	private boolean fill() throws IOException
+	{
+		assert aPosition == aLimit;
+		int read = aReader.read(aBuffer, 0, aBuffer.length);
+		if( read <= 0 )
+		{
+			return false;
+		}
+		aOffset += aLimit;
+		aPosition = 0;
+		aLimit = read;
+		return true;
+	}
+}
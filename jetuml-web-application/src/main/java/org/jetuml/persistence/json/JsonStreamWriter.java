@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes JSON text to a Writer as it is produced, without building
+ * JsonObject or JsonArray instances. The text is identical to the one
+ * produced by JsonWriter for the same values in the same order: no 
+ * whitespace is added, and strings are escaped in the same way.
+ * 
+ * Clients are responsible for calling the methods in an order that
+ * produces valid JSON: in an object, each value must be preceded by
+ * a call to name(...).
+ */
+public final class JsonStreamWriter
+{
+	private static final char CHAR_START_OBJECT = '{';
+	private static final char CHAR_END_OBJECT = '}';
+	private static final char CHAR_START_ARRAY = '[';
+	private static final char CHAR_END_ARRAY = ']';
+	private static final char CHAR_COMMA = ',';
+	private static final char CHAR_COLON = ':';
+	
+	private final Writer aWriter;
+	private final StringBuilder aBuffer = new StringBuilder();
+	private char[] aCharacters = new char[0];
+	private boolean aFirstInContainer = true;
+	private boolean aAfterName = false;
+	
+	/**
+	 * @param pWriter The writer to which the JSON text is written. It should be 
+	 *     buffered, as the text is written in small pieces.
+	 * @pre pWriter != null
+	 */
+	public JsonStreamWriter(Writer pWriter)
+	{
+		assert pWriter != null;
+		aWriter = pWriter;
+	}
+	
+	/**
+	 * Starts an object.
+	 * 
+	 * @throws IOException If the text cannot be written.
+	 */
+	public void beginObject() throws IOException
+	{
+		beforeValue();
+		aWriter.write(CHAR_START_OBJECT);
+		aFirstInContainer = true;
+	}
+	
+	/**
+	 * Ends the current object.
+	 * 
+	 * @throws IOException If the text cannot be written.
+	 */
+	public void endObject() throws IOException
+	{
+		aWriter.write(CHAR_END_OBJECT);
+		aFirstInContainer = false;
+	}
+	
+	/**
+	 * Starts an array.
+	 * 
+	 * @throws IOException If the text cannot be written.
+	 */
+	public void beginArray() throws IOException
+	{
+		beforeValue();
+		aWriter.write(CHAR_START_ARRAY);
+		aFirstInContainer = true;
+	}
+	
+	/**
+	 * Ends the current array.
+	 * 
+	 * @throws IOException If the text cannot be written.
+	 */
+	public void endArray() throws IOException
+	{
+		aWriter.write(CHAR_END_ARRAY);
+		aFirstInContainer = false;
+	}
+	
+	/**
+	 * Writes the name of the next property of the current object.
+	 * 
+	 * @param pName The name of the property.
+	 * @throws IOException If the text cannot be written.
+	 * @pre pName != null
+	 */
+	public void name(String pName) throws IOException
+	{
+		assert pName != null;
+		beforeValue();
+		writeString(pName);
+		aWriter.write(CHAR_COLON);
+		aAfterName = true;
+	}
+	
+	/**
+	 * Writes a value.
+	 * 
+	 * @param pValue The value to write. It should be a String, an Integer, or a Boolean.
+	 * @throws IOException If the text cannot be written.
+	 * @throws JsonException If pValue is not a valid JSON value that can be written 
+	 *     without building a JsonObject or a JsonArray.
+	 */
+	public void value(Object pValue) throws IOException
+	{
+		if( pValue instanceof String string )
+		{
+			value(string);
+		}
+		else if( pValue instanceof Integer || pValue instanceof Boolean )
+		{
+			beforeValue();
+			aWriter.write(pValue.toString());
+		}
+		else
+		{
+			throw new JsonException("Invalid value " + pValue);
+		}
+	}
+	
+	/**
+	 * Writes a string value.
+	 * 
+	 * @param pValue The value to write.
+	 * @throws IOException If the text cannot be written.
+	 * @pre pValue != null
+	 */
+	public void value(String pValue) throws IOException
+	{
+		assert pValue != null;
+		beforeValue();
+		writeString(pValue);
+	}
+	
+	/**
+	 * Writes an integer value.
+	 * 
+	 * @param pValue The value to write.
+	 * @throws IOException If the text cannot be written.
+	 */
+	public void value(int pValue) throws IOException
+	{
+		beforeValue();
+		aWriter.write(Integer.toString(pValue));
+	}
+	
+	/*
+	 * Writes the comma that separates the next value from the previous one 
+	 * in the same container, if necessary. A value that follows the name of
+	 * a property is not separated.
+	 */
+	private void beforeValue() throws IOException
+	{
+		if( aAfterName )
+		{
+			aAfterName = false;
+		}
+		else if( aFirstInContainer )
+		{
+			aFirstInContainer = false;
+		}
+		else
+		{
+			aWriter.write(CHAR_COMMA);
+		}
+	}
+	
+	private void writeString(String pString) throws IOException
+	{
+		aBuffer.setLength(0);
+		JsonStringParser.appendJsonString(pString, aBuffer);
+		if( aCharacters.length < aBuffer.length() )
+		{
+			aCharacters = new char[aBuffer.length()];
+		}
+		aBuffer.getChars(0, aBuffer.length(), aCharacters, 0);
+		aWriter.write(aCharacters, 0, aBuffer.length());
+	}
+}
@@ -173,24 +173,32 @@ final class JsonStringParser implements JsonValueParser
 	static String writeJsonString(Object pString)
 	{
 		StringBuilder result = new StringBuilder();
-		result.append(CHAR_QUOTE);
-		for( char character : JsonValueValidator.asString(pString).toCharArray())
+		appendJsonString(JsonValueValidator.asString(pString), result);
+		return result.toString();
+	}
+	
+	/*
+	 * Appends the JSON text of pString, including the quotes, to pResult.
+	 */
+	static void appendJsonString(String pString, StringBuilder pResult)
+	{
+		pResult.append(CHAR_QUOTE);
+		for( char character : pString.toCharArray())
 		{
 			if( CHARACTER_ESCAPES.isEscapableCodePoint(character))
 			{
-				result.append(CHARACTER_ESCAPES.getEscape(character));
+				pResult.append(CHARACTER_ESCAPES.getEscape(character));
 			}
 			else if( Character.isISOControl(character))
 			{
-				result.append(toUnicodeString(character));
+				pResult.append(toUnicodeString(character));
 			}
 			else
 			{
-				result.append(character);
+				pResult.append(character);
 			}
 		}
-		result.append(CHAR_QUOTE);
-		return result.toString();
+		pResult.append(CHAR_QUOTE);
 	}
 	
 	private static String toUnicodeString(char pCharacter)
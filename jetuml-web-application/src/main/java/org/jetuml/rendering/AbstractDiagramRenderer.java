@@ -20,6 +20,7 @@ package org.jetuml.rendering;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
@@ -48,8 +49,14 @@ import javafx.scene.canvas.GraphicsContext;
  */
 public abstract class AbstractDiagramRenderer implements DiagramRenderer
 {
+	/* Arrow heads and the outline of some elements are drawn slightly outside 
+	 * of their bounds. */
+	private static final int VISIBILITY_MARGIN = 20;
+	
 	private final IdentityHashMap<Class<? extends DiagramElement>, DiagramElementRenderer> aRenderers = new IdentityHashMap<>();
 	private final Diagram aDiagram;
+	private HitTestIndex aHitTestIndex;
+	private GeometryKey aHitTestIndexKey;
 	
 	/*
 	 * Add renderers for elements that are present in all diagrams. 
@@ -75,6 +82,49 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 		}
 	}
 	
+	/**
+	 * Discards the spatial index used by nodeAt and edgeAt. Must be called
+	 * whenever a layout changes the bounds of the elements of the diagram.
+	 */
+	protected final void discardHitTestIndex()
+	{
+		aHitTestIndex = null;
+	}
+	
+	/**
+	 * @param pElement A root node or an edge.
+	 * @return False if pElement, or a node found through it by deepFindNode, can contain 
+	 *     a point outside of the bounds of pElement and its children, in which case 
+	 *     pElement is checked for every point.
+	 */
+	protected boolean isIndexable(DiagramElement pElement)
+	{
+		return true;
+	}
+	
+	/**
+	 * @return The key that identifies the current geometry of the diagram.
+	 */
+	protected final GeometryKey geometryKey()
+	{
+		return GeometryKey.of(aDiagram);
+	}
+	
+	/*
+	 * Returns a spatial index of the elements of the diagram, indexing them again
+	 * if the diagram changed since the last index was created.
+	 */
+	private HitTestIndex hitTestIndex()
+	{
+		GeometryKey key = geometryKey();
+		if( aHitTestIndex == null || !key.equals(aHitTestIndexKey) )
+		{
+			aHitTestIndex = new HitTestIndex(aDiagram, this::getBounds, this::isIndexable);
+			aHitTestIndexKey = key;
+		}
+		return aHitTestIndex;
+	}
+	
 	protected void addElementRenderer(Class<? extends DiagramElement> pElementClass,
 			DiagramElementRenderer pElementRenderer)
 	{
@@ -82,27 +132,49 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 	}
 
 	/**
-	 * Activates all the NodeStorages of the NodeViewers present in the renderer.
+	 * Clears all the NodeStorages of the NodeRenderers present in the renderer. Must be 
+	 * called whenever a layout changes the bounds of nodes.
 	 */
-	protected void activateNodeStorages()
+	protected void clearNodeStorages()
 	{
 		aRenderers.values().stream().filter(renderer -> NodeRenderer.class.isAssignableFrom(renderer.getClass()))
-				.map(NodeRenderer.class::cast).forEach(NodeRenderer::activateNodeStorage);
+				.map(NodeRenderer.class::cast).forEach(NodeRenderer::clearNodeStorage);
 	}
 
-	/**
-	 * Deactivates and clears all the NodeStorages of the NodeViewers present in the renderer.
+	protected void drawNode(Node pNode, GraphicsContext pGraphics)
+	{
+		drawNode(pNode, pGraphics, element -> true);
+	}
+	
+	/*
+	 * Draws pNode and its children, skipping the nodes that are not visible.
+	 * The children of a node that is not visible are still considered.
 	 */
-	protected void deactivateAndClearNodeStorages()
+	protected void drawNode(Node pNode, GraphicsContext pGraphics, Predicate<DiagramElement> pIsVisible)
 	{
-		aRenderers.values().stream().filter(renderer -> NodeRenderer.class.isAssignableFrom(renderer.getClass()))
-				.map(NodeRenderer.class::cast).forEach(NodeRenderer::deactivateAndClearNodeStorage);
+		if( pIsVisible.test(pNode) )
+		{
+			draw(pNode, pGraphics);
+		}
+		pNode.getChildren().forEach(node -> drawNode(node, pGraphics, pIsVisible));
 	}
-
-	protected void drawNode(Node pNode, GraphicsContext pGraphics)
+	
+	/**
+	 * Computes the geometry of the diagram and draws the elements for which 
+	 * pIsVisible is true. The geometry of all the elements is computed, whether 
+	 * they are drawn or not.
+	 * 
+	 * @param pGraphics The graphics context where the diagram should be drawn.
+	 * @param pIsVisible Whether an element needs to be drawn.
+	 * @pre pGraphics != null && pIsVisible != null
+	 */
+	protected void drawElements(GraphicsContext pGraphics, Predicate<DiagramElement> pIsVisible)
 	{
-		draw(pNode, pGraphics);
-		pNode.getChildren().forEach(node -> drawNode(node, pGraphics));
+		assert pGraphics != null && pIsVisible != null;
+		aDiagram.rootNodes().forEach(node -> drawNode(node, pGraphics, pIsVisible));
+		aDiagram.edges().stream()
+			.filter(pIsVisible)
+			.forEach(edge -> draw(edge, pGraphics));
 	}
 	
 	protected Optional<Node> deepFindNode(Node pNode, Point pPoint)
@@ -154,13 +226,29 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 	}
 
 	@Override
-	public void draw(GraphicsContext pGraphics)
+	public final void draw(GraphicsContext pGraphics)
 	{
 		assert pGraphics != null;
-		activateNodeStorages();
-		aDiagram.rootNodes().forEach(node -> drawNode(node, pGraphics));
-		aDiagram.edges().forEach(edge -> draw(edge, pGraphics));
-		deactivateAndClearNodeStorages();
+		drawElements(pGraphics, element -> true);
+	}
+	
+	@Override
+	public final void draw(GraphicsContext pGraphics, Rectangle pVisibleArea)
+	{
+		assert pGraphics != null && pVisibleArea != null;
+		Rectangle area = new Rectangle(pVisibleArea.x() - VISIBILITY_MARGIN, pVisibleArea.y() - VISIBILITY_MARGIN, 
+				pVisibleArea.width() + 2 * VISIBILITY_MARGIN, pVisibleArea.height() + 2 * VISIBILITY_MARGIN);
+		drawElements(pGraphics, element -> getBounds(element).intersects(area));
+	}
+
+	/*
+	 * By default the geometry of the elements is computed on demand from
+	 * the position of the nodes, and the paths of edges are not stored.
+	 */
+	@Override
+	public Optional<Rectangle> updateGeometry()
+	{
+		return Optional.empty();
 	}
 
 	@Override
@@ -173,7 +261,7 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 	public Optional<Edge> edgeAt(Point pPoint)
 	{
 		assert pPoint != null;
-		return aDiagram.edges().stream()
+		return hitTestIndex().edgesAt(pPoint).stream()
 				.filter(edge -> contains(edge, pPoint))
 				.findFirst();
 	}
@@ -182,7 +270,7 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 	public Optional<Node> nodeAt(Point pPoint)
 	{
 		assert pPoint != null;
-		return aDiagram.rootNodes().stream()
+		return hitTestIndex().rootNodesAt(pPoint).stream()
 				.map(node -> deepFindNode(node, pPoint))
 				.filter(Optional::isPresent)
 				.map(Optional::get)
@@ -26,11 +26,15 @@ import static org.jetuml.rendering.EdgePriority.priorityOf;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
@@ -67,6 +71,8 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	private static final int TEN_PIXELS = 10;
 	
 	private final EdgeStorage aEdgeStorage = new EdgeStorage();
+	private EdgeLayoutSnapshot aLayoutSnapshot;
+	private GeometryKey aLayoutKey;
 	
 	/**
 	 * @param pDiagram The diagram being rendered.
@@ -88,25 +94,34 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	}
 
 	/**
-	 * Draws pDiagram onto pGraphics.
+	 * Draws the visible elements of the diagram onto pGraphics.
 	 * 
 	 * @param pGraphics the graphics context where the diagram should be drawn.
-	 * @param pDiagram the diagram to draw.
-	 * @pre pDiagram != null && pGraphics != null.
+	 * @param pIsVisible whether an element needs to be drawn.
+	 * @pre pGraphics != null && pIsVisible != null.
 	 */
 	@Override
-	public void draw(GraphicsContext pGraphics)
+	protected void drawElements(GraphicsContext pGraphics, Predicate<DiagramElement> pIsVisible)
 	{
 		//draw and store nodes 
-		activateNodeStorages();
-		diagram().rootNodes().forEach(node -> drawNode(node, pGraphics));
+		diagram().rootNodes().forEach(node -> drawNode(node, pGraphics, pIsVisible));
 		
-		//plan edge paths using Layouter
-		layout();
+		//plan the paths of the edges affected by changes since the last draw
+		updateLayout();
 		
 		//draw edges using plan from EdgeStorage
-		diagram().edges().forEach(edge -> draw(edge, pGraphics));
-		deactivateAndClearNodeStorages();
+		diagram().edges().stream()
+			.filter(pIsVisible)
+			.forEach(edge -> draw(edge, pGraphics));
+	}
+	
+	/*
+	 * The bounds of an edge are only known once its path is stored.
+	 */
+	@Override
+	protected boolean isIndexable(DiagramElement pElement)
+	{
+		return !(pElement instanceof Edge edge) || aEdgeStorage.contains(edge);
 	}
 	
 	@Override
@@ -132,27 +147,122 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	{
 		assert diagram().getType() == DiagramType.CLASS;
 		aEdgeStorage.clearStorage();
-		layoutSegmentedEdges(EdgePriority.INHERITANCE);	
-		layoutSegmentedEdges(EdgePriority.IMPLEMENTATION);
-		layoutSegmentedEdges(EdgePriority.AGGREGATION);
-		layoutSegmentedEdges(EdgePriority.COMPOSITION);
-		layoutSegmentedEdges(EdgePriority.ASSOCIATION);
-		layoutDependencyEdges();
-		layoutSelfEdges();
+		layoutEdges(diagram().edges());
+		aLayoutSnapshot = takeLayoutSnapshot();
+		aLayoutKey = geometryKey();
+	}
+	
+	@Override
+	public Optional<Rectangle> updateGeometry()
+	{
+		return updateLayout();
+	}
+	
+	/**
+	 * Plans the EdgePaths of the edges whose stored path may be stale because 
+	 * nodes or edges were moved, added, removed, or modified since the last layout. 
+	 * Only the clusters of edges touched by a change are laid out again, in the same 
+	 * order as a complete layout, so the result is the same as calling layout(). 
+	 * Nothing is laid out if the diagram and the font have not changed since the last layout.
+	 * @return The area covered by the edges whose path changed, before and after 
+	 *     the change, if any.
+	 * @pre diagram().getType() == DiagramType.CLASS
+	 */
+	private Optional<Rectangle> updateLayout()
+	{
+		assert diagram().getType() == DiagramType.CLASS;
+		if( aLayoutSnapshot == null )
+		{
+			layout();
+			return diagram().edges().stream()
+					.map(this::getBounds)
+					.reduce(Rectangle::add);
+		}
+		GeometryKey key = geometryKey();
+		if( key.equals(aLayoutKey) )
+		{
+			return Optional.empty();
+		}
+		EdgeLayoutSnapshot snapshot = takeLayoutSnapshot();
+		Set<Edge> staleEdges = snapshot.staleEdges(aLayoutSnapshot);
+		aLayoutSnapshot = snapshot;
+		aLayoutKey = key;
+		if( staleEdges.isEmpty() )
+		{
+			return Optional.empty();
+		}
+		Map<Edge, EdgePath> previousPaths = new IdentityHashMap<>();
+		Map<Edge, Rectangle> previousBounds = new IdentityHashMap<>();
+		for( Edge edge : staleEdges )
+		{
+			if( aEdgeStorage.contains(edge) )
+			{
+				previousPaths.put(edge, aEdgeStorage.getEdgePath(edge));
+				previousBounds.put(edge, getBounds(edge));
+			}
+		}
+		staleEdges.forEach(aEdgeStorage::remove);
+		layoutEdges(diagram().edges().stream()
+				.filter(staleEdges::contains)
+				.collect(toList()));
+		Optional<Rectangle> result = Optional.empty();
+		for( Edge edge : staleEdges )
+		{
+			if( !getStoredEdgePath(edge).equals(Optional.ofNullable(previousPaths.get(edge))) )
+			{
+				result = addBounds(result, previousBounds.get(edge));
+				if( aEdgeStorage.contains(edge) )
+				{
+					result = addBounds(result, getBounds(edge));
+				}
+			}
+		}
+		return result;
+	}
+	
+	private static Optional<Rectangle> addBounds(Optional<Rectangle> pArea, Rectangle pBounds)
+	{
+		if( pBounds == null )
+		{
+			return pArea;
+		}
+		return Optional.of(pArea.map(area -> area.add(pBounds)).orElse(pBounds));
+	}
+	
+	private EdgeLayoutSnapshot takeLayoutSnapshot()
+	{
+		return new EdgeLayoutSnapshot(diagram().edges(), this::getBounds, this::getFace);
+	}
+	
+	/**
+	 * Plans and stores the EdgePaths of pEdges, by order of priority.
+	 * @param pEdges the edges to lay out, in diagram order
+	 */
+	private void layoutEdges(List<Edge> pEdges)
+	{
+		layoutSegmentedEdges(pEdges, EdgePriority.INHERITANCE);	
+		layoutSegmentedEdges(pEdges, EdgePriority.IMPLEMENTATION);
+		layoutSegmentedEdges(pEdges, EdgePriority.AGGREGATION);
+		layoutSegmentedEdges(pEdges, EdgePriority.COMPOSITION);
+		layoutSegmentedEdges(pEdges, EdgePriority.ASSOCIATION);
+		layoutDependencyEdges(pEdges);
+		layoutSelfEdges(pEdges);
 	}
 	
 	/**
-	 * Plans the EdgePaths for all segmented edges with EdgePriority 
+	 * Plans the EdgePaths for the segmented edges in pEdges with EdgePriority 
 	 * pEdgePriority.
+	 * @param pEdges the edges to consider, in diagram order
 	 * @param pEdgePriority the edge priority level 
 	 * @pre pDiagram.getType() == DiagramType.CLASS
 	 * @pre EdgePriority.isSegmented(pEdgePriority)
 	 */
-	private void layoutSegmentedEdges(EdgePriority pEdgePriority)
+	private void layoutSegmentedEdges(List<Edge> pEdges, EdgePriority pEdgePriority)
 	{
 		assert diagram().getType() == DiagramType.CLASS;
 		assert EdgePriority.isSegmented(pEdgePriority);
-		List<Edge> edgesToProcess = diagram().edges().stream()
+		discardHitTestIndex();
+		List<Edge> edgesToProcess = pEdges.stream()
 				.filter(edge -> priorityOf(edge) == pEdgePriority)
 				.sorted(Comparator.comparing(edge -> edge.start().position().x()))
 				.collect(toList());
@@ -182,12 +292,14 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	
 	
 	/**
-	 * Plans the EdgePaths for Dependency Edges.
+	 * Plans the EdgePaths for the Dependency Edges in pEdges.
+	 * @param pEdges the edges to consider, in diagram order
 	 */
-	private void layoutDependencyEdges()
+	private void layoutDependencyEdges(List<Edge> pEdges)
 	{
 		assert diagram().getType() == DiagramType.CLASS;
-		for(Edge edge : diagram().edges())
+		discardHitTestIndex();
+		for(Edge edge : pEdges)
 		{
 			if(priorityOf(edge)==EdgePriority.DEPENDENCY)
 			{   //Determine the start and end connection points
@@ -201,11 +313,13 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	}
 	
 	/**
-	 * Plans the EdgePaths for self-edges in pDiagram.
+	 * Plans the EdgePaths for the self-edges in pEdges.
+	 * @param pEdges the edges to consider, in diagram order
 	 */
-	private void layoutSelfEdges()
+	private void layoutSelfEdges(List<Edge> pEdges)
 	{
-		List<Edge> selfEdges = diagram().edges().stream()
+		discardHitTestIndex();
+		List<Edge> selfEdges = pEdges.stream()
 			.filter(edge -> priorityOf(edge) == EdgePriority.SELF_EDGE)
 			.collect(toList());
 		for(Edge edge : selfEdges)
@@ -58,6 +58,28 @@ public interface DiagramRenderer
 	 */
 	void draw(GraphicsContext pGraphics);
 	
+	/**
+	 * Computes the geometry of the diagram and draws the elements of the diagram 
+	 * that can be seen in pVisibleArea onto the graphics context. Elements 
+	 * entirely outside of pVisibleArea are skipped.
+	 * 
+	 * @param pGraphics The graphics context where the diagram should be drawn.
+	 * @param pVisibleArea The area of the diagram that needs to be drawn.
+	 * @pre pGraphics != null && pVisibleArea != null.
+	 */
+	void draw(GraphicsContext pGraphics, Rectangle pVisibleArea);
+	
+	/**
+	 * Computes the geometry of the diagram without drawing it, so that query methods
+	 * reflect the current state of the diagram. Renderers that store the paths of 
+	 * edges plan them again if necessary, which can change the path of edges that 
+	 * are not attached to any node that changed.
+	 * 
+	 * @return The area covered by the edges whose stored path changed, both before
+	 *     and after the change, or Optional.empty() if no stored path changed.
+	 */
+	Optional<Rectangle> updateGeometry();
+	
 	/**
      * Draws the element.
      * @param pElement The element to draw.
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import static org.jetuml.rendering.EdgePriority.priorityOf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.ThreeLabelEdge;
+import org.jetuml.geom.Line;
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+
+/**
+ * A record of everything the edge layout of a class diagram depends on: the 
+ * order of the edges in the diagram, the nodes and labels of each edge, and the 
+ * geometry of each node attached to an edge. Comparing a snapshot with the one 
+ * taken at the previous layout yields the edges whose stored path may be stale.
+ * 
+ * The layout of a class diagram is greedy: the path of an edge depends on the 
+ * paths already stored for the edges attached to the same nodes, and on the 
+ * connection points already taken on the faces of neighboring nodes. Nodes are 
+ * therefore grouped into clusters, where two nodes are in the same cluster if 
+ * an edge connects them or if they are close enough to share a connection point. 
+ * Laying out the edges of a cluster on their own produces exactly the same paths 
+ * as laying out the entire diagram, so only the clusters touched by a change 
+ * need to be laid out again.
+ */
+final class EdgeLayoutSnapshot
+{
+	/* Connection points are at most four increments of 10 pixels away from the 
+	 * center of a face, which is itself snapped to the grid. They can thus fall 
+	 * outside of the bounds of a small node, but never by more than this distance. */
+	private static final int CONNECTION_POINT_REACH = 50;
+	
+	private final List<Edge> aEdges;
+	private final Map<Edge, EdgeSignature> aSignatures = new IdentityHashMap<>();
+	private final Map<Node, NodeGeometry> aGeometries = new IdentityHashMap<>();
+	private final Map<Node, Node> aClusters = new IdentityHashMap<>();
+	
+	/*
+	 * The properties of an edge that influence the layout.
+	 */
+	private record EdgeSignature(Node start, Node end, EdgePriority priority, String startLabel, String endLabel) 
+	{
+		static EdgeSignature of(Edge pEdge)
+		{
+			if( pEdge instanceof ThreeLabelEdge edge )
+			{
+				return new EdgeSignature(pEdge.start(), pEdge.end(), priorityOf(pEdge), 
+						edge.getStartLabel(), edge.getEndLabel());
+			}
+			return new EdgeSignature(pEdge.start(), pEdge.end(), priorityOf(pEdge), null, null);
+		}
+	}
+	
+	/*
+	 * The position, bounds and faces of a node. The faces are not always 
+	 * the sides of the bounds, for example for package nodes.
+	 */
+	private record NodeGeometry(Point position, Rectangle bounds, List<Line> faces) {}
+	
+	/**
+	 * Records the current state of pEdges.
+	 * 
+	 * @param pEdges The edges of the diagram, in diagram order.
+	 * @param pBounds A function that returns the bounds of a node.
+	 * @param pFaces A function that returns the face of a node on a given side.
+	 * @pre pEdges != null && pBounds != null && pFaces != null
+	 */
+	EdgeLayoutSnapshot(List<Edge> pEdges, Function<Node, Rectangle> pBounds, BiFunction<Node, Side, Line> pFaces)
+	{
+		assert pEdges != null && pBounds != null && pFaces != null;
+		aEdges = new ArrayList<>(pEdges);
+		for( Edge edge : aEdges )
+		{
+			aSignatures.put(edge, EdgeSignature.of(edge));
+			recordGeometry(edge.start(), pBounds, pFaces);
+			recordGeometry(edge.end(), pBounds, pFaces);
+		}
+		computeClusters();
+	}
+	
+	private void recordGeometry(Node pNode, Function<Node, Rectangle> pBounds, BiFunction<Node, Side, Line> pFaces)
+	{
+		if( aGeometries.containsKey(pNode) )
+		{
+			return;
+		}
+		List<Line> faces = new ArrayList<>();
+		for( Side side : Side.values() )
+		{
+			faces.add(pFaces.apply(pNode, side));
+		}
+		aGeometries.put(pNode, new NodeGeometry(pNode.position(), pBounds.apply(pNode), faces));
+		aClusters.put(pNode, pNode);
+	}
+	
+	/*
+	 * Merges the nodes connected by an edge, then the nodes whose connection points 
+	 * could coincide, using a sweep over the nodes ordered by their left side.
+	 * The cluster map is flattened at the end so that each node maps directly to 
+	 * the representative of its cluster.
+	 */
+	private void computeClusters()
+	{
+		for( Edge edge : aEdges )
+		{
+			union(edge.start(), edge.end());
+		}
+		List<Node> nodes = new ArrayList<>(aGeometries.keySet());
+		nodes.sort(Comparator.comparing(node -> bounds(node).x()));
+		for( int i = 0; i < nodes.size(); i++ )
+		{
+			Rectangle bounds = bounds(nodes.get(i));
+			for( int j = i + 1; j < nodes.size() && 
+					bounds(nodes.get(j)).x() <= bounds.maxX() + 2 * CONNECTION_POINT_REACH; j++ )
+			{
+				Rectangle other = bounds(nodes.get(j));
+				if( other.y() <= bounds.maxY() + 2 * CONNECTION_POINT_REACH && 
+						bounds.y() <= other.maxY() + 2 * CONNECTION_POINT_REACH )
+				{
+					union(nodes.get(i), nodes.get(j));
+				}
+			}
+		}
+		for( Node node : nodes )
+		{
+			aClusters.put(node, find(node));
+		}
+	}
+	
+	private Rectangle bounds(Node pNode)
+	{
+		return aGeometries.get(pNode).bounds();
+	}
+	
+	private Node find(Node pNode)
+	{
+		Node node = pNode;
+		while( aClusters.get(node) != node )
+		{
+			Node parent = aClusters.get(node);
+			aClusters.put(node, aClusters.get(parent));
+			node = parent;
+		}
+		return node;
+	}
+	
+	private void union(Node pNode1, Node pNode2)
+	{
+		Node root1 = find(pNode1);
+		Node root2 = find(pNode2);
+		if( root1 != root2 )
+		{
+			aClusters.put(root1, root2);
+		}
+	}
+	
+	/*
+	 * The cluster of an edge is the cluster of its nodes.
+	 */
+	private Node clusterOf(Edge pEdge)
+	{
+		return aClusters.get(aSignatures.get(pEdge).start());
+	}
+	
+	/**
+	 * Returns the edges whose stored path may differ from the path a complete 
+	 * layout of the current diagram would produce, given that the stored paths 
+	 * were computed for pPrevious. These are all the edges, current or removed, 
+	 * that belong to a cluster in which a node or an edge changed, either before 
+	 * or after the change. If the relative order of the edges changed, all edges 
+	 * are returned since the order in which edges are laid out determines their 
+	 * paths.
+	 * 
+	 * @param pPrevious The snapshot taken when the stored paths were computed.
+	 * @return An identity set of the edges whose stored path is stale. 
+	 * @pre pPrevious != null
+	 */
+	Set<Edge> staleEdges(EdgeLayoutSnapshot pPrevious)
+	{
+		assert pPrevious != null;
+		Set<Edge> result = Collections.newSetFromMap(new IdentityHashMap<>());
+		if( !sameRelativeOrder(pPrevious) )
+		{
+			result.addAll(pPrevious.aEdges);
+			result.addAll(aEdges);
+			return result;
+		}
+		Set<Node> changedClusters = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Node> previousChangedClusters = Collections.newSetFromMap(new IdentityHashMap<>());
+		for( Map.Entry<Node, NodeGeometry> entry : aGeometries.entrySet() )
+		{
+			NodeGeometry previous = pPrevious.aGeometries.get(entry.getKey());
+			if( !entry.getValue().equals(previous) )
+			{
+				changedClusters.add(aClusters.get(entry.getKey()));
+				if( previous != null )
+				{
+					previousChangedClusters.add(pPrevious.aClusters.get(entry.getKey()));
+				}
+			}
+		}
+		for( Node node : pPrevious.aGeometries.keySet() )
+		{
+			if( !aGeometries.containsKey(node) )
+			{
+				previousChangedClusters.add(pPrevious.aClusters.get(node));
+			}
+		}
+		for( Edge edge : aEdges )
+		{
+			EdgeSignature previous = pPrevious.aSignatures.get(edge);
+			if( !aSignatures.get(edge).equals(previous) )
+			{
+				changedClusters.add(clusterOf(edge));
+				if( previous != null )
+				{
+					previousChangedClusters.add(pPrevious.clusterOf(edge));
+				}
+			}
+		}
+		for( Edge edge : pPrevious.aEdges )
+		{
+			if( !aSignatures.containsKey(edge) )
+			{
+				previousChangedClusters.add(pPrevious.clusterOf(edge));
+			}
+		}
+		for( Edge edge : pPrevious.aEdges )
+		{
+			if( previousChangedClusters.contains(pPrevious.clusterOf(edge)) )
+			{
+				result.add(edge);
+			}
+		}
+		for( Edge edge : aEdges )
+		{
+			if( changedClusters.contains(clusterOf(edge)) )
+			{
+				result.add(edge);
+			}
+		}
+		return result;
+	}
+	
+	/*
+	 * Returns true if the edges present in both snapshots appear in the same order.
+	 */
+	private boolean sameRelativeOrder(EdgeLayoutSnapshot pPrevious)
+	{
+		List<Edge> previousEdges = pPrevious.aEdges.stream().filter(aSignatures::containsKey).toList();
+		List<Edge> currentEdges = aEdges.stream().filter(pPrevious.aSignatures::containsKey).toList();
+		if( previousEdges.size() != currentEdges.size() )
+		{
+			return false;
+		}
+		for( int i = 0; i < previousEdges.size(); i++ )
+		{
+			if( previousEdges.get(i) != currentEdges.get(i) )
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
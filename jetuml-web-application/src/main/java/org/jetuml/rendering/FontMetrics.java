@@ -30,6 +30,13 @@ import javafx.scene.text.Text;
 /**
  * A utility class to determine various font metrics
  * for the particular text and font.
+ * 
+ * Measuring text requires laying it out, so the metrics are cached. A font is 
+ * identified by its family, style (which combines the weight and posture), and 
+ * size. The cache of text dimensions is bounded and evicts the least recently 
+ * used entries. The caches are never stale, but they should be cleared when the 
+ * font preferences change, since the metrics of the previous font are then 
+ * unlikely to be used again.
  */
 public final class FontMetrics 
 {
@@ -39,6 +46,24 @@ public final class FontMetrics
 	private static final String SINGLE_LINED_TEXT = "One";
 	private static final String TWO_LINED_TEXT = "One\nTwo";
 	private static final Text TEXT_NODE = new Text();
+	private static final int DIMENSION_CACHE_CAPACITY = 4096;
+	private static final int FONT_CACHE_CAPACITY = 64;
+	private static final LruCache<Measurement, Dimension> DIMENSIONS = new LruCache<>(DIMENSION_CACHE_CAPACITY);
+	private static final LruCache<FontKey, Integer> HEIGHTS = new LruCache<>(FONT_CACHE_CAPACITY);
+	private static final LruCache<FontKey, Integer> BASELINE_OFFSETS = new LruCache<>(FONT_CACHE_CAPACITY);
+	
+	/*
+	 * The attributes of a font that determine the metrics of a text.
+	 */
+	private record FontKey(String family, String style, double size)
+	{
+		static FontKey of(Font pFont)
+		{
+			return new FontKey(pFont.getFamily(), pFont.getStyle(), pFont.getSize());
+		}
+	}
+	
+	private record Measurement(String text, FontKey font) {}
 
 	private FontMetrics() {}
 
@@ -57,7 +82,11 @@ public final class FontMetrics
 	{
 		assert pString != null;
 		assert pFont != null;
-
+		return DIMENSIONS.get(new Measurement(pString, FontKey.of(pFont)), key -> measure(pString, pFont));
+	}
+	
+	private static Dimension measure(String pString, Font pFont)
+	{
 		TEXT_NODE.setFont(pFont);
 		TEXT_NODE.setText(pString);
 		Bounds bounds = TEXT_NODE.getLayoutBounds();
@@ -76,7 +105,11 @@ public final class FontMetrics
 	public static int getHeight(Font pFont)
 	{
 		assert pFont != null;
-		
+		return HEIGHTS.get(FontKey.of(pFont), key -> measureHeight(pFont));
+	}
+	
+	private static int measureHeight(Font pFont)
+	{
 		TEXT_NODE.setFont(pFont);
 		TEXT_NODE.setText(TWO_LINED_TEXT);
 		double twoLineHeight = TEXT_NODE.getLayoutBounds().getHeight();
@@ -95,9 +128,40 @@ public final class FontMetrics
 	public static int getBaselineOffset(Font pFont)
 	{
 		assert pFont != null;
-		
+		return BASELINE_OFFSETS.get(FontKey.of(pFont), key -> measureBaselineOffset(pFont));
+	}
+	
+	private static int measureBaselineOffset(Font pFont)
+	{
 		TEXT_NODE.setFont(pFont);
 		TEXT_NODE.setText(SINGLE_LINED_TEXT);
 		return GeomUtils.round(TEXT_NODE.getBaselineOffset());
 	}
+	
+	/**
+	 * Removes all the cached metrics. The hit and miss counters are not reset.
+	 */
+	public static void clearCache()
+	{
+		DIMENSIONS.clear();
+		HEIGHTS.clear();
+		BASELINE_OFFSETS.clear();
+	}
+	
+	/**
+	 * @return The number of metrics that were found in the cache.
+	 */
+	public static long getCacheHits()
+	{
+		return DIMENSIONS.hits() + HEIGHTS.hits() + BASELINE_OFFSETS.hits();
+	}
+	
+	/**
+	 * @return The number of metrics that had to be computed because they were 
+	 *     not in the cache.
+	 */
+	public static long getCacheMisses()
+	{
+		return DIMENSIONS.misses() + HEIGHTS.misses() + BASELINE_OFFSETS.misses();
+	}
 } 
\ No newline at end of file
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
+import org.jetuml.application.UserPreferences.StringPreference;
+import org.jetuml.diagram.Diagram;
+
+/**
+ * Identifies everything the geometry of a diagram depends on: the version 
+ * of the diagram and the font preferences. Geometry computed for a key 
+ * remains valid as long as the key stays equal.
+ * @param version The version of the diagram.
+ * @param fontName The name of the font preference.
+ * @param fontSize The size of the font preference.
+ */
+public record GeometryKey(long version, String fontName, int fontSize)
+{
+	/**
+	 * @param pDiagram The diagram whose geometry is identified.
+	 * @return The key that identifies the current geometry of pDiagram.
+	 * @pre pDiagram != null
+	 */
+	public static GeometryKey of(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		return new GeometryKey(pDiagram.version(), 
+				UserPreferences.instance().getString(StringPreference.fontName), 
+				UserPreferences.instance().getInteger(IntegerPreference.fontSize));
+	}
+}
@@ -21,12 +21,20 @@
 
 package org.jetuml.rendering;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.jetuml.geom.GeomUtils;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.gui.ColorScheme;
 
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
 
 /**
  * A grid to which points and rectangles can be "snapped". The
@@ -36,30 +44,62 @@ public final class Grid
 {
 	private static final double GRID_SIZE = 10;
 	
+	/* One cell of the grid, rendered once for each way of drawing it. */
+	private static final Map<TileKey, ImagePattern> TILES = new HashMap<>();
+	
+	/*
+	 * Identifies a rendered cell: its colors, the width of its lines, and the 
+	 * scale at which the canvas is rendered on the screen.
+	 */
+	private record TileKey(ColorScheme scheme, double lineWidth, double scale) {}
+	
 	private Grid() {}
 	
 	/**
-     * Draws this grid inside a rectangle.
+     * Draws this grid inside a rectangle, with lines on the multiples of 
+     * the grid size. The grid is filled with a pattern of pre-rendered cells
+     * that only differ with the color scheme, the line width of pGraphics,
+     * and the output scale of the screen.
      * @param pGraphics the graphics context
      * @param pBounds the bounding rectangle
      */
 	public static void draw(GraphicsContext pGraphics, Rectangle pBounds)
 	{
+		TileKey key = new TileKey(ColorScheme.getScheme(), pGraphics.getLineWidth(), 
+				outputScale(pGraphics.getCanvas()));
 		pGraphics.save();
-		pGraphics.setStroke(ColorScheme.getScheme().getGridColor());
-		int x1 = pBounds.x();
-		int y1 = pBounds.y();
-		int x2 = pBounds.maxX();
-		int y2 = pBounds.maxY();
-		for(int x = x1; x < x2; x += GRID_SIZE)
-		{
-			ToolGraphics.strokeSharpLine(pGraphics, x, y1, x, y2);
-		}
-		for(int y = y1; y < y2; y += GRID_SIZE)
+		pGraphics.setFill(TILES.computeIfAbsent(key, Grid::createTile));
+		pGraphics.fillRect(pBounds.x(), pBounds.y(), pBounds.width(), pBounds.height());
+		pGraphics.restore();
+	}
+	
+	private static double outputScale(Canvas pCanvas)
+	{
+		Scene scene = pCanvas.getScene();
+		if( scene == null || scene.getWindow() == null )
 		{
-			ToolGraphics.strokeSharpLine(pGraphics, x1, y, x2, y);
+			return 1;
 		}
-		pGraphics.restore();
+		return scene.getWindow().getOutputScaleX();
+	}
+	
+	/*
+	 * Draws the lines at the top and left of a cell, extended beyond the cell so that 
+	 * they have no end, as they are when the whole grid is stroked. The cell is drawn 
+	 * with as many pixels as the screen uses for it.
+	 */
+	private static ImagePattern createTile(TileKey pKey)
+	{
+		Canvas canvas = new Canvas(GRID_SIZE * pKey.scale(), GRID_SIZE * pKey.scale());
+		GraphicsContext graphics = canvas.getGraphicsContext2D();
+		graphics.scale(pKey.scale(), pKey.scale());
+		graphics.setLineWidth(pKey.lineWidth());
+		graphics.setStroke(pKey.scheme().getGridColor());
+		ToolGraphics.strokeSharpLine(graphics, 0, -1, 0, (int) GRID_SIZE + 1);
+		ToolGraphics.strokeSharpLine(graphics, -1, 0, (int) GRID_SIZE + 1, 0);
+		SnapshotParameters parameters = new SnapshotParameters();
+		parameters.setFill(Color.TRANSPARENT);
+		return new ImagePattern(canvas.snapshot(parameters, null), 0, 0, GRID_SIZE, GRID_SIZE, false);
 	}
 
 	
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+
+/**
+ * Spatial indexes of the root nodes and edges of a diagram, used to find the 
+ * few elements that can contain a point without checking all the elements of 
+ * the diagram.
+ * 
+ * The index records the bounds of the elements when they are first looked up. 
+ * An index must be replaced whenever these bounds can change.
+ */
+final class HitTestIndex
+{
+	/* Elements can be found slightly outside of their bounds: edges are selected
+	 * within a few pixels of their path, and point nodes within a few pixels of
+	 * their position. */
+	private static final int MARGIN = 10;
+	
+	private final Diagram aDiagram;
+	private final Function<DiagramElement, Rectangle> aBounds;
+	private final Predicate<DiagramElement> aIndexable;
+	private SpatialIndex<Node> aRootNodes;
+	private SpatialIndex<Edge> aEdges;
+	
+	/**
+	 * Creates an index of the elements of pDiagram. The nodes and the edges 
+	 * are only indexed when first looked up, so that looking up nodes does 
+	 * not require computing the bounds of the edges.
+	 * 
+	 * @param pDiagram The diagram to index.
+	 * @param pBounds The bounds of each element.
+	 * @param pIndexable Whether a root node or edge is only found within its bounds, 
+	 *     and those of its children. Other elements are returned for every point.
+	 * @pre pDiagram != null && pBounds != null && pIndexable != null
+	 */
+	HitTestIndex(Diagram pDiagram, Function<DiagramElement, Rectangle> pBounds, Predicate<DiagramElement> pIndexable)
+	{
+		assert pDiagram != null && pBounds != null && pIndexable != null;
+		aDiagram = pDiagram;
+		aBounds = pBounds;
+		aIndexable = pIndexable;
+	}
+	
+	/**
+	 * @param pPoint The point to check.
+	 * @return The root nodes whose tree of nodes may contain pPoint, in diagram order.
+	 * @pre pPoint != null
+	 */
+	List<Node> rootNodesAt(Point pPoint)
+	{
+		if( aRootNodes == null )
+		{
+			aRootNodes = new SpatialIndex<>();
+			for( Node node : aDiagram.rootNodes() )
+			{
+				if( aIndexable.test(node) )
+				{
+					aRootNodes.add(node, grow(treeBounds(node)));
+				}
+				else
+				{
+					aRootNodes.addUnbounded(node);
+				}
+			}
+		}
+		return aRootNodes.elementsAt(pPoint);
+	}
+	
+	/**
+	 * @param pPoint The point to check.
+	 * @return The edges that may contain pPoint, in diagram order.
+	 * @pre pPoint != null
+	 */
+	List<Edge> edgesAt(Point pPoint)
+	{
+		if( aEdges == null )
+		{
+			aEdges = new SpatialIndex<>();
+			for( Edge edge : aDiagram.edges() )
+			{
+				if( aIndexable.test(edge) )
+				{
+					aEdges.add(edge, grow(aBounds.apply(edge)));
+				}
+				else
+				{
+					aEdges.addUnbounded(edge);
+				}
+			}
+		}
+		return aEdges.elementsAt(pPoint);
+	}
+	
+	private Rectangle treeBounds(Node pNode)
+	{
+		Rectangle bounds = aBounds.apply(pNode);
+		for( Node child : pNode.getChildren() )
+		{
+			bounds = bounds.add(treeBounds(child));
+		}
+		return bounds;
+	}
+	
+	private static Rectangle grow(Rectangle pBounds)
+	{
+		return new Rectangle(pBounds.x() - MARGIN, pBounds.y() - MARGIN, 
+				pBounds.width() + 2 * MARGIN, pBounds.height() + 2 * MARGIN);
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A map of bounded size that evicts the least recently used entry when it 
+ * is full. The cache counts the number of lookups that found a value (hits) 
+ * and the number of lookups that had to compute it (misses).
+ * 
+ * @param <K> The type of the keys.
+ * @param <V> The type of the cached values.
+ */
+final class LruCache<K, V>
+{
+	private final Map<K, V> aEntries;
+	private long aHits = 0;
+	private long aMisses = 0;
+	
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param pCapacity The maximum number of entries in the cache.
+	 * @pre pCapacity > 0
+	 */
+	LruCache(int pCapacity)
+	{
+		assert pCapacity > 0;
+		aEntries = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> pEldest)
+			{
+				return size() > pCapacity;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the value cached for pKey, computing and caching it 
+	 * with pCompute if it is not in the cache.
+	 * 
+	 * @param pKey The key of the value.
+	 * @param pCompute The function that computes the value of a key.
+	 * @return The value for pKey.
+	 * @pre pKey != null && pCompute != null
+	 */
+	V get(K pKey, Function<? super K, ? extends V> pCompute)
+	{
+		assert pKey != null && pCompute != null;
+		V value = aEntries.get(pKey);
+		if( value != null )
+		{
+			aHits++;
+			return value;
+		}
+		aMisses++;
+		value = pCompute.apply(pKey);
+		aEntries.put(pKey, value);
+		return value;
+	}
+	
+	/**
+	 * Removes all the entries from the cache. The counters are not reset.
+	 */
+	void clear()
+	{
+		aEntries.clear();
+	}
+	
+	/**
+	 * @return The number of entries in the cache.
+	 */
+	int size()
+	{
+		return aEntries.size();
+	}
+	
+	/**
+	 * @return The number of lookups that found their value in the cache.
+	 */
+	long hits()
+	{
+		return aHits;
+	}
+	
+	/**
+	 * @return The number of lookups that had to compute their value.
+	 */
+	long misses()
+	{
+		return aMisses;
+	}
+}
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.jetuml.diagram.Diagram;
@@ -87,6 +88,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 
 	private final Map<Node, Integer> aCallNodeTopCoordinate = new IdentityHashMap<>();
 	private final Map<Node, Integer> aCallNodeBottomCoordinate = new IdentityHashMap<>();
+	private GeometryKey aLayoutKey;
 	
 	/**
 	 * @param pDiagram The diagram being rendered.
@@ -102,18 +104,38 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	}
 	
 	@Override
-	public void draw(GraphicsContext pGraphics)
+	protected void drawElements(GraphicsContext pGraphics, Predicate<DiagramElement> pIsVisible)
 	{
 		layout();
-		super.draw(pGraphics); 
+		super.drawElements(pGraphics, pIsVisible); 
 	}
 	
 	/*
-	 * Computes the position of the nodes in the sequence diagram, except the note nodes.
+	 * The positions of the call nodes do not influence the path of any edge 
+	 * that is not attached to them.
+	 */
+	@Override
+	public Optional<Rectangle> updateGeometry()
+	{
+		layout();
+		return Optional.empty();
+	}
+	
+	/*
+	 * Computes the position of the nodes in the sequence diagram, except the note nodes, 
+	 * unless the diagram and the font have not changed since the last layout.
 	 */
 	private void layout()
 	{
+		GeometryKey key = geometryKey();
+		if( key.equals(aLayoutKey) )
+		{
+			return;
+		}
 		computeYPositions();
+		clearNodeStorages();
+		discardHitTestIndex();
+		aLayoutKey = key;
 	}
 	
 	/**
@@ -162,9 +184,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	public Optional<CallNode> getCaller(Node pNode)
 	{
 		assert pNode != null && diagram().contains(pNode);
-		return diagram().edges().stream()
-			.filter(CallEdge.class::isInstance)
-			.filter(edge -> edge.end() == pNode)
+		return diagram().edgesTo(pNode, CallEdge.class).stream()
 			.map(Edge::start)
 			.map(CallNode.class::cast)
 			.findFirst();
@@ -282,9 +302,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	private Optional<Edge> getIncomingCall(Node pNode)
 	{
 		assert pNode.getClass() == CallNode.class;
-		return diagram().edges().stream()
-			.filter(edge -> edge.end() == pNode)
-			.findFirst();
+		return diagram().edgesTo(pNode, Edge.class).stream().findFirst();
 	}
 	
 	/**
@@ -294,11 +312,9 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	public int getLifelineTop(ImplicitParameterNode pNode)
 	{
 		// 20 if it's a normal call, 5 if a constructor call
-		Optional<Node> topNode = diagram().allNodes().stream()
+		Optional<Node> topNode = pNode.getChildren().stream()
 			.filter(CallNode.class::isInstance)
-			.filter(node -> node.getParent() == pNode)
-			.sorted(Comparator.comparing(aCallNodeTopCoordinate::get))
-			.findFirst();
+			.min(Comparator.comparing(aCallNodeTopCoordinate::get));
 		if(topNode.isEmpty() || !isConstructorCall(topNode.get()))
 		{
 			return INITIAL_Y_POSITION - DROP_MIN;
@@ -367,13 +383,21 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	private List<Node> getCallees(Node pNode)
 	{
 		assert pNode != null && diagram().contains(pNode);
-		return diagram().edges().stream()
-				.filter(CallEdge.class::isInstance)
-				.filter(edge -> edge.start() == pNode)
+		return diagram().edgesFrom(pNode, CallEdge.class).stream()
 				.map(Edge::end)
 				.collect(toList());
 	}
 	
+	/*
+	 * Implicit parameter nodes contain all the points below their top rectangle, and 
+	 * the nodes found through them include the callees of their call nodes.
+	 */
+	@Override
+	protected boolean isIndexable(DiagramElement pElement)
+	{
+		return pElement.getClass() != ImplicitParameterNode.class;
+	}
+	
 	/*
 	 * This specialized version supports selecting implicit parameter nodes only by 
 	 * selecting their top rectangle.
@@ -477,10 +501,8 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	private List<CallEdge> getCalls(Node pCaller)
 	{
 		assert pCaller != null;
-		return diagram().edges().stream()
-				.filter(CallEdge.class::isInstance)
+		return diagram().edgesFrom(pCaller, CallEdge.class).stream()
 				.map(CallEdge.class::cast)
-				.filter(edge -> edge.start() == pCaller)
 				.collect(toList());
 	}
 }
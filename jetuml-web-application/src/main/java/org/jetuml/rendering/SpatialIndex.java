@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+
+/**
+ * A uniform grid of square cells that maps each cell to the elements whose 
+ * bounds overlap it. Looking up the elements at a point only requires visiting 
+ * the elements of a single cell instead of all the elements.
+ * 
+ * Elements are returned in the order in which they were added. Elements that 
+ * can be found anywhere are added without bounds and returned for every point.
+ * 
+ * @param <T> The type of the indexed elements.
+ */
+final class SpatialIndex<T>
+{
+	private static final int CELL_SIZE = 100;
+	
+	private final List<T> aElements = new ArrayList<>();
+	private final List<Rectangle> aBounds = new ArrayList<>();
+	private final Map<Long, List<Integer>> aCells = new HashMap<>();
+	private final List<Integer> aUnbounded = new ArrayList<>();
+	
+	/**
+	 * Adds pElement to the index.
+	 * 
+	 * @param pElement The element to add.
+	 * @param pBounds The area outside of which pElement is never found.
+	 * @pre pElement != null && pBounds != null
+	 */
+	void add(T pElement, Rectangle pBounds)
+	{
+		assert pElement != null && pBounds != null;
+		int index = aElements.size();
+		aElements.add(pElement);
+		aBounds.add(pBounds);
+		for( int column = cellOf(pBounds.x()); column <= cellOf(pBounds.maxX()); column++ )
+		{
+			for( int row = cellOf(pBounds.y()); row <= cellOf(pBounds.maxY()); row++ )
+			{
+				aCells.computeIfAbsent(key(column, row), key -> new ArrayList<>()).add(index);
+			}
+		}
+	}
+	
+	/**
+	 * Adds pElement to the index, to be returned for every point.
+	 * 
+	 * @param pElement The element to add.
+	 * @pre pElement != null
+	 */
+	void addUnbounded(T pElement)
+	{
+		assert pElement != null;
+		aUnbounded.add(aElements.size());
+		aElements.add(pElement);
+		aBounds.add(null);
+	}
+	
+	/**
+	 * @param pPoint The point to check.
+	 * @return The elements whose bounds contain pPoint and the unbounded elements, 
+	 *     in the order in which they were added.
+	 * @pre pPoint != null
+	 */
+	List<T> elementsAt(Point pPoint)
+	{
+		assert pPoint != null;
+		List<Integer> cell = aCells.getOrDefault(key(cellOf(pPoint.x()), cellOf(pPoint.y())), List.of());
+		List<T> result = new ArrayList<>();
+		int inCell = 0;
+		int unbounded = 0;
+		while( inCell < cell.size() || unbounded < aUnbounded.size() )
+		{
+			if( unbounded == aUnbounded.size() || 
+					inCell < cell.size() && cell.get(inCell) < aUnbounded.get(unbounded) )
+			{
+				int index = cell.get(inCell++);
+				if( aBounds.get(index).contains(pPoint) )
+				{
+					result.add(aElements.get(index));
+				}
+			}
+			else
+			{
+				result.add(aElements.get(aUnbounded.get(unbounded++)));
+			}
+		}
+		return result;
+	}
+	
+	private static int cellOf(int pCoordinate)
+	{
+		return Math.floorDiv(pCoordinate, CELL_SIZE);
+	}
+	
+	private static long key(int pColumn, int pRow)
+	{
+		return ((long) pColumn << Integer.SIZE) | (pRow & 0xFFFFFFFFL);
+	}
+}
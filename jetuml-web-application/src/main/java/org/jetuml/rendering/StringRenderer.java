@@ -55,6 +55,36 @@ public final class StringRenderer
 	private static final int DEFAULT_VERTICAL_TEXT_PADDING = 6;
 	
 	private static final Map<Alignment, Map<EnumSet<TextDecoration>, StringRenderer>> STORE = new HashMap<>();
+	private static final Map<FontKey, Font> FONTS = new HashMap<>();
+	
+	/*
+	 * The fonts and text metrics of the previous font preferences are 
+	 * discarded when the preferences change.
+	 */
+	static
+	{
+		UserPreferences.instance().addStringPreferenceChangeHandler(pPreference -> 
+		{
+			if( pPreference == StringPreference.fontName )
+			{
+				clearFontCaches();
+			}
+		});
+		UserPreferences.instance().addIntegerPreferenceChangeHandler(pPreference -> 
+		{
+			if( pPreference == IntegerPreference.fontSize )
+			{
+				clearFontCaches();
+			}
+		});
+	}
+	
+	/*
+	 * Identifies a resolved font. The font preferences are part of the key so that 
+	 * a cached font is never used once the preferences change, whatever the order 
+	 * in which the handlers of the change are notified.
+	 */
+	private record FontKey(String name, int size, boolean bold, boolean italic) {}
 	
 	/**
 	 * How to align the text in this string.
@@ -283,22 +313,31 @@ public final class StringRenderer
 	
 	private Font getFont()
 	{
-		if( aBold && aItalic )
+		return FONTS.computeIfAbsent(new FontKey(UserPreferences.instance().getString(StringPreference.fontName), 
+				UserPreferences.instance().getInteger(IntegerPreference.fontSize), aBold, aItalic), 
+				StringRenderer::createFont);
+	}
+	
+	private static Font createFont(FontKey pKey)
+	{
+		if( pKey.bold() && pKey.italic() )
 		{
-			return Font.font(UserPreferences.instance().getString(StringPreference.fontName), 
-					FontWeight.BOLD, FontPosture.ITALIC, UserPreferences.instance().getInteger(IntegerPreference.fontSize));
+			return Font.font(pKey.name(), FontWeight.BOLD, FontPosture.ITALIC, pKey.size());
 		}
-		else if( aBold )
+		else if( pKey.bold() )
 		{
-			return Font.font(UserPreferences.instance().getString(StringPreference.fontName), 
-					FontWeight.BOLD, UserPreferences.instance().getInteger(IntegerPreference.fontSize));
+			return Font.font(pKey.name(), FontWeight.BOLD, pKey.size());
 		}
-		else if( aItalic )
+		else if( pKey.italic() )
 		{
-			return Font.font(UserPreferences.instance().getString(StringPreference.fontName), 
-					FontPosture.ITALIC, UserPreferences.instance().getInteger(IntegerPreference.fontSize));
+			return Font.font(pKey.name(), FontPosture.ITALIC, pKey.size());
 		}
-		return Font.font(UserPreferences.instance().getString(StringPreference.fontName), 
-				UserPreferences.instance().getInteger(IntegerPreference.fontSize));
+		return Font.font(pKey.name(), pKey.size());
+	}
+	
+	private static void clearFontCaches()
+	{
+		FONTS.clear();
+		FontMetrics.clearCache();
 	}
 }
@@ -93,6 +93,46 @@ public final class ToolGraphics
 		drawHandle(pGraphics, pBounds.x2(), pBounds.y2());
 	}
 	
+	/**
+	 * @param pBounds The bounds of an element.
+	 * @return The area covered by pBounds together with the handles drawn
+	 *     around it by drawHandles.
+	 * @pre pBounds != null
+	 */
+	public static Rectangle getHandleBounds(Rectangle pBounds)
+	{
+		assert pBounds != null;
+		return grow(pBounds, HANDLE_SIZE / 2 + 1);
+	}
+	
+	/**
+	 * @param pLine The line that represents the rubberband.
+	 * @return The area covered by the rubberband drawn by drawRubberband.
+	 * @pre pLine != null
+	 */
+	public static Rectangle getRubberbandBounds(Line pLine)
+	{
+		assert pLine != null;
+		return grow(pLine.spanning(), 1);
+	}
+	
+	/**
+	 * @param pRectangle The rectangle that defines the lasso.
+	 * @return The area covered by the lasso drawn by drawLasso.
+	 * @pre pRectangle != null
+	 */
+	public static Rectangle getLassoBounds(Rectangle pRectangle)
+	{
+		assert pRectangle != null;
+		return grow(pRectangle, 1);
+	}
+	
+	private static Rectangle grow(Rectangle pRectangle, int pMargin)
+	{
+		return new Rectangle(pRectangle.x() - pMargin, pRectangle.y() - pMargin, 
+				pRectangle.width() + 2 * pMargin, pRectangle.height() + 2 * pMargin);
+	}
+	
 	/**
 	 * Draws a "rubberband" line on pGraphics. A rubberband line is a straight line
 	 * in the color of the selection tools.
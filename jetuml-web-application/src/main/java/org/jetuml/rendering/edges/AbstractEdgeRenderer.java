@@ -20,10 +20,17 @@
  *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.Edge;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Direction;
+import org.jetuml.geom.EdgeShape;
+import org.jetuml.geom.EdgeShape.Segment;
 import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
@@ -32,11 +39,11 @@ import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.ToolGraphics;
 import org.jetuml.rendering.StringRenderer.Alignment;
 
-import javafx.geometry.Bounds;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
+import javafx.scene.shape.QuadCurveTo;
 import javafx.scene.shape.Shape;
 
 /**
@@ -52,7 +59,17 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 	
 	private static final int DEGREES_180 = 180;
 	
+	/* The number of stored shapes above which the shapes of the edges that are 
+	 * no longer in the diagram are discarded. */
+	private static final int MIN_SHAPES_TO_PRUNE = 64;
+	
 	private final DiagramRenderer aParent;
+	private final Map<Edge, StoredShape> aShapes = new IdentityHashMap<>();
+	
+	/*
+	 * The shape of an edge, along with the key that identifies everything it was computed from.
+	 */
+	private record StoredShape(Object key, EdgeShape shape) {}
 	
 	protected AbstractEdgeRenderer(DiagramRenderer pParent)
 	{
@@ -73,13 +90,86 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 	 * @return The shape. 
 	 * @pre pEdge != null
 	 */
-	protected Shape getShape(Edge pEdge)
+	protected EdgeShape createEdgeShape(Edge pEdge)
 	{
 		assert pEdge != null;
 		Line endPoints = getConnectionPoints(pEdge);
+		return EdgeShape.polyline(endPoints.point1(), endPoints.point2());
+	}
+	
+	/**
+	 * Returns a key that identifies everything the shape of pEdge depends on. 
+	 * By default, the shape depends on the bounds of the start and end nodes.
+	 * The key must implement equals.
+	 * 
+	 * @param pEdge The edge whose shape is identified.
+	 * @return The key of the shape of pEdge.
+	 * @pre pEdge != null
+	 */
+	protected Object getShapeKey(Edge pEdge)
+	{
+		assert pEdge != null;
+		return List.of(parent().getBounds(pEdge.start()), parent().getBounds(pEdge.end()));
+	}
+	
+	/**
+	 * Returns the shape of pEdge. The shape is stored and reused until 
+	 * the key of the shape changes, for example when an end node moves.
+	 * 
+	 * @param pEdge The edge whose shape we want
+	 * @return The shape. 
+	 * @pre pEdge != null
+	 */
+	protected final EdgeShape getEdgeShape(Edge pEdge)
+	{
+		assert pEdge != null;
+		Object key = getShapeKey(pEdge);
+		StoredShape stored = aShapes.get(pEdge);
+		if( stored == null || !Objects.equals(stored.key(), key) )
+		{
+			if( stored == null && aShapes.size() >= Math.max(MIN_SHAPES_TO_PRUNE, 2 * aParent.diagram().edges().size()) )
+			{
+				aShapes.keySet().removeIf(edge -> !aParent.diagram().contains(edge));
+			}
+			stored = new StoredShape(key, createEdgeShape(pEdge));
+			aShapes.put(pEdge, stored);
+		}
+		return stored.shape();
+	}
+	
+	/**
+	 * @param pEdge The edge to draw.
+	 * @return The JavaFX path that draws the shape of pEdge.
+	 * @pre pEdge != null
+	 */
+	protected Shape getShape(Edge pEdge)
+	{
+		assert pEdge != null;
+		return toPath(getEdgeShape(pEdge));
+	}
+	
+	/**
+	 * @param pShape A shape.
+	 * @return A JavaFX path with the same points as pShape.
+	 * @pre pShape != null
+	 */
+	protected static Path toPath(EdgeShape pShape)
+	{
+		assert pShape != null;
 		Path path = new Path();
-		path.getElements().addAll(new MoveTo(endPoints.x1(), endPoints.y1()), 
-				new LineTo(endPoints.x2(), endPoints.y2()));
+		path.getElements().add(new MoveTo(pShape.start().x(), pShape.start().y()));
+		for( Segment segment : pShape.segments() )
+		{
+			if( segment.control().isPresent() )
+			{
+				path.getElements().add(new QuadCurveTo(segment.control().get().x(), segment.control().get().y(), 
+						segment.end().x(), segment.end().y()));
+			}
+			else
+			{
+				path.getElements().add(new LineTo(segment.end().x(), segment.end().y()));
+			}
+		}
 		return path;
 	}
 	
@@ -103,16 +193,13 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 			return false;
 		}
 
-		Shape fatPath = getShape(edge);
-		fatPath.setStrokeWidth(2 * MAX_DISTANCE);
-		return fatPath.contains(pPoint.x(), pPoint.y());
+		return getEdgeShape(edge).isNear(pPoint, MAX_DISTANCE);
 	}
 	
 	@Override
 	public Rectangle getBounds(DiagramElement pElement)
 	{
-		Bounds bounds = getShape((Edge)pElement).getBoundsInLocal();
-		return new Rectangle((int)bounds.getMinX(), (int)bounds.getMinY(), (int)bounds.getWidth(), (int)bounds.getHeight());
+		return getEdgeShape((Edge)pElement).getBounds();
 	}
 	
 	/*
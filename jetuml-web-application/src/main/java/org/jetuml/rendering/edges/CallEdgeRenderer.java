@@ -21,6 +21,7 @@
 package org.jetuml.rendering.edges;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
@@ -31,6 +32,7 @@ import org.jetuml.diagram.edges.ConstructorEdge;
 import org.jetuml.diagram.nodes.CallNode;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Direction;
+import org.jetuml.geom.EdgeShape;
 import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
@@ -47,7 +49,6 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
-import javafx.scene.shape.Shape;
 
 /**
  * A viewer to show call edges in a sequence diagrams. These are labeled
@@ -70,20 +71,24 @@ public final class CallEdgeRenderer extends AbstractEdgeRenderer
 	}
 	
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected EdgeShape createEdgeShape(Edge pEdge)
 	{
 		Point[] points = getPoints(pEdge);
-		Path path = new Path();
-		Point point = points[points.length - 1];
-		MoveTo moveTo = new MoveTo(point.x(), point.y());
-		path.getElements().add(moveTo);
-		for(int i = points.length - 2; i >= 0; i--)
+		Point[] reversed = new Point[points.length];
+		for(int i = 0; i < points.length; i++)
 		{
-			point = points[i];
-			LineTo lineTo = new LineTo(point.x(), point.y());
-			path.getElements().add(lineTo);
+			reversed[i] = points[points.length - 1 - i];
 		}
-		return path;
+		return EdgeShape.polyline(reversed);
+	}
+	
+	/*
+	 * The shape of a constructor call depends on the object created rather than on its call node.
+	 */
+	@Override
+	protected Object getShapeKey(Edge pEdge)
+	{
+		return List.of(parent().getBounds(pEdge.start()), parent().getBounds(getEndNode(pEdge)));
 	}
 	
 	@Override
@@ -169,14 +174,19 @@ public final class CallEdgeRenderer extends AbstractEdgeRenderer
 	}
 	
 	/* Gets the points on a segmented path */ 
-	private Point[] getPoints(Edge pEdge)
+	private static Node getEndNode(Edge pEdge)
 	{
-		ArrayList<Point> points = new ArrayList<>();
-		Node endNode = pEdge.end();
 		if( pEdge.getClass() == ConstructorEdge.class )
 		{
-			endNode = pEdge.end().getParent();
+			return pEdge.end().getParent();
 		}
+		return pEdge.end();
+	}
+	
+	private Point[] getPoints(Edge pEdge)
+	{
+		ArrayList<Point> points = new ArrayList<>();
+		Node endNode = getEndNode(pEdge);
 		Rectangle start = parent().getBounds(pEdge.start());	
 		Rectangle end = parent().getBounds(endNode);
 		if( ((CallEdge)pEdge).isSelfEdge() )
@@ -21,10 +21,11 @@
 package org.jetuml.rendering.edges;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
@@ -33,10 +34,18 @@ import org.jetuml.rendering.EdgePath;
 
 /**
  * Stores the EdgePaths of Edges for class diagrams.
+ * 
+ * In addition to the paths themselves, the storage indexes the stored edges 
+ * by attached node and the stored paths by end point, so that the queries
+ * used during layout do not need to scan the entire storage. The edges connected
+ * to a node are always reported in the order in which they were first stored.
+ * Edges are compared by identity, since diagram elements do not redefine equality.
  */
 public class EdgeStorage
 {
-	private Map<Edge, EdgePath> aEdgePaths = new IdentityHashMap<>();
+	private final Map<Edge, EdgePath> aEdgePaths = new LinkedHashMap<>();
+	private final Map<Node, List<Edge>> aEdgesByNode = new IdentityHashMap<>();
+	private final Map<Point, Integer> aConnectionPoints = new HashMap<>();
  	
  	/**
  	 * Adds pEdge and pEdgePath into storage.
@@ -48,9 +57,70 @@ public class EdgeStorage
  	public void store(Edge pEdge, EdgePath pEdgePath)
  	{
  		assert pEdge!=null && pEdgePath!=null;
- 		aEdgePaths.put(pEdge, pEdgePath);
+ 		EdgePath previous = aEdgePaths.put(pEdge, pEdgePath);
+ 		if( previous == null )
+ 		{
+ 			index(pEdge, pEdge.start());
+ 			if( pEdge.end() != pEdge.start() )
+ 			{
+ 				index(pEdge, pEdge.end());
+ 			}
+ 		}
+ 		else
+ 		{
+ 			releaseConnectionPoints(previous);
+ 		}
+ 		occupyConnectionPoints(pEdgePath);
+ 	}
+ 	
+ 	/**
+ 	 * Removes pEdge and its EdgePath from storage, if present.
+ 	 * @param pEdge the edge to remove
+ 	 * @pre pEdge != null
+ 	 */
+ 	public void remove(Edge pEdge)
+ 	{
+ 		assert pEdge != null;
+ 		EdgePath previous = aEdgePaths.remove(pEdge);
+ 		if( previous == null )
+ 		{
+ 			return;
+ 		}
+ 		releaseConnectionPoints(previous);
+ 		unindex(pEdge, pEdge.start());
+ 		unindex(pEdge, pEdge.end());
+ 	}
+ 	
+ 	private void index(Edge pEdge, Node pNode)
+ 	{
+ 		aEdgesByNode.computeIfAbsent(pNode, key -> new ArrayList<>()).add(pEdge);
+ 	}
+ 	
+ 	private void unindex(Edge pEdge, Node pNode)
+ 	{
+ 		List<Edge> edges = aEdgesByNode.get(pNode);
+ 		if( edges == null )
+ 		{
+ 			return;
+ 		}
+ 		edges.removeIf(edge -> edge == pEdge);
+ 		if( edges.isEmpty() )
+ 		{
+ 			aEdgesByNode.remove(pNode);
+ 		}
+ 	}
+ 	
+ 	private void occupyConnectionPoints(EdgePath pEdgePath)
+ 	{
+ 		aConnectionPoints.merge(pEdgePath.getStartPoint(), 1, Integer::sum);
+ 		aConnectionPoints.merge(pEdgePath.getEndPoint(), 1, Integer::sum);
+ 	}
+ 	
+ 	private void releaseConnectionPoints(EdgePath pEdgePath)
+ 	{
+ 		aConnectionPoints.computeIfPresent(pEdgePath.getStartPoint(), (point, count) -> count == 1 ? null : count - 1);
+ 		aConnectionPoints.computeIfPresent(pEdgePath.getEndPoint(), (point, count) -> count == 1 ? null : count - 1);
  	}
- 
  	
  	/**
  	 * Returns whether storage is empty.  
@@ -91,21 +161,13 @@ public class EdgeStorage
  	/**
  	 * Returns a list of edges in storage which are connected to pNode.
 	 * @param pNode The node of interest
-	 * @return All the edges connected to pNode
+	 * @return All the edges connected to pNode, in the order in which they were stored
 	 * @pre pNode != null
 	 */
 	public List<Edge> edgesConnectedTo(Node pNode)
 	{
 		assert pNode != null;
-		List<Edge> result = new ArrayList<>();
-		for( Edge edge : aEdgePaths.keySet() )
-		{
-			if( edge.start() == pNode || edge.end() == pNode )
-			{
-				result.add(edge);
-			}
-		}
-		return result;
+		return new ArrayList<>(aEdgesByNode.getOrDefault(pNode, List.of()));
 	}
 	
 	/**
@@ -117,14 +179,7 @@ public class EdgeStorage
 	public boolean connectionPointIsAvailable(Point pConnectionPoint)
 	{
 		assert pConnectionPoint !=null;
-		for( EdgePath path : aEdgePaths.values() )
-		{
-			if(path.getStartPoint().equals(pConnectionPoint) || path.getEndPoint().equals(pConnectionPoint))
-			{
-				return false;
-			}
-		}
-		return true;
+		return !aConnectionPoints.containsKey(pConnectionPoint);
 	}
 	
 	/**
@@ -135,11 +190,26 @@ public class EdgeStorage
 	 */
 	public List<Edge> getEdgesWithSameNodes(Edge pEdge)
 	{
-		return aEdgePaths.keySet().stream()
-				.filter(edge -> edge.start() == pEdge.start() || edge.start() == pEdge.end())
-				.filter(edge -> edge.end() == pEdge.start() || edge.end() == pEdge.end())
-				.filter(edge -> !edge.equals(pEdge))
-				.collect(Collectors.toList());
+		List<Edge> result = new ArrayList<>();
+		collectEdgesWithSameNodes(pEdge, pEdge.start(), result);
+		if( pEdge.end() != pEdge.start() )
+		{
+			collectEdgesWithSameNodes(pEdge, pEdge.end(), result);
+		}
+		return result;
+	}
+	
+	private void collectEdgesWithSameNodes(Edge pEdge, Node pNode, List<Edge> pResult)
+	{
+		for( Edge edge : aEdgesByNode.getOrDefault(pNode, List.of()) )
+		{
+			if( (edge.start() == pEdge.start() || edge.start() == pEdge.end()) &&
+					(edge.end() == pEdge.start() || edge.end() == pEdge.end()) && 
+					edge != pEdge && !pResult.contains(edge) )
+			{
+				pResult.add(edge);
+			}
+		}
 	}
 	
 	/**
@@ -148,5 +218,7 @@ public class EdgeStorage
 	public void clearStorage()
 	{
 		aEdgePaths.clear();
+		aEdgesByNode.clear();
+		aConnectionPoints.clear();
 	}
 }
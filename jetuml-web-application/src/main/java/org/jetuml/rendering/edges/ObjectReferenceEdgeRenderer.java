@@ -20,10 +20,14 @@
  *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import java.util.List;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
 import org.jetuml.geom.Direction;
+import org.jetuml.geom.EdgeShape;
+import org.jetuml.geom.EdgeShape.Segment;
 import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
@@ -34,11 +38,7 @@ import org.jetuml.rendering.ToolGraphics;
 
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
-import javafx.scene.shape.QuadCurveTo;
-import javafx.scene.shape.Shape;
 
 /**
  * A viewer for an S- or C-shaped edge with an arrowhead.
@@ -56,7 +56,7 @@ public final class ObjectReferenceEdgeRenderer extends AbstractEdgeRenderer
 	}
 	
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected EdgeShape createEdgeShape(Edge pEdge)
 	{
 		if(isSShaped(pEdge))
 		{
@@ -68,7 +68,7 @@ public final class ObjectReferenceEdgeRenderer extends AbstractEdgeRenderer
 		}			
 	}
 	
-	private static Path getSShape(Line pConnectionPoints)
+	private static EdgeShape getSShape(Line pConnectionPoints)
 	{
 		final int x1 = pConnectionPoints.x1() + ENDSIZE;
 		final int y1 = pConnectionPoints.y1();
@@ -77,18 +77,14 @@ public final class ObjectReferenceEdgeRenderer extends AbstractEdgeRenderer
 		final int xmid = (pConnectionPoints.x1() + pConnectionPoints.x2()) / 2;
 		final int ymid = (pConnectionPoints.y1() + pConnectionPoints.y2()) / 2;
      
-		MoveTo moveTo = new MoveTo(pConnectionPoints.x1(), y1);
-		LineTo lineTo1 = new LineTo(x1, y1);
-		QuadCurveTo quadTo1 = new QuadCurveTo((x1 + xmid) / 2, y1, xmid, ymid);
-		QuadCurveTo quadTo2 = new QuadCurveTo((x2 + xmid) / 2, y2, x2, y2);
-		LineTo lineTo2 = new LineTo(pConnectionPoints.x2(), y2);
-		
-		Path path = new Path();
-		path.getElements().addAll(moveTo, lineTo1, quadTo1, quadTo2, lineTo2);
-		return path;
+		return new EdgeShape(new Point(pConnectionPoints.x1(), y1), List.of(
+				Segment.lineTo(new Point(x1, y1)),
+				Segment.curveTo(new Point((x1 + xmid) / 2, y1), new Point(xmid, ymid)),
+				Segment.curveTo(new Point((x2 + xmid) / 2, y2), new Point(x2, y2)),
+				Segment.lineTo(new Point(pConnectionPoints.x2(), y2))));
 	}
 	
-	private static Path getCShape(Line pConnectionPoints)
+	private static EdgeShape getCShape(Line pConnectionPoints)
 	{
 		final int x1 = Math.max(pConnectionPoints.x1(), pConnectionPoints.x2()) + ENDSIZE;
 		final int y1 = pConnectionPoints.y1();
@@ -96,15 +92,11 @@ public final class ObjectReferenceEdgeRenderer extends AbstractEdgeRenderer
 		final int y2 = pConnectionPoints.y2();
 		final int ymid = (pConnectionPoints.y1() + pConnectionPoints.y2()) / 2;
 		
-		MoveTo moveTo = new MoveTo(pConnectionPoints.x1(), y1);
-		LineTo lineTo1 = new LineTo(x1, y1);
-		QuadCurveTo quadTo1 = new QuadCurveTo(x2, y1, x2, ymid);
-		QuadCurveTo quadTo2 = new QuadCurveTo(x2, y2, x1, y2);
-		LineTo lineTo2 = new LineTo(pConnectionPoints.x2(), y2);
-		
-		Path path = new Path();
-		path.getElements().addAll(moveTo, lineTo1, quadTo1, quadTo2, lineTo2);
-		return path;
+		return new EdgeShape(new Point(pConnectionPoints.x1(), y1), List.of(
+				Segment.lineTo(new Point(x1, y1)),
+				Segment.curveTo(new Point(x2, y1), new Point(x2, ymid)),
+				Segment.curveTo(new Point(x2, y2), new Point(x1, y2)),
+				Segment.lineTo(new Point(pConnectionPoints.x2(), y2))));
 	}
 	
 	/**
@@ -159,7 +151,7 @@ public final class ObjectReferenceEdgeRenderer extends AbstractEdgeRenderer
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
 		GraphicsContext graphics = canvas.getGraphicsContext2D();
 		graphics.scale(0.6, 0.6);
-		Path path = getCShape(new Line(new Point(5, 5), new Point(15,25)));
+		Path path = toPath(getCShape(new Line(new Point(5, 5), new Point(15,25))));
 		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
 		ArrowHeadRenderer.draw(graphics, ArrowHead.BLACK_TRIANGLE, new Point(20,25), new Point(15, 25));
 		return canvas;
@@ -20,12 +20,16 @@
  *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import java.util.List;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.edges.StateTransitionEdge;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Direction;
+import org.jetuml.geom.EdgeShape;
+import org.jetuml.geom.EdgeShape.Segment;
 import org.jetuml.geom.GeomUtils;
 import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
@@ -38,6 +42,7 @@ import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
 import org.jetuml.rendering.ToolGraphics;
 
+import javafx.geometry.Bounds;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.Arc;
@@ -267,10 +272,33 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 		}
 		else
 		{
-			return getNormalEdgeShape(pEdge);
+			return super.getShape(pEdge);
 		}
 	}
 	
+	/*
+	 * Self-edges are arcs, whose shape is not stored. 
+	 */
+	@Override
+	protected EdgeShape createEdgeShape(Edge pEdge)
+	{
+		if( isSelfEdge(pEdge) )
+		{
+			return super.createEdgeShape(pEdge);
+		}
+		Line line = getConnectionPoints(pEdge);
+		return new EdgeShape(line.point1(), List.of(Segment.curveTo(getControlPoint(pEdge), line.point2())));
+	}
+	
+	/*
+	 * The curve also depends on the position of the edge among the edges between the same nodes.
+	 */
+	@Override
+	protected Object getShapeKey(Edge pEdge)
+	{
+		return List.of(super.getShapeKey(pEdge), getPosition(pEdge));
+	}
+	
 	private static boolean isSelfEdge(Edge pEdge)
 	{
 		return pEdge.start() == pEdge.end();
@@ -302,14 +330,14 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 	@Override
 	public boolean contains(DiagramElement pElement, Point pPoint)
 	{
-		boolean result = super.contains(pElement, pPoint);
-		if(getShape((Edge)pElement) instanceof Arc arc)
+		if( isSelfEdge((Edge)pElement) )
 		{
+			Arc arc = (Arc) getSelfEdgeShape((Edge)pElement);
 			arc.setRadiusX(arc.getRadiusX() + 2 * MAX_DISTANCE);
 			arc.setRadiusY(arc.getRadiusY() + 2 * MAX_DISTANCE);
-			result = arc.contains(pPoint.x(), pPoint.y());
+			return arc.contains(pPoint.x(), pPoint.y());
 		}
-		return result;
+		return super.contains(pElement, pPoint);
 	}
 	
 	/** 
@@ -359,18 +387,6 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 		}
 	}
 	
-	private Shape getNormalEdgeShape(Edge pEdge)
-	{
-		Line line = getConnectionPoints(pEdge);
-		Path path = new Path();
-		MoveTo moveTo = new MoveTo(line.point1().x(), line.point1().y());
-		QuadCurveTo curveTo = new QuadCurveTo(getControlPoint(pEdge).x(), getControlPoint(pEdge).y(), 
-				line.point2().x(), line.point2().y());
-		path.getElements().addAll(moveTo, curveTo);
-		return path;
-	}
-	
-	
 	/**
      * Gets the control point for the quadratic spline.
      * @return the control point
@@ -392,7 +408,18 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 	@Override
 	public Rectangle getBounds(DiagramElement pElement)
 	{
-		return super.getBounds(pElement).add(getLabelBounds((StateTransitionEdge)pElement));
+		Rectangle bounds;
+		if( isSelfEdge((Edge)pElement) )
+		{
+			Bounds arcBounds = getSelfEdgeShape((Edge)pElement).getBoundsInLocal();
+			bounds = new Rectangle((int)arcBounds.getMinX(), (int)arcBounds.getMinY(), 
+					(int)arcBounds.getWidth(), (int)arcBounds.getHeight());
+		}
+		else
+		{
+			bounds = super.getBounds(pElement);
+		}
+		return bounds.add(getLabelBounds((StateTransitionEdge)pElement));
 	}
 	
 	@Override
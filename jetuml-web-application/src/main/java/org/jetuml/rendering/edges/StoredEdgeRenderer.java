@@ -22,6 +22,8 @@ package org.jetuml.rendering.edges;
 
 import static org.jetuml.rendering.EdgePriority.priorityOf;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.jetuml.diagram.DiagramElement;
@@ -36,6 +38,7 @@ import org.jetuml.diagram.edges.GeneralizationEdge;
 import org.jetuml.diagram.edges.SingleLabelEdge;
 import org.jetuml.diagram.edges.ThreeLabelEdge;
 import org.jetuml.geom.Dimension;
+import org.jetuml.geom.EdgeShape;
 import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
@@ -54,7 +57,6 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
-import javafx.scene.shape.Shape;
 
 /**
  * Renders the path of stored class diagram edges using EdgeStorage.
@@ -171,18 +173,22 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 	 * @return a Path representing the path of pEdge
 	 * @pre pEdge!=null;
 	 */
-	private Path getSegmentPath(Edge pEdge) 
+	@Override
+	protected EdgeShape createEdgeShape(Edge pEdge) 
 	{
 		assert pEdge != null;
-		Path shape = new Path();
-		EdgePath path = getStoredEdgePath(pEdge);
-		shape.getElements().add(new MoveTo(path.getStartPoint().x(), path.getStartPoint().y()));
-		for(int i = 1; i < path.size(); i++)
-		{
-			Point point = path.getPointByIndex(i);
-			shape.getElements().add(new LineTo(point.x(), point.y()));
-		}
-		return shape;
+		List<Point> points = new ArrayList<>();
+		getStoredEdgePath(pEdge).forEach(points::add);
+		return EdgeShape.polyline(points.toArray(new Point[points.size()]));
+	}
+	
+	/*
+	 * The shape only depends on the stored path, which can change when other edges are laid out.
+	 */
+	@Override
+	protected Object getShapeKey(Edge pEdge)
+	{
+		return getStoredEdgePath(pEdge);
 	}
 
 	/**
@@ -401,20 +407,13 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 		return bounds;
 	}
 
-	@Override
-	protected Shape getShape(Edge pEdge) 
-	{
-		assert pEdge != null;
-		return getSegmentPath(pEdge);
-	}
-
 	@Override
 	public void draw(DiagramElement pElement, GraphicsContext pGraphics) 
 	{
 		assert pElement !=null && pGraphics != null;
 		Edge edge = (Edge) pElement;
 		EdgePath path = getStoredEdgePath(edge);
-		ToolGraphics.strokeSharpPath(pGraphics, getSegmentPath(edge), getLineStyle(edge));
+		ToolGraphics.strokeSharpPath(pGraphics, (Path) getShape(edge), getLineStyle(edge));
 		ArrowHeadRenderer.draw(pGraphics, getArrowStart(edge), path.getPointByIndex(1), path.getStartPoint());
 		ArrowHeadRenderer.draw(pGraphics, getArrowEnd(edge), path.getPointByIndex(path.size()-2), path.getEndPoint());
 
@@ -489,9 +488,7 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 			{
 				return true;
 			}
-			Shape fatPath = getShape((Edge)pElement);
-			fatPath.setStrokeWidth(2 * MAX_DISTANCE);
-			return fatPath.contains(pPoint.x(), pPoint.y());
+			return getEdgeShape((Edge)pElement).isNear(pPoint, MAX_DISTANCE);
 		}
 	}
 
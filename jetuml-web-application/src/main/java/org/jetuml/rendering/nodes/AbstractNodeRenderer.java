@@ -29,6 +29,7 @@ import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.GeometryKey;
 import org.jetuml.rendering.Side;
 import org.jetuml.rendering.ToolGraphics;
 
@@ -44,12 +45,13 @@ public abstract class AbstractNodeRenderer implements NodeRenderer
 	public static final int BUTTON_SIZE = 25;
 	public static final int OFFSET = 3;
 	
-	private NodeStorage aNodeStorage = new NodeStorage();
+	private final NodeStorage aNodeStorage;
 	private final DiagramRenderer aParent;
 	
 	protected AbstractNodeRenderer(DiagramRenderer pParent)
 	{
 		aParent = pParent;
+		aNodeStorage = new NodeStorage(() -> GeometryKey.of(aParent.diagram()));
 	}
 	
 	protected DiagramRenderer parent()
@@ -112,15 +114,9 @@ public abstract class AbstractNodeRenderer implements NodeRenderer
 	}
 	
 	@Override
-	public final void activateNodeStorage()
+	public final void clearNodeStorage() 
 	{
-		aNodeStorage.activate();
-	}
-	
-	@Override
-	public final void deactivateAndClearNodeStorage() 
-	{
-		aNodeStorage.deactivateAndClear();
+		aNodeStorage.clear();
 	}
 	
 	/**
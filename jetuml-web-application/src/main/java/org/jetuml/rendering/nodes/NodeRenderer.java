@@ -47,14 +47,9 @@ public interface NodeRenderer extends DiagramElementRenderer
 	Point getConnectionPoint(Node pNode, Direction pDirection);
 	
 	/**
-	 * Activates the NodeStorage.
+	 * Clears the NodeStorage. 
 	 */
-	void activateNodeStorage();
-	
-	/**
-	 * Deactivates and clears the NodeStorage. 
-	 */
-	void deactivateAndClearNodeStorage();
+	void clearNodeStorage();
 	
 	/**
 	 * The face of a node corresponds to the line to which edges can attach.
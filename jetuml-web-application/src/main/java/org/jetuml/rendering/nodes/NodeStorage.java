@@ -20,59 +20,67 @@
  *******************************************************************************/
 package org.jetuml.rendering.nodes;
 
- import java.util.IdentityHashMap;
- import java.util.Map;
- import java.util.function.Function;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.jetuml.diagram.Node;
 import org.jetuml.geom.Rectangle;
 
- /**
-  * Stores the bounds of nodes. 
-  */
- public class NodeStorage 
- {
- 	private Map<Node, Rectangle> aNodeBounds = new IdentityHashMap<>();
- 	private boolean aIsActivated = false;
+/**
+ * Stores the bounds of nodes across calls. The bounds are stored along with 
+ * a key that identifies everything they depend on, and are all discarded 
+ * as soon as the current key differs from the stored one.
+ */
+public class NodeStorage 
+{
+	private final Map<Node, Rectangle> aNodeBounds = new IdentityHashMap<>();
+	private final Supplier<?> aKey;
+	private Object aStoredKey;
+	
+	/**
+	 * Creates an empty storage.
+	 * 
+	 * @param pKey Supplies the current key. Keys must implement equals.
+	 * @pre pKey != null
+	 */
+	public NodeStorage(Supplier<?> pKey)
+	{
+		assert pKey != null;
+		aKey = pKey;
+	}
 
- 	/**
- 	 * Returns the bounds of the current node either from the storage or from the calculator.
- 	 * @param pNode the node of interest.
- 	 * @param pBoundCalculator the bound calculator.
- 	 * @return the bounds of pNode. 
- 	 */
- 	public Rectangle getBounds(Node pNode, Function<Node, Rectangle> pBoundCalculator)
- 	{
- 		if(!aIsActivated)
- 		{
- 			return pBoundCalculator.apply(pNode);
- 		}
- 		else if(aIsActivated && aNodeBounds.containsKey(pNode))
- 		{
- 			return aNodeBounds.get(pNode);
- 		}
- 		else
- 		{
- 			Rectangle computedBounds = pBoundCalculator.apply(pNode);
- 			aNodeBounds.put(pNode, computedBounds);
- 			return computedBounds;
- 		}
- 	}
+	/**
+	 * Returns the bounds of the current node either from the storage or from the calculator.
+	 * @param pNode the node of interest.
+	 * @param pBoundCalculator the bound calculator.
+	 * @return the bounds of pNode. 
+	 */
+	public Rectangle getBounds(Node pNode, Function<Node, Rectangle> pBoundCalculator)
+	{
+		Object key = aKey.get();
+		if( !key.equals(aStoredKey) )
+		{
+			aNodeBounds.clear();
+			aStoredKey = key;
+		}
+		Rectangle bounds = aNodeBounds.get(pNode);
+		if( bounds == null )
+		{
+			// The calculator can store the bounds of other nodes, so computeIfAbsent cannot be used 
+			bounds = pBoundCalculator.apply(pNode);
+			aNodeBounds.put(pNode, bounds);
+		}
+		return bounds;
+	}
 
- 	/**
- 	 * Activates the NodeStorage.
- 	 */
- 	public void activate() 
- 	{
- 		aIsActivated = true;
- 	}
-
- 	/**
- 	 * Deactivates and clears the NodeStorage.
- 	 */
- 	public void deactivateAndClear() 
- 	{
- 		aIsActivated = false;
- 		aNodeBounds.clear();
- 	}
- }
\ No newline at end of file
+	/**
+	 * Discards all the stored bounds, for example when a layout 
+	 * changes the bounds without changing the key.
+	 */
+	public void clear() 
+	{
+		aNodeBounds.clear();
+	}
+}
@@ -214,6 +214,33 @@ public class TestClipboard
 		assertThat(getClipboardEdges(), isEmpty );
 	}
 	
+	@Test
+	void testCopyEdgeBetweenChildren()
+	{
+		PackageNode packageNode = new PackageNode();
+		packageNode.moveTo(new Point(100,100));
+		packageNode.addChild(aNode1);
+		packageNode.addChild(aNode2);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode2);
+		aClipboard.copy(Arrays.asList(packageNode, edge));
+		
+		Node node = getClipboardNodes().get(0);
+		Edge copy = getClipboardEdges().get(0);
+		assertNotSame(edge, copy);
+		assertSame(node.getChildren().get(0), copy.start());
+		assertSame(node.getChildren().get(1), copy.end());
+		
+		List<DiagramElement> elements = new ArrayList<>();
+		aClipboard.getElements().forEach(elements::add);
+		assertThat(elements, hasSize, 2);
+		Edge pastedEdge = (Edge) elements.get(0);
+		Node pastedNode = (Node) elements.get(1);
+		assertNotSame(node, pastedNode);
+		assertSame(pastedNode.getChildren().get(0), pastedEdge.start());
+		assertSame(pastedNode.getChildren().get(1), pastedEdge.end());
+	}
+	
 	@Test
 	void testCopyNodeWithOneParent()
 	{
@@ -286,6 +313,24 @@ public class TestClipboard
 		assertFalse(aClipboard.overlapsWithElementOf(diagram));
 	}
 	
+	@Test
+	void testOverlapsWithElementOf_ChildMatch()
+	{
+		Node selectedNode = new ClassNode();
+		selectedNode.moveTo(new Point(10,20));
+		aClipboard.copy(Arrays.asList(selectedNode));
+		
+		Diagram diagram = new Diagram(null);
+		PackageNode packageNode = new PackageNode();
+		packageNode.moveTo(new Point(100,200));
+		Node child = new ClassNode();
+		child.moveTo(new Point(10,20));
+		packageNode.addChild(child);
+		diagram.addRootNode(packageNode);
+		
+		assertTrue(aClipboard.overlapsWithElementOf(diagram));
+	}
+	
 	@Test
 	void testOverlapsWithElementOf_OneOfOneMatch()
 	{
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+
+/**
+ * Measures the time needed to copy a selection into the clipboard and 
+ * to obtain the elements to paste, for selections of increasing size. 
+ * Half of the elements are nodes, grouped by ten in packages, and half 
+ * are edges between them.
+ */
+public final class TestClipboardPerformance
+{
+	private static final int NUMBER_OF_TRIALS = 5;
+	private static final int[] NUMBER_OF_ELEMENTS = {100, 1000, 10000};
+	private static final int PACKAGE_SIZE = 10;
+	
+	private TestClipboardPerformance() {}
+	
+	/**
+	 * Test method.
+	 */
+	public static void main(String[] pArgs)
+	{
+		Clipboard clipboard = Clipboard.instance();
+		for( int size : NUMBER_OF_ELEMENTS )
+		{
+			List<DiagramElement> selection = createSelection(size);
+			double copyTime = 0.0;
+			double pasteTime = 0.0;
+			for( int i = 0; i < NUMBER_OF_TRIALS + 1; i++ )
+			{
+				Instant start = Instant.now();
+				clipboard.copy(selection);
+				Instant copied = Instant.now();
+				clipboard.getElements();
+				Instant pasted = Instant.now();
+				if( i > 0 )
+				{
+					copyTime += Duration.between(start, copied).toMillis();
+					pasteTime += Duration.between(copied, pasted).toMillis();
+				}
+			}
+			System.out.println("Test copy and paste of " + size + " elements: ");
+			System.out.println("Average Duration (ms) of " + NUMBER_OF_TRIALS + " trials, copy : " + 
+					copyTime / NUMBER_OF_TRIALS);
+			System.out.println("Average Duration (ms) of " + NUMBER_OF_TRIALS + " trials, paste : " + 
+					pasteTime / NUMBER_OF_TRIALS);
+		}
+	}
+	
+	private static List<DiagramElement> createSelection(int pSize)
+	{
+		List<DiagramElement> selection = new ArrayList<>();
+		List<Node> nodes = new ArrayList<>();
+		PackageNode packageNode = null;
+		for( int i = 0; i < pSize / 2; i++ )
+		{
+			if( i % PACKAGE_SIZE == 0 )
+			{
+				packageNode = new PackageNode();
+				selection.add(packageNode);
+			}
+			Node node = new ClassNode();
+			packageNode.addChild(node);
+			nodes.add(node);
+		}
+		for( int i = 0; i < pSize / 2; i++ )
+		{
+			Edge edge = new DependencyEdge();
+			edge.connect(nodes.get(i), nodes.get((i * 7 + 1) % nodes.size()));
+			selection.add(edge);
+		}
+		return selection;
+	}
+}
@@ -29,6 +29,7 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
+import java.util.TreeMap;
 import java.util.stream.Stream;
 
 import org.jetuml.diagram.edges.AssociationEdge;
@@ -170,6 +171,75 @@ public class TestDiagram
 		assertThat(diagram.allNodes(), hasSetOfElementsEqualsTo, aNode2, aNode3, aNode4);
 	}
 	
+	@Test
+	void testAllNodes_PreOrderAfterChanges()
+	{
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode1);
+		assertThat(aDiagram.allNodes(), hasElementsSameAs, aNode2, aNode1);
+		aNode2.addChild(aNode3);
+		assertThat(aDiagram.allNodes(), hasElementsSameAs, aNode2, aNode3, aNode1);
+		aDiagram.addRootNode(aNode4);
+		assertThat(aDiagram.allNodes(), hasElementsSameAs, aNode2, aNode3, aNode1, aNode4);
+		aNode2.removeChild(aNode3);
+		aDiagram.removeRootNode(aNode1);
+		assertThat(aDiagram.allNodes(), hasElementsSameAs, aNode2, aNode4);
+	}
+	
+	@Test
+	void testContains_AfterChanges()
+	{
+		aDiagram.addRootNode(aNode2);
+		assertTrue(aDiagram.contains(aNode2));
+		assertFalse(aDiagram.contains(aNode3));
+		aNode2.addChild(aNode3);
+		assertTrue(aDiagram.contains(aNode3));
+		aNode2.removeChild(aNode3);
+		assertFalse(aDiagram.contains(aNode3));
+		aDiagram.addRootNode(aNode1);
+		Edge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode2);
+		assertFalse(aDiagram.contains(edge));
+		aDiagram.addEdge(edge);
+		assertTrue(aDiagram.contains(edge));
+		aDiagram.removeRootNode(aNode2);
+		aDiagram.removeEdge(edge);
+		assertFalse(aDiagram.contains(aNode2));
+		assertFalse(aDiagram.contains(edge));
+		assertTrue(aDiagram.contains(aNode1));
+	}
+	
+	@Test
+	void testVersion()
+	{
+		long version = aDiagram.version();
+		aDiagram.addRootNode(aNode2);
+		assertVersionChanged(version);
+		version = aDiagram.version();
+		aDiagram.allNodes();
+		aDiagram.contains(aNode2);
+		assertEquals(version, aDiagram.version());
+		aNode2.translate(10, 0);
+		assertVersionChanged(version);
+		version = aDiagram.version();
+		aNode2.addChild(aNode3);
+		assertVersionChanged(version);
+		version = aDiagram.version();
+		aNode3.properties().get(PropertyName.NAME).set("Foo");
+		assertVersionChanged(version);
+		version = aDiagram.version();
+		((ClassNode) aNode3).setMethods("foo()");
+		assertVersionChanged(version);
+		version = aDiagram.version();
+		aDiagram.removeRootNode(aNode2);
+		assertVersionChanged(version);
+	}
+	
+	private void assertVersionChanged(long pVersion)
+	{
+		assertFalse(pVersion == aDiagram.version());
+	}
+	
 	@Test
 	void testEdgesConnectedTo_NoEdges()
 	{
@@ -220,4 +290,105 @@ public class TestDiagram
 
 		assertThat(aDiagram.edgesTo(aNode2, DependencyEdge.class), hasElementsSameAs, edge1);
 	}
+	
+	@Test
+	void testEdgesFrom()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		
+		Edge edge1 = new DependencyEdge();
+		edge1.connect(aNode1, aNode2);
+		Edge edge2 = new AssociationEdge();
+		edge2.connect(aNode1, aNode1);
+		Edge edge3 = new DependencyEdge();
+		edge3.connect(aNode2, aNode1);
+		aDiagram.addEdge(edge1);
+		aDiagram.addEdge(edge2);
+		aDiagram.addEdge(edge3);
+
+		assertThat(aDiagram.edgesFrom(aNode1, Edge.class), hasElementsSameAs, edge1, edge2);
+		assertThat(aDiagram.edgesFrom(aNode1, DependencyEdge.class), hasElementsSameAs, edge1);
+		assertThat(aDiagram.edgesFrom(aNode2, AssociationEdge.class), CollectionAssertions.isEmpty);
+	}
+	
+	@Test
+	void testEdgesConnectedTo_DiagramOrder()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		Edge edge1 = new DependencyEdge();
+		edge1.connect(aNode1, aNode2);
+		Edge edge2 = new DependencyEdge();
+		edge2.connect(aNode3, aNode1);
+		Edge edge3 = new AssociationEdge();
+		edge3.connect(aNode1, aNode1);
+		aDiagram.addEdge(edge1);
+		aDiagram.addEdge(edge3);
+		aDiagram.addEdge(1, edge2);
+		assertThat(new DiagramAccessor(aDiagram).getEdgesConnectedTo(aNode1), hasElementsSameAs, edge1, edge2, edge3);
+		assertThat(new DiagramAccessor(aDiagram).getEdgesConnectedTo(aNode3), hasElementsSameAs, edge2);
+		assertThat(aDiagram.edgesTo(aNode1, Edge.class), hasElementsSameAs, edge2, edge3);
+	}
+	
+	@Test
+	void testEdgesConnectedTo_AfterRemoveEdge()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		Edge edge1 = new DependencyEdge();
+		edge1.connect(aNode1, aNode2);
+		Edge edge2 = new DependencyEdge();
+		edge2.connect(aNode2, aNode1);
+		aDiagram.addEdge(edge1);
+		aDiagram.addEdge(edge2);
+		aDiagram.removeEdge(edge1);
+		assertThat(new DiagramAccessor(aDiagram).getEdgesConnectedTo(aNode1), hasElementsSameAs, edge2);
+		assertThat(aDiagram.edgesTo(aNode2, Edge.class), CollectionAssertions.isEmpty);
+		aDiagram.addEdge(0, edge1);
+		assertThat(new DiagramAccessor(aDiagram).getEdgesConnectedTo(aNode2), hasElementsSameAs, edge1, edge2);
+		assertThat(aDiagram.edgesTo(aNode2, Edge.class), hasElementsSameAs, edge1);
+	}
+	
+	@Test
+	void testRemoveEdges_AddEdges()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		Edge edge1 = new DependencyEdge();
+		edge1.connect(aNode1, aNode2);
+		Edge edge2 = new DependencyEdge();
+		edge2.connect(aNode2, aNode1);
+		Edge edge3 = new AssociationEdge();
+		edge3.connect(aNode1, aNode2);
+		Edge edge4 = new AssociationEdge();
+		edge4.connect(aNode1, aNode1);
+		aDiagram.addEdge(edge1);
+		aDiagram.addEdge(edge2);
+		aDiagram.addEdge(edge3);
+		aDiagram.addEdge(edge4);
+		aDiagram.removeEdges(List.of(edge3, edge1));
+		assertThat(aDiagram.edges(), hasElementsSameAs, edge2, edge4);
+		assertThat(new DiagramAccessor(aDiagram).getEdgesConnectedTo(aNode2), hasElementsSameAs, edge2);
+		assertThat(aDiagram.edgesTo(aNode2, Edge.class), CollectionAssertions.isEmpty);
+		TreeMap<Integer, Edge> edges = new TreeMap<>();
+		edges.put(2, edge3);
+		edges.put(0, edge1);
+		aDiagram.addEdges(edges);
+		assertThat(aDiagram.edges(), hasElementsSameAs, edge1, edge2, edge3, edge4);
+		assertThat(new DiagramAccessor(aDiagram).getEdgesConnectedTo(aNode1), hasElementsSameAs, edge1, edge2, edge3, edge4);
+		assertThat(aDiagram.edgesTo(aNode2, Edge.class), hasElementsSameAs, edge1, edge3);
+	}
+	
+	@Test
+	void testRemoveRootNodes()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		aDiagram.addRootNode(aNode4);
+		aDiagram.removeRootNodes(List.of(aNode4, aNode2, aNode1));
+		assertThat(aDiagram.rootNodes(), hasElementsSameAs, aNode3);
+	}
 }
@@ -136,4 +136,22 @@ public class TestDiagramDuplicate
 		assertSame(n1Copy, edgeCopy.start());
 		assertSame(n2Copy, edgeCopy.end());
 	}
+	
+	@Test
+	public void test_edgesConnectedToInCopy()
+	{
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		aClassDiagram.addRootNode(node1);
+		aClassDiagram.addRootNode(node2);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(node1, node2);
+		aClassDiagram.addEdge(edge);
+		Diagram copy = aClassDiagram.duplicate();
+		Node start = copy.rootNodes().get(0);
+		Node end = copy.rootNodes().get(1);
+		assertSame(copy.edges().get(0), copy.edgesConnectedTo(start).iterator().next());
+		assertSame(copy.edges().get(0), copy.edgesTo(end, DependencyEdge.class).get(0));
+		assertNotSame(edge, copy.edges().get(0));
+	}
 }
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+
+/**
+ * Measures the performance of the edge queries of a diagram with a large
+ * number of edges, and compares them with a scan of all the edges.
+ */
+public final class TestEdgeQueryPerformance
+{
+	private static final int NUMBER_OF_TRIALS = 10;
+	private static final int NUMBER_OF_NODES = 1000;
+	private static final int NUMBER_OF_EDGES = 10000;
+	
+	private TestEdgeQueryPerformance() {}
+	
+	/**
+	 * Test method.
+	 */
+	public static void main(String[] pArgs)
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		List<Node> nodes = new ArrayList<>();
+		for( int i = 0; i < NUMBER_OF_NODES; i++ )
+		{
+			Node node = new ClassNode();
+			nodes.add(node);
+			diagram.addRootNode(node);
+		}
+		for( int i = 0; i < NUMBER_OF_EDGES; i++ )
+		{
+			Edge edge = new DependencyEdge();
+			edge.connect(nodes.get(i % NUMBER_OF_NODES), nodes.get((i * 7 + 1) % NUMBER_OF_NODES));
+			diagram.addEdge(edge);
+		}
+		
+		double indexed = 0.0;
+		double scanned = 0.0;
+		for( int i = 0; i < NUMBER_OF_TRIALS + 1; i++ )
+		{
+			Instant start = Instant.now();
+			for( Node node : nodes )
+			{
+				diagram.edgesConnectedTo(node);
+				diagram.edgesTo(node, DependencyEdge.class);
+			}
+			Instant stop = Instant.now();
+			for( Node node : nodes )
+			{
+				scanEdgesConnectedTo(diagram, node);
+				scanEdgesTo(diagram, node);
+			}
+			Instant stopScan = Instant.now();
+			if( i > 0 )
+			{
+				indexed += Duration.between(start, stop).toMillis();
+				scanned += Duration.between(stop, stopScan).toMillis();
+			}
+		}
+		
+		System.out.println("Test Diagram.edgesConnectedTo and Diagram.edgesTo for " + NUMBER_OF_NODES + 
+				" nodes and " + NUMBER_OF_EDGES + " edges: ");
+		System.out.println("Average Duration (ms) of " + NUMBER_OF_TRIALS + " trials, indexed: " + indexed / NUMBER_OF_TRIALS);
+		System.out.println("Average Duration (ms) of " + NUMBER_OF_TRIALS + " trials, scanned: " + scanned / NUMBER_OF_TRIALS);
+	}
+	
+	private static List<Edge> scanEdgesConnectedTo(Diagram pDiagram, Node pNode)
+	{
+		List<Edge> result = new ArrayList<>();
+		for( Edge edge : pDiagram.edges() )
+		{
+			if( edge.start() == pNode || edge.end() == pNode )
+			{
+				result.add(edge);
+			}
+		}
+		return result;
+	}
+	
+	private static List<Edge> scanEdgesTo(Diagram pDiagram, Node pNode)
+	{
+		return pDiagram.edges().stream()
+				.filter(DependencyEdge.class::isInstance)
+				.filter(edge -> edge.end() == pNode)
+				.toList();
+	}
+}
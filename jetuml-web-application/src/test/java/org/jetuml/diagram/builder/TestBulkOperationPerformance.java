@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.builder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+
+/**
+ * Measures the time needed to create, execute, and undo the operations 
+ * that remove all the elements of a large class diagram and that add 
+ * them back, as when cutting and pasting them.
+ */
+public final class TestBulkOperationPerformance
+{
+	private static final int NUMBER_OF_TRIALS = 5;
+	private static final int NUMBER_OF_NODES = 20000;
+	private static final int NUMBER_OF_EDGES = 20000;
+	
+	private TestBulkOperationPerformance() {}
+	
+	/**
+	 * Test method.
+	 */
+	public static void main(String[] pArgs)
+	{
+		JavaFXLoader.load();
+		Diagram diagram = createDiagram();
+		ClassDiagramBuilder builder = new ClassDiagramBuilder(diagram);
+		List<DiagramElement> selection = new ArrayList<>();
+		selection.addAll(diagram.rootNodes());
+		selection.addAll(diagram.edges());
+		
+		measure("removal", () -> builder.createRemoveElementsOperation(selection));
+		Diagram empty = new Diagram(DiagramType.CLASS);
+		ClassDiagramBuilder emptyBuilder = new ClassDiagramBuilder(empty);
+		measure("addition", () -> emptyBuilder.createAddElementsOperation(selection));
+	}
+	
+	private static void measure(String pName, Supplier<DiagramOperation> pOperation)
+	{
+		double avgExecutionTime = 0.0;
+		for( int i = 0; i < NUMBER_OF_TRIALS + 1; i++ )
+		{
+			Instant start = Instant.now();
+			DiagramOperation operation = pOperation.get();
+			operation.execute();
+			operation.undo();
+			operation.execute();
+			operation.undo();
+			Instant stop = Instant.now();
+			if( i > 0 )
+			{
+				avgExecutionTime += Duration.between(start, stop).toMillis();
+			}
+		}
+		
+		System.out.println("Test " + pName + " of " + NUMBER_OF_NODES + " nodes and " + NUMBER_OF_EDGES + 
+				" edges, executed and undone twice: ");
+		System.out.println("Average Duration (ms) of " + NUMBER_OF_TRIALS + " trials : " + 
+				avgExecutionTime / NUMBER_OF_TRIALS);
+	}
+	
+	private static Diagram createDiagram()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		List<Node> nodes = new ArrayList<>();
+		for( int i = 0; i < NUMBER_OF_NODES; i++ )
+		{
+			Node node = new ClassNode();
+			nodes.add(node);
+			diagram.addRootNode(node);
+		}
+		for( int i = 0; i < NUMBER_OF_EDGES; i++ )
+		{
+			Edge edge = new DependencyEdge();
+			edge.connect(nodes.get(i % NUMBER_OF_NODES), nodes.get((i * 7 + 1) % NUMBER_OF_NODES));
+			diagram.addEdge(edge);
+		}
+		return diagram;
+	}
+}
@@ -258,6 +258,46 @@ public class TestClassDiagramBuilder
 		assertEquals(2, numberOfRootNodes());
 	}
 	
+	@Test
+	void testCreateRemoveElementsOperation_UndoRestoresOrder()
+	{
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		ClassNode node3 = new ClassNode();
+		PackageNode node4 = new PackageNode();
+		ClassNode child1 = new ClassNode();
+		ClassNode child2 = new ClassNode();
+		ClassNode child3 = new ClassNode();
+		node4.addChild(child1);
+		node4.addChild(child2);
+		node4.addChild(child3);
+		aDiagram.addRootNode(node1);
+		aDiagram.addRootNode(node2);
+		aDiagram.addRootNode(node3);
+		aDiagram.addRootNode(node4);
+		DependencyEdge edge1 = new DependencyEdge();
+		edge1.connect(node1, node3);
+		DependencyEdge edge2 = new DependencyEdge();
+		edge2.connect(node2, node3);
+		DependencyEdge edge3 = new DependencyEdge();
+		edge3.connect(node3, child2);
+		aDiagram.addEdge(edge1);
+		aDiagram.addEdge(edge2);
+		aDiagram.addEdge(edge3);
+		
+		DiagramOperation operation = aBuilder.createRemoveElementsOperation(List.of(child3, node2, child1, node1));
+		operation.execute();
+		assertEquals(List.of(node3, node4), aDiagram.rootNodes());
+		assertEquals(List.of(edge3), aDiagram.edges());
+		assertEquals(List.of(child2), node4.getChildren());
+		
+		operation.undo();
+		assertEquals(List.of(node3, node4, node1, node2), aDiagram.rootNodes());
+		assertEquals(List.of(edge1, edge2, edge3), aDiagram.edges());
+		assertEquals(List.of(child1, child2, child3), node4.getChildren());
+		assertSame(node4, child1.getParent());
+	}
+	
 	@Test
 	void testCanAttachToPackageMultipleNodes()
 	{
@@ -25,6 +25,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -129,6 +137,63 @@ public class TestCompoundOperation
 		assertEquals("ABCDE54321", aBuilder.toString());
 	}
 	
+	@Test
+	public void testFootprint()
+	{
+		assertEquals(1, aOperation.footprint());
+		aOperation.add(new SimpleOperation(()-> aBuilder.append("A"), ()->aBuilder.append("1")));
+		CompoundOperation sub = new CompoundOperation();
+		sub.add(new SimpleOperation(()-> aBuilder.append("B"), ()->aBuilder.append("2"), 3));
+		sub.add(new SimpleOperation(()-> aBuilder.append("C"), ()->aBuilder.append("3")));
+		aOperation.add(sub);
+		assertEquals(5, aOperation.footprint());
+	}
+	
+	@Test
+	public void testMergeWith_Moves()
+	{
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		aOperation.add(DiagramBuilder.createMoveNodeOperation(node1, 10, 20));
+		aOperation.add(DiagramBuilder.createMoveNodeOperation(node2, 5, 0));
+		CompoundOperation next = new CompoundOperation();
+		next.add(DiagramBuilder.createMoveNodeOperation(node2, 1, 2));
+		next.add(DiagramBuilder.createMoveNodeOperation(node1, 3, 4));
+		DiagramOperation merged = aOperation.mergeWith(next).get();
+		merged.execute();
+		assertEquals(13, node1.position().x());
+		assertEquals(24, node1.position().y());
+		assertEquals(6, node2.position().x());
+		assertEquals(2, node2.position().y());
+		merged.undo();
+		assertEquals(0, node1.position().x());
+		assertEquals(0, node2.position().y());
+		assertEquals(2, merged.footprint());
+	}
+	
+	@Test
+	public void testMergeWith_NotMergeable()
+	{
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		aOperation.add(DiagramBuilder.createMoveNodeOperation(node1, 10, 20));
+		CompoundOperation other = new CompoundOperation();
+		other.add(DiagramBuilder.createMoveNodeOperation(node2, 1, 2));
+		assertFalse(aOperation.mergeWith(other).isPresent());
+		assertFalse(aOperation.mergeWith(new CompoundOperation()).isPresent());
+		assertFalse(new CompoundOperation().mergeWith(new CompoundOperation()).isPresent());
+		
+		CompoundOperation twice = new CompoundOperation();
+		twice.add(DiagramBuilder.createMoveNodeOperation(node1, 1, 2));
+		twice.add(DiagramBuilder.createMoveNodeOperation(node1, 1, 2));
+		aOperation.add(DiagramBuilder.createMoveNodeOperation(node2, 10, 20));
+		assertFalse(aOperation.mergeWith(twice).isPresent());
+		
+		CompoundOperation notMoves = new CompoundOperation();
+		notMoves.add(new SimpleOperation(()-> aBuilder.append("A"), ()->aBuilder.append("1")));
+		assertFalse(notMoves.mergeWith(notMoves).isPresent());
+	}
+	
 	@Test
 	public void testIsEmpty()
 	{
@@ -136,4 +201,37 @@ public class TestCompoundOperation
 		aOperation.add(new SimpleOperation(()-> aBuilder.append("A"), ()->aBuilder.append("1")));
 		assertFalse(aOperation.isEmpty());
 	}
+	
+	@Test
+	public void testDiagramElementRuns()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		Node existing = new ClassNode();
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		Node node3 = new ClassNode();
+		diagram.addRootNode(existing);
+		Edge edge1 = new DependencyEdge();
+		edge1.connect(node1, node2);
+		Edge edge2 = new DependencyEdge();
+		edge2.connect(node2, existing);
+		aOperation.add(DiagramElementOperation.addRootNode(diagram, node1));
+		aOperation.add(DiagramElementOperation.addRootNode(diagram, node2));
+		aOperation.add(new SimpleOperation(()-> aBuilder.append("A"), ()-> aBuilder.append("1")));
+		aOperation.add(DiagramElementOperation.addRootNode(diagram, node3));
+		aOperation.add(DiagramElementOperation.addEdge(diagram, edge1));
+		aOperation.add(DiagramElementOperation.addEdge(diagram, edge2));
+		
+		aOperation.execute();
+		assertEquals(List.of(existing, node1, node2, node3), diagram.rootNodes());
+		assertEquals(List.of(edge1, edge2), diagram.edges());
+		aOperation.undo();
+		assertEquals(List.of(existing), diagram.rootNodes());
+		assertTrue(diagram.edges().isEmpty());
+		assertEquals("A1", aBuilder.toString());
+		aOperation.execute();
+		assertEquals(List.of(existing, node1, node2, node3), diagram.rootNodes());
+		assertEquals(List.of(edge1, edge2), diagram.edges());
+		assertEquals(List.of(edge2), diagram.edgesTo(existing, Edge.class));
+	}
 }
@@ -25,6 +25,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.nodes.ClassNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -280,4 +284,199 @@ public class TestDiagramOperationProcessor
 		aProcessor.redoLastUndoneOperation();
 		assertFalse(aProcessor.hasUnsavedOperations());
 	}
+	
+	@Test
+	public void testHistory_MaximumDepth()
+	{
+		aProcessor = new DiagramOperationProcessor(3, 100);
+		for( char letter : "ABCDE".toCharArray() )
+		{
+			aProcessor.executeNewOperation(createOperation(letter));
+		}
+		assertEquals(3, aProcessor.historySize());
+		assertEquals(3, aProcessor.historyFootprint());
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertFalse(aProcessor.canUndo());
+		assertEquals("AB", aBuilder.toString());
+		assertEquals(3, aProcessor.historySize());
+	}
+	
+	@Test
+	public void testHistory_MaximumFootprint()
+	{
+		aProcessor = new DiagramOperationProcessor(100, 4);
+		CompoundOperation operation = new CompoundOperation();
+		operation.add(createOperation('A'));
+		operation.add(createOperation('B'));
+		operation.add(createOperation('C'));
+		aProcessor.executeNewOperation(operation);
+		assertEquals(3, aProcessor.historyFootprint());
+		aProcessor.executeNewOperation(createOperation('D'));
+		assertEquals(2, aProcessor.historySize());
+		aProcessor.executeNewOperation(createOperation('E'));
+		assertEquals(2, aProcessor.historySize());
+		assertEquals(2, aProcessor.historyFootprint());
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertEquals("ABC", aBuilder.toString());
+	}
+	
+	@Test
+	public void testHistory_LastOperationKept()
+	{
+		aProcessor = new DiagramOperationProcessor(100, 2);
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.executeNewOperation(new SimpleOperation(()-> aBuilder.append("BC"), ()-> aBuilder.setLength(0), 5));
+		assertEquals(1, aProcessor.historySize());
+		assertFalse(aProcessor.canRedo());
+		aProcessor.undoLastExecutedOperation();
+		assertEquals("", aBuilder.toString());
+	}
+	
+	@Test
+	public void testHasUnsavedOperations_SavedOperationDiscarded()
+	{
+		aProcessor = new DiagramOperationProcessor(2, 100);
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.diagramSaved();
+		aProcessor.executeNewOperation(createOperation('B'));
+		aProcessor.executeNewOperation(createOperation('C'));
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertEquals("A", aBuilder.toString());
+		assertFalse(aProcessor.hasUnsavedOperations());
+	}
+	
+	@Test
+	public void testHasUnsavedOperations_InitialStateDiscarded()
+	{
+		aProcessor = new DiagramOperationProcessor(2, 100);
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.executeNewOperation(createOperation('B'));
+		aProcessor.executeNewOperation(createOperation('C'));
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertFalse(aProcessor.canUndo());
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.diagramSaved();
+		assertFalse(aProcessor.hasUnsavedOperations());
+	}
+	
+	@Test
+	public void testHasUnsavedOperations_UndoneSavedOperationDiscarded()
+	{
+		aProcessor = new DiagramOperationProcessor(2, 100);
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.executeNewOperation(createOperation('B'));
+		aProcessor.diagramSaved();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.executeNewOperation(createOperation('C'));
+		assertEquals(2, aProcessor.historySize());
+		assertTrue(aProcessor.hasUnsavedOperations());
+	}
+	
+	private static CompoundOperation createMove(Node pNode1, Node pNode2, int pDelta)
+	{
+		CompoundOperation operation = new CompoundOperation();
+		operation.add(DiagramBuilder.createMoveNodeOperation(pNode1, pDelta, pDelta));
+		operation.add(DiagramBuilder.createMoveNodeOperation(pNode2, pDelta, pDelta));
+		return operation;
+	}
+	
+	@Test
+	public void testMerge_ConsecutiveMoves()
+	{
+		aProcessor = new DiagramOperationProcessor(100, 100, Duration.ofHours(1));
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		aProcessor.executeNewOperation(createOperation('A'));
+		for( int i = 0; i < 5; i++ )
+		{
+			aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		}
+		assertEquals(2, aProcessor.historySize());
+		assertEquals(3, aProcessor.historyFootprint());
+		assertEquals(50, node2.position().x());
+		aProcessor.undoLastExecutedOperation();
+		assertEquals(0, node1.position().x());
+		assertEquals(0, node2.position().y());
+		assertEquals("A", aBuilder.toString());
+		aProcessor.redoLastUndoneOperation();
+		assertEquals(50, node1.position().y());
+	}
+	
+	@Test
+	public void testMerge_DifferentNodes()
+	{
+		aProcessor = new DiagramOperationProcessor(100, 100, Duration.ofHours(1));
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		Node node3 = new ClassNode();
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		aProcessor.executeNewOperation(createMove(node1, node3, 10));
+		assertEquals(2, aProcessor.historySize());
+	}
+	
+	@Test
+	public void testMerge_OutsideWindow()
+	{
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		assertEquals(2, aProcessor.historySize());
+	}
+	
+	@Test
+	public void testMerge_NotIntoRedoneOperation()
+	{
+		aProcessor = new DiagramOperationProcessor(100, 100, Duration.ofHours(1));
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.redoLastUndoneOperation();
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		assertEquals(2, aProcessor.historySize());
+		aProcessor.undoLastExecutedOperation();
+		assertEquals(10, node1.position().x());
+		assertEquals(10, node2.position().y());
+	}
+	
+	@Test
+	public void testMerge_NotIntoOperationBeforeUndone()
+	{
+		aProcessor = new DiagramOperationProcessor(100, 100, Duration.ofHours(1));
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		aProcessor.undoLastExecutedOperation();
+		assertEquals(10, node1.position().x());
+	}
+	
+	@Test
+	public void testMerge_NotIntoSavedOperation()
+	{
+		aProcessor = new DiagramOperationProcessor(100, 100, Duration.ofHours(1));
+		Node node1 = new ClassNode();
+		Node node2 = new ClassNode();
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		aProcessor.diagramSaved();
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		assertEquals(2, aProcessor.historySize());
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.executeNewOperation(createMove(node1, node2, 10));
+		assertEquals(2, aProcessor.historySize());
+		aProcessor.undoLastExecutedOperation();
+		assertFalse(aProcessor.hasUnsavedOperations());
+		assertEquals(10, node1.position().x());
+	}
 }
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.geom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.jetuml.geom.EdgeShape.Segment;
+import org.junit.jupiter.api.Test;
+
+public class TestEdgeShape
+{
+	private static final EdgeShape HORIZONTAL = EdgeShape.polyline(new Point(60, 20), new Point(100, 20));
+	private static final EdgeShape SEGMENTED = EdgeShape.polyline(new Point(0, 0), new Point(0, 20), new Point(40, 20));
+	private static final EdgeShape CURVE = new EdgeShape(new Point(0, 0), 
+			List.of(Segment.curveTo(new Point(50, 100), new Point(100, 0))));
+	
+	@Test
+	void testPolyline()
+	{
+		assertEquals(new Point(0, 0), SEGMENTED.start());
+		assertEquals(List.of(Segment.lineTo(new Point(0, 20)), Segment.lineTo(new Point(40, 20))), SEGMENTED.segments());
+	}
+	
+	@Test
+	void testGetBounds_Straight()
+	{
+		assertEquals(new Rectangle(59, 19, 42, 2), HORIZONTAL.getBounds());
+		assertEquals(new Rectangle(58, 25, 62, 15), EdgeShape.polyline(new Point(60, 27), new Point(120, 40)).getBounds());
+	}
+	
+	@Test
+	void testGetBounds_Segmented()
+	{
+		assertEquals(new Rectangle(-1, -1, 42, 22), SEGMENTED.getBounds());
+	}
+	
+	@Test
+	void testGetBounds_Point()
+	{
+		assertEquals(new Rectangle(9, 9, 2, 2), EdgeShape.polyline(new Point(10, 10), new Point(10, 10)).getBounds());
+	}
+	
+	@Test
+	void testGetBounds_Curve()
+	{
+		Rectangle bounds = CURVE.getBounds();
+		assertTrue(bounds.contains(new Rectangle(0, 0, 100, 50)));
+		assertTrue(bounds.maxY() <= 52);
+	}
+	
+	@Test
+	void testDistance_Polyline()
+	{
+		assertEquals(0, SEGMENTED.distance(new Point(0, 10)), 0.001);
+		assertEquals(5, SEGMENTED.distance(new Point(20, 15)), 0.001);
+		assertEquals(5, SEGMENTED.distance(new Point(45, 20)), 0.001);
+		assertEquals(5, SEGMENTED.distance(new Point(-3, -4)), 0.001);
+	}
+	
+	@Test
+	void testDistance_Curve()
+	{
+		assertEquals(0, CURVE.distance(new Point(50, 50)), 0.001);
+		assertEquals(5, CURVE.distance(new Point(50, 55)), 0.001);
+		assertEquals(0, CURVE.distance(new Point(100, 0)), 0.001);
+	}
+	
+	@Test
+	void testIsNear()
+	{
+		assertTrue(HORIZONTAL.isNear(new Point(80, 23), 3));
+		assertFalse(HORIZONTAL.isNear(new Point(80, 24), 3));
+		assertFalse(HORIZONTAL.isNear(new Point(500, 500), 3));
+		assertTrue(CURVE.isNear(new Point(50, 52), 3));
+		assertFalse(CURVE.isNear(new Point(50, 20), 3));
+	}
+}
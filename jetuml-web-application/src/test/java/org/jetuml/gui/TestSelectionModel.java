@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestSelectionModel
+{
+	private SelectionModel aModel = new SelectionModel();
+	private PackageNode aPackage = new PackageNode();
+	private PackageNode aInnerPackage = new PackageNode();
+	private ClassNode aClass1 = new ClassNode();
+	private ClassNode aClass2 = new ClassNode();
+	private DependencyEdge aEdge = new DependencyEdge();
+	
+	@BeforeEach
+	void setup()
+	{
+		aPackage.addChild(aInnerPackage);
+		aInnerPackage.addChild(aClass1);
+	}
+	
+	private List<DiagramElement> selected()
+	{
+		List<DiagramElement> result = new ArrayList<>();
+		aModel.forEach(result::add);
+		return result;
+	}
+	
+	@Test
+	void testAddKeepsSelectionOrder()
+	{
+		assertTrue(aModel.add(aClass2));
+		assertTrue(aModel.add(aEdge));
+		assertTrue(aModel.add(aPackage));
+		assertEquals(asList(aClass2, aEdge, aPackage), selected());
+		assertSame(aPackage, aModel.getLastSelected().get());
+	}
+	
+	@Test
+	void testAddAgainMovesToEnd()
+	{
+		aModel.addAll(asList(aClass2, aEdge));
+		assertFalse(aModel.add(aEdge));
+		assertTrue(aModel.add(aClass2));
+		assertEquals(asList(aEdge, aClass2), selected());
+		assertSame(aClass2, aModel.getLastSelected().get());
+	}
+	
+	@Test
+	void testAddIgnoresDescendantOfSelectedNode()
+	{
+		aModel.add(aPackage);
+		assertFalse(aModel.add(aClass1));
+		assertFalse(aModel.contains(aClass1));
+		assertEquals(asList(aPackage), selected());
+	}
+	
+	@Test
+	void testAddRemovesSelectedDescendants()
+	{
+		aModel.addAll(asList(aClass1, aInnerPackage, aClass2));
+		assertEquals(asList(aInnerPackage, aClass2), selected());
+		assertTrue(aModel.add(aPackage));
+		assertEquals(asList(aClass2, aPackage), selected());
+	}
+	
+	@Test
+	void testSet()
+	{
+		aModel.addAll(asList(aClass2, aEdge));
+		assertTrue(aModel.set(aClass1));
+		assertFalse(aModel.set(aClass1));
+		assertEquals(asList(aClass1), selected());
+	}
+	
+	@Test
+	void testSetAll()
+	{
+		aModel.addAll(asList(aClass2, aEdge));
+		assertFalse(aModel.setAll(asList(aClass2, aEdge)));
+		assertTrue(aModel.setAll(asList(aEdge, aClass2)));
+		assertEquals(asList(aEdge, aClass2), selected());
+	}
+	
+	@Test
+	void testRemoveAndLastSelected()
+	{
+		aModel.addAll(asList(aClass2, aEdge));
+		assertTrue(aModel.remove(aEdge));
+		assertFalse(aModel.remove(aEdge));
+		assertSame(aClass2, aModel.getLastSelected().get());
+		assertTrue(aModel.removeIf(element -> element == aClass2));
+		assertTrue(aModel.isEmpty());
+		assertTrue(aModel.getLastSelected().isEmpty());
+	}
+	
+	@Test
+	void testClear()
+	{
+		assertFalse(aModel.clear());
+		aModel.add(aEdge);
+		assertTrue(aModel.clear());
+		assertEquals(0, aModel.size());
+	}
+	
+	@Test
+	void testGetSelectedNodes()
+	{
+		aModel.addAll(asList(aClass2, aEdge, aPackage));
+		assertEquals(asList(aClass2, aPackage), aModel.getSelectedNodes());
+	}
+}
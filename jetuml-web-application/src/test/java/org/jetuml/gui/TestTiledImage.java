@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.jetuml.geom.Rectangle;
+import org.junit.jupiter.api.Test;
+
+public class TestTiledImage
+{
+	private static final int WIDTH = 30;
+	private static final int HEIGHT = 20;
+	private static final int TILE_SIZE = 8;
+	
+	private List<Rectangle> aPainted = new ArrayList<>();
+	
+	private static int pixel(int pX, int pY)
+	{
+		return 0xff000000 | pX << 16 | pY << 8 | (pX + pY);
+	}
+	
+	private TiledImage createImage(boolean pOpaque)
+	{
+		return new TiledImage(WIDTH, HEIGHT, TILE_SIZE, pOpaque, (tile, pixels, offset, stride) -> 
+		{
+			aPainted.add(tile);
+			for( int y = 0; y < tile.height(); y++ )
+			{
+				for( int x = 0; x < tile.width(); x++ )
+				{
+					pixels[offset + y * stride + x] = pixel(tile.x() + x, tile.y() + y);
+				}
+			}
+		});
+	}
+	
+	private BufferedImage writeAndRead(TiledImage pImage, String pFormat) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(pImage, pFormat, out);
+		return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+	
+	private static void assertPixels(BufferedImage pImage)
+	{
+		assertEquals(WIDTH, pImage.getWidth());
+		assertEquals(HEIGHT, pImage.getHeight());
+		for( int y = 0; y < HEIGHT; y++ )
+		{
+			for( int x = 0; x < WIDTH; x++ )
+			{
+				assertEquals(pixel(x, y), pImage.getRGB(x, y));
+			}
+		}
+	}
+	
+	@Test
+	void testTiles()
+	{
+		createImage(false).getData(new java.awt.Rectangle(0, 0, WIDTH, HEIGHT));
+		assertEquals(12, aPainted.size());
+		assertEquals(new Rectangle(0, 0, 8, 8), aPainted.get(0));
+		assertEquals(new Rectangle(24, 0, 6, 8), aPainted.get(3));
+		assertEquals(new Rectangle(24, 16, 6, 4), aPainted.get(11));
+	}
+	
+	@Test
+	void testGetDataOfWholeImage()
+	{
+		Raster raster = createImage(false).getData();
+		assertEquals(0, aPainted.size());
+		for( int y = 0; y < HEIGHT; y++ )
+		{
+			for( int x = 0; x < WIDTH; x++ )
+			{
+				assertEquals(pixel(x, y), ((int[]) raster.getDataElements(x, y, null))[0]);
+			}
+		}
+		assertEquals(12, aPainted.size());
+	}
+	
+	@Test
+	void testGetDataAcrossStrips()
+	{
+		Raster raster = createImage(false).getData(new java.awt.Rectangle(5, 6, 10, 4));
+		assertEquals(5, raster.getMinX());
+		assertEquals(6, raster.getMinY());
+		for( int y = 6; y < 10; y++ )
+		{
+			for( int x = 5; x < 15; x++ )
+			{
+				assertEquals(pixel(x, y), ((int[]) raster.getDataElements(x, y, null))[0]);
+			}
+		}
+		assertEquals(8, aPainted.size());
+	}
+	
+	@Test
+	void testWritePng() throws IOException
+	{
+		assertPixels(writeAndRead(createImage(false), "png"));
+		assertEquals(12, aPainted.size());
+	}
+	
+	@Test
+	void testWriteBmp() throws IOException
+	{
+		assertPixels(writeAndRead(createImage(true), "bmp"));
+		assertEquals(12, aPainted.size());
+	}
+	
+	@Test
+	void testWriteJpg() throws IOException
+	{
+		BufferedImage image = writeAndRead(createImage(true), "jpg");
+		assertEquals(WIDTH, image.getWidth());
+		assertEquals(HEIGHT, image.getHeight());
+		assertEquals(12, aPainted.size());
+	}
+}
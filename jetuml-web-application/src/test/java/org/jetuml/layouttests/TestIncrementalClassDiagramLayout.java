@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.layouttests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.AggregationEdge;
+import org.jetuml.diagram.edges.AssociationEdge;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.edges.GeneralizationEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.InterfaceNode;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.PersistenceService;
+import org.jetuml.persistence.PersistenceTestUtils;
+import org.jetuml.rendering.ClassDiagramRenderer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/*
+ * Tests that the incremental layout performed when drawing a class diagram
+ * produces the same edge paths as a complete layout of the diagram.
+ */
+public class TestIncrementalClassDiagramLayout
+{
+	private static final GraphicsContext GRAPHICS = new Canvas().getGraphicsContext2D();
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet", "testPersistenceService2.class.jet"})
+	void testMoveEachNode(String pFileName) throws IOException
+	{
+		Diagram diagram = PersistenceService.read(Path.of("testdata", pFileName).toFile());
+		ClassDiagramRenderer renderer = (ClassDiagramRenderer) DiagramType.newRendererInstanceFor(diagram);
+		renderer.draw(GRAPHICS);
+		assertSameAsCompleteLayout(diagram, renderer);
+		for( Node node : PersistenceTestUtils.getAllNodes(diagram) )
+		{
+			node.translate(60, -40);
+			renderer.draw(GRAPHICS);
+			assertSameAsCompleteLayout(diagram, renderer);
+			node.translate(-60, 40);
+			renderer.draw(GRAPHICS);
+			assertSameAsCompleteLayout(diagram, renderer);
+		}
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet", "testPersistenceService2.class.jet"})
+	void testRemoveAndRestoreEachEdge(String pFileName) throws IOException
+	{
+		Diagram diagram = PersistenceService.read(Path.of("testdata", pFileName).toFile());
+		ClassDiagramRenderer renderer = (ClassDiagramRenderer) DiagramType.newRendererInstanceFor(diagram);
+		renderer.draw(GRAPHICS);
+		for( Edge edge : diagram.edges().toArray(new Edge[0]) )
+		{
+			int index = diagram.indexOf(edge);
+			diagram.removeEdge(edge);
+			renderer.draw(GRAPHICS);
+			assertSameAsCompleteLayout(diagram, renderer);
+			diagram.addEdge(index, edge);
+			renderer.draw(GRAPHICS);
+			assertSameAsCompleteLayout(diagram, renderer);
+		}
+	}
+	
+	@Test
+	void testSuccessiveChanges()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		Node[] nodes = new Node[9];
+		for( int i = 0; i < nodes.length; i++ )
+		{
+			nodes[i] = i % 3 == 0 ? new InterfaceNode() : new ClassNode();
+			nodes[i].moveTo(new Point(20 + (i % 3) * 220, 20 + (i / 3) * 180));
+			diagram.addRootNode(nodes[i]);
+		}
+		connect(diagram, new GeneralizationEdge(), nodes[3], nodes[0]);
+		connect(diagram, new GeneralizationEdge(), nodes[4], nodes[0]);
+		connect(diagram, new GeneralizationEdge(GeneralizationEdge.Type.Implementation), nodes[5], nodes[2]);
+		connect(diagram, new AggregationEdge(), nodes[1], nodes[4]);
+		connect(diagram, new AggregationEdge(AggregationEdge.Type.Composition), nodes[7], nodes[8]);
+		connect(diagram, new AssociationEdge(), nodes[6], nodes[7]);
+		connect(diagram, new AssociationEdge(), nodes[7], nodes[6]);
+		connect(diagram, new DependencyEdge(), nodes[8], nodes[5]);
+		connect(diagram, new DependencyEdge(), nodes[2], nodes[2]);
+		ClassDiagramRenderer renderer = (ClassDiagramRenderer) DiagramType.newRendererInstanceFor(diagram);
+		renderer.draw(GRAPHICS);
+		assertSameAsCompleteLayout(diagram, renderer);
+		
+		nodes[4].translate(30, 50);
+		renderer.draw(GRAPHICS);
+		assertSameAsCompleteLayout(diagram, renderer);
+		
+		nodes[8].moveTo(new Point(20, 600));
+		renderer.draw(GRAPHICS);
+		assertSameAsCompleteLayout(diagram, renderer);
+		
+		Edge edge = diagram.edges().get(3);
+		diagram.removeEdge(edge);
+		renderer.draw(GRAPHICS);
+		assertSameAsCompleteLayout(diagram, renderer);
+		
+		diagram.removeRootNode(nodes[1]);
+		renderer.draw(GRAPHICS);
+		assertSameAsCompleteLayout(diagram, renderer);
+		
+		diagram.addRootNode(nodes[1]);
+		diagram.addEdge(0, edge);
+		renderer.draw(GRAPHICS);
+		assertSameAsCompleteLayout(diagram, renderer);
+		
+		((GeneralizationEdge) diagram.edges().get(1)).setType(GeneralizationEdge.Type.Implementation);
+		renderer.draw(GRAPHICS);
+		assertSameAsCompleteLayout(diagram, renderer);
+	}
+	
+	private static void connect(Diagram pDiagram, Edge pEdge, Node pStart, Node pEnd)
+	{
+		pEdge.connect(pStart, pEnd);
+		pDiagram.addEdge(pEdge);
+	}
+	
+	/*
+	 * Lays out the diagram from scratch with a new renderer and checks that 
+	 * pRenderer stored the same path for every edge.
+	 */
+	private static void assertSameAsCompleteLayout(Diagram pDiagram, ClassDiagramRenderer pRenderer)
+	{
+		ClassDiagramRenderer reference = (ClassDiagramRenderer) DiagramType.newRendererInstanceFor(pDiagram);
+		reference.layout();
+		for( Edge edge : pDiagram.edges() )
+		{
+			assertEquals(reference.getStoredEdgePath(edge), pRenderer.getStoredEdgePath(edge));
+		}
+	}
+}
@@ -97,6 +97,28 @@ public class TestDeserializationContext
 		assertSame(aClassNode3, aContext.getNode(2));
 	}
 	
+	@Test
+	void testGetNode_SameIdTwice()
+	{
+		aContext = new DeserializationContext(aDiagram);
+		aContext.addNode(aClassNode1, 0);
+		aContext.addNode(aClassNode2, 0);
+		assertSame(aClassNode1, aContext.getNode(0));
+		aContext.addNode(aClassNode1, 1);
+		assertSame(aClassNode2, aContext.getNode(0));
+		assertSame(aClassNode1, aContext.getNode(1));
+	}
+	
+	@Test
+	void testIdExists_NodeAddedAgainWithDifferentId()
+	{
+		aContext = new DeserializationContext(aDiagram);
+		aContext.addNode(aClassNode1, 0);
+		aContext.addNode(aClassNode1, 4);
+		assertFalse(aContext.idExists(0));
+		assertTrue(aContext.idExists(4));
+	}
+	
 	@Test
 	void testMaintainOrder()
 	{
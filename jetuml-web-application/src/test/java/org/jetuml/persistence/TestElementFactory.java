@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.ConstructorEdge;
+import org.jetuml.diagram.nodes.CallNode;
+import org.jetuml.diagram.nodes.PointNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class TestElementFactory
+{
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@Test
+	void testCreate_AllPrototypes()
+	{
+		for( DiagramType type : DiagramType.values() )
+		{
+			for( DiagramElement prototype : type.getPrototypes() )
+			{
+				String name = prototype.getClass().getSimpleName();
+				DiagramElement element = prototype instanceof Node ? 
+						ElementFactory.createNode(name).get() : ElementFactory.createEdge(name).get();
+				assertSame(prototype.getClass(), element.getClass());
+				assertNotSame(prototype, element);
+			}
+		}
+	}
+	
+	@Test
+	void testCreate_ElementsWithoutPrototype()
+	{
+		assertSame(CallNode.class, ElementFactory.createNode("CallNode").get().getClass());
+		assertSame(PointNode.class, ElementFactory.createNode("PointNode").get().getClass());
+		assertSame(ConstructorEdge.class, ElementFactory.createEdge("ConstructorEdge").get().getClass());
+	}
+	
+	@Test
+	void testCreate_NewInstances()
+	{
+		Node node = ElementFactory.createNode("ClassNode").get();
+		assertNotSame(node, ElementFactory.createNode("ClassNode").get());
+		Edge edge = ElementFactory.createEdge("DependencyEdge").get();
+		assertNotSame(edge, ElementFactory.createEdge("DependencyEdge").get());
+	}
+	
+	@Test
+	void testCreate_UnknownType()
+	{
+		assertFalse(ElementFactory.createNode("NotANode").isPresent());
+		assertFalse(ElementFactory.createNode("DependencyEdge").isPresent());
+		assertFalse(ElementFactory.createEdge("ClassNode").isPresent());
+		assertFalse(ElementFactory.createNode("AbstractNode").isPresent());
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Node;
+
+/**
+ * Compares the time needed to create the elements of serialized diagrams
+ * through reflection, as JsonDecoder used to do, with the time needed to 
+ * create them through the ElementFactory. Elements of every type that 
+ * appears in a prototype are created in turn.
+ */
+public final class TestElementFactoryPerformance
+{
+	private static final int NUMBER_OF_TRIALS = 5;
+	private static final int NUMBER_OF_ELEMENTS = 1000000;
+	private static final String PREFIX_NODES = "org.jetuml.diagram.nodes.";
+	private static final String PREFIX_EDGES = "org.jetuml.diagram.edges.";
+	
+	private TestElementFactoryPerformance() {}
+	
+	/**
+	 * Test method.
+	 */
+	public static void main(String[] pArgs) throws Exception
+	{
+		List<DiagramElement> prototypes = DiagramType.CLASS.getPrototypes();
+		measure("reflection", () -> 
+		{
+			for( int i = 0; i < NUMBER_OF_ELEMENTS; i++ )
+			{
+				DiagramElement prototype = prototypes.get(i % prototypes.size());
+				String prefix = prototype instanceof Node ? PREFIX_NODES : PREFIX_EDGES;
+				Class.forName(prefix + prototype.getClass().getSimpleName()).getDeclaredConstructor().newInstance();
+			}
+			return null;
+		});
+		measure("ElementFactory", () -> 
+		{
+			for( int i = 0; i < NUMBER_OF_ELEMENTS; i++ )
+			{
+				DiagramElement prototype = prototypes.get(i % prototypes.size());
+				String name = prototype.getClass().getSimpleName();
+				if( prototype instanceof Node )
+				{
+					ElementFactory.createNode(name);
+				}
+				else
+				{
+					ElementFactory.createEdge(name);
+				}
+			}
+			return null;
+		});
+	}
+	
+	private static void measure(String pName, Callable<?> pCreation) throws Exception
+	{
+		double avgExecutionTime = 0.0;
+		for( int i = 0; i < NUMBER_OF_TRIALS + 1; i++ )
+		{
+			Instant start = Instant.now();
+			pCreation.call();
+			Instant stop = Instant.now();
+			if( i > 0 )
+			{
+				avgExecutionTime += Duration.between(start, stop).toMillis();
+			}
+		}
+		System.out.println("Test creation of " + NUMBER_OF_ELEMENTS + " elements with " + pName + ": ");
+		System.out.println("Average Duration (ms) of " + NUMBER_OF_TRIALS + " trials : " + 
+				avgExecutionTime / NUMBER_OF_TRIALS);
+	}
+}
@@ -20,10 +20,21 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.StringReader;
+
 import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.DeserializationException.Category;
 import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonParser;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -58,4 +69,72 @@ public class TestJsonDecoder
 		object.put("diagram", "StateDiagram");
 		assertThrows(DeserializationException.class, () -> new JsonDecoder(object).decode());
 	}
+	
+	@Test
+	public void testDecodeReader_SameAsDecodeObject() throws Exception
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		PackageNode packageNode = new PackageNode();
+		packageNode.setName("package");
+		ClassNode child = new ClassNode();
+		child.setName("child");
+		child.moveTo(new Point(10, 20));
+		packageNode.addChild(child);
+		ClassNode node = new ClassNode();
+		node.setMethods("m()\n\"n\"()");
+		diagram.addRootNode(packageNode);
+		diagram.addRootNode(node);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(child, node);
+		diagram.addEdge(edge);
+		String text = JsonEncoder.encode(diagram).toString();
+		
+		Diagram decoded = JsonDecoder.decode(new StringReader(text));
+		
+		assertEquals(JsonEncoder.encode(new JsonDecoder(JsonParser.parse(text)).decode()).toString(), 
+				JsonEncoder.encode(decoded).toString());
+		assertEquals(text, JsonEncoder.encode(decoded).toString());
+	}
+	
+	@Test
+	public void testDecodeReader_Empty()
+	{
+		DeserializationException exception = assertThrows(DeserializationException.class, 
+				() -> JsonDecoder.decode(new StringReader("")));
+		assertEquals(Category.SYNTACTIC, exception.category());
+	}
+	
+	@Test
+	public void testDecodeReader_MissingNodes()
+	{
+		DeserializationException exception = assertThrows(DeserializationException.class, 
+				() -> JsonDecoder.decode(new StringReader("{\"version\":\"1.2\",\"diagram\":\"StateDiagram\",\"edges\":[]}")));
+		assertEquals(Category.STRUCTURAL, exception.category());
+	}
+	
+	/*
+	 * The text is malformed after an invalid node type, so the error
+	 * is syntactic, as when the text is parsed before being decoded.
+	 */
+	@Test
+	public void testDecodeReader_MalformedAfterStructuralError()
+	{
+		DeserializationException exception = assertThrows(DeserializationException.class, 
+				() -> JsonDecoder.decode(new StringReader("{\"version\":\"1.2\",\"diagram\":\"ClassDiagram\","
+						+ "\"nodes\":[{\"type\":\"NotANode\"}],\"edges\":[}")));
+		assertEquals(Category.SYNTACTIC, exception.category());
+	}
+	
+	/*
+	 * The version is checked before the nodes, as when decoding a JSON object,
+	 * even if it appears after them in the text.
+	 */
+	@Test
+	public void testDecodeReader_InvalidVersionAfterInvalidNode()
+	{
+		DeserializationException exception = assertThrows(DeserializationException.class, 
+				() -> JsonDecoder.decode(new StringReader("{\"diagram\":\"ClassDiagram\","
+						+ "\"nodes\":[{\"type\":\"NotANode\"}],\"edges\":[],\"version\":\"x\"}")));
+		assertEquals("Cannot parse version number", exception.getMessage());
+	}
 }
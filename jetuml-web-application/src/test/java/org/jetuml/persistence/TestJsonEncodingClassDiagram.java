@@ -27,9 +27,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.Iterator;
 
 import org.jetuml.JavaFXLoader;
+import org.jetuml.JetUML;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Node;
@@ -98,4 +101,28 @@ public class TestJsonEncodingClassDiagram
 		assertSame(p, node.getParent());
 		assertEquals("class", node.getName());
 	}
+	
+	@Test
+	public void testEncode_StreamedTextSameAsObjectText() throws IOException
+	{
+		initiGraph1();
+		StringWriter writer = new StringWriter();
+		JsonEncoder.encode(aGraph, writer);
+		assertEquals(JsonEncoder.encode(aGraph).toString(), writer.toString());
+	}
+	
+	/*
+	 * The expected text is the one written by the encoder before it could stream.
+	 */
+	@Test
+	public void testEncode_StreamedTextSameAsSavedFormat() throws IOException
+	{
+		initiGraph1();
+		StringWriter writer = new StringWriter();
+		JsonEncoder.encode(aGraph, writer);
+		assertEquals("{\"diagram\":\"ClassDiagram\",\"nodes\":["
+				+ "{\"children\":[1],\"name\":\"package\",\"x\":0,\"y\":0,\"id\":0,\"type\":\"PackageNode\"},"
+				+ "{\"methods\":\"\",\"name\":\"class\",\"x\":0,\"y\":0,\"attributes\":\"\",\"id\":1,\"type\":\"ClassNode\"}],"
+				+ "\"edges\":[],\"version\":\"" + JetUML.VERSION + "\"}", writer.toString());
+	}
 }
@@ -28,7 +28,11 @@ import static org.jetuml.persistence.PersistenceTestUtils.findRootNode;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import org.jetuml.JavaFXLoader;
+import org.jetuml.JetUML;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.PropertyName;
@@ -248,4 +252,32 @@ public class TestJsonEncodingStateDiagram
 		assertSame(edge2.start(), node1);
 		assertSame(edge2.end(), node2);
 	}
+	
+	@Test
+	public void testEncode_StreamedTextSameAsObjectText() throws IOException
+	{
+		initiGraph3();
+		StringWriter writer = new StringWriter();
+		JsonEncoder.encode(aGraph, writer);
+		assertEquals(JsonEncoder.encode(aGraph).toString(), writer.toString());
+	}
+	
+	/*
+	 * The expected text is the one written by the encoder before it could stream.
+	 */
+	@Test
+	public void testEncode_StreamedTextSameAsSavedFormat() throws IOException
+	{
+		initiGraph3();
+		StringWriter writer = new StringWriter();
+		JsonEncoder.encode(aGraph, writer);
+		assertEquals("{\"diagram\":\"StateDiagram\",\"nodes\":["
+				+ "{\"name\":\"Node1\",\"x\":0,\"y\":0,\"id\":0,\"type\":\"StateNode\"},"
+				+ "{\"name\":\"Node2\",\"x\":0,\"y\":0,\"id\":1,\"type\":\"StateNode\"}],\"edges\":["
+				+ "{\"middleLabel\":\"self1\",\"start\":0,\"end\":0,\"type\":\"StateTransitionEdge\"},"
+				+ "{\"middleLabel\":\"self2\",\"start\":0,\"end\":0,\"type\":\"StateTransitionEdge\"},"
+				+ "{\"middleLabel\":\"edge1\",\"start\":0,\"end\":1,\"type\":\"StateTransitionEdge\"},"
+				+ "{\"middleLabel\":\"edge2\",\"start\":0,\"end\":1,\"type\":\"StateTransitionEdge\"}],"
+				+ "\"version\":\"" + JetUML.VERSION + "\"}", writer.toString());
+	}
 }
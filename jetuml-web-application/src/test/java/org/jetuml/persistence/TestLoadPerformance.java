@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.json.JsonParser;
+
+/**
+ * Measures the time needed to parse and decode synthetic class diagrams of 
+ * increasing size, first by parsing the text into a JSON object that is then
+ * decoded, then by decoding the diagram as the text is read. The validation 
+ * of the decoded diagram is not included.
+ * Every tenth root node is a package that contains a class, and each class 
+ * depends on the next one.
+ */
+public final class TestLoadPerformance
+{
+	private static final int NUMBER_OF_TRIALS = 5;
+	private static final int[] NUMBERS_OF_NODES = {1000, 10000, 100000};
+	private static final int NODES_PER_ROW = 100;
+	
+	private TestLoadPerformance() {}
+	
+	/**
+	 * Test method.
+	 */
+	public static void main(String[] pArgs) throws Exception
+	{
+		for( int numberOfNodes : NUMBERS_OF_NODES )
+		{
+			String text = JsonEncoder.encode(createDiagram(numberOfNodes)).toString();
+			measure("JsonDecoder.decode()", numberOfNodes, () -> new JsonDecoder(JsonParser.parse(text)).decode());
+			measure("JsonDecoder.decode(Reader)", numberOfNodes, () -> JsonDecoder.decode(new StringReader(text)));
+		}
+	}
+	
+	private static void measure(String pName, int pNumberOfNodes, Callable<Diagram> pDecoding) throws Exception
+	{
+		double avgExecutionTime = 0.0;
+		for( int i = 0; i < NUMBER_OF_TRIALS + 1; i++ )
+		{
+			Instant start = Instant.now();
+			pDecoding.call();
+			Instant stop = Instant.now();
+			if( i > 0 )
+			{
+				avgExecutionTime += Duration.between(start, stop).toMillis();
+			}
+		}
+		System.out.println("Test " + pName + " for " + pNumberOfNodes + " nodes: ");
+		System.out.println("Average Duration (ms) of " + NUMBER_OF_TRIALS + " trials : " + 
+				avgExecutionTime / NUMBER_OF_TRIALS);
+	}
+	
+	private static Diagram createDiagram(int pNumberOfNodes)
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		List<Node> nodes = new ArrayList<>();
+		for( int i = 0; i < pNumberOfNodes; i++ )
+		{
+			Point position = new Point(i % NODES_PER_ROW * 200, i / NODES_PER_ROW * 200);
+			if( i % 10 == 0 )
+			{
+				PackageNode packageNode = new PackageNode();
+				packageNode.moveTo(position);
+				ClassNode child = new ClassNode();
+				child.moveTo(new Point(position.x() + 10, position.y() + 30));
+				packageNode.addChild(child);
+				diagram.addRootNode(packageNode);
+				nodes.add(child);
+			}
+			else
+			{
+				ClassNode node = new ClassNode();
+				node.moveTo(position);
+				diagram.addRootNode(node);
+				nodes.add(node);
+			}
+		}
+		for( int i = 0; i < nodes.size() - 1; i++ )
+		{
+			Edge edge = new DependencyEdge();
+			edge.connect(nodes.get(i), nodes.get(i + 1));
+			diagram.addEdge(edge);
+		}
+		return diagram;
+	}
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.jetuml.persistence.json.JsonStreamReader.Token;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonStreamReader
+{
+	private static JsonStreamReader reader(String pText)
+	{
+		return new JsonStreamReader(new StringReader(pText));
+	}
+	
+	@Test
+	void testPeek_Empty()
+	{
+		assertThrows(JsonParsingException.class, () -> reader(" ").peek());
+	}
+	
+	@Test
+	void testReadObject() throws IOException
+	{
+		JsonStreamReader reader = reader(" { \"a\" : 1 , \"b\":[true, \"x\\u0041\"], \"c\":{}}trailing");
+		reader.beginObject();
+		assertEquals("a", reader.nextName());
+		assertEquals(Token.INTEGER, reader.peek());
+		assertEquals(1, reader.nextInt());
+		assertEquals("b", reader.nextName());
+		reader.beginArray();
+		assertTrue(reader.nextBoolean());
+		assertEquals("xA", reader.nextString());
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		assertEquals("c", reader.nextName());
+		assertEquals(0, reader.nextJsonObject().numberOfProperties());
+		reader.endObject();
+		assertEquals(Token.END_DOCUMENT, reader.peek());
+	}
+	
+	@Test
+	void testNextValue_SameAsParser() throws IOException
+	{
+		String text = "{\"a\":[1,-2,{\"b\":false}],\"c\":\"\\n\\\"\",\"d\":{\"e\":[]}}";
+		assertEquals(JsonParser.parse(text).toString(), reader(text).nextValue().toString());
+	}
+	
+	@Test
+	void testNextValue_LongerThanBuffer() throws IOException
+	{
+		StringBuilder text = new StringBuilder("[");
+		for( int i = 0; i < 10000; i++ )
+		{
+			text.append(i).append(",\"").append(i).append("\",");
+		}
+		text.append("true]");
+		JsonArray array = (JsonArray) reader(text.toString()).nextValue();
+		assertEquals(20001, array.size());
+		assertEquals(9999, array.getInt(19998));
+		assertEquals("9999", array.getString(19999));
+	}
+	
+	@Test
+	void testMismatch_NotConsumed() throws IOException
+	{
+		JsonStreamReader reader = reader("[\"a\"]");
+		reader.beginArray();
+		assertThrows(JsonException.class, () -> reader.nextInt());
+		assertEquals("a", reader.nextString());
+		reader.endArray();
+	}
+	
+	@Test
+	void testMalformed()
+	{
+		assertThrows(JsonParsingException.class, () -> reader("{\"a\":}").nextValue());
+		assertThrows(JsonParsingException.class, () -> reader("{\"a\":1,}").nextValue());
+		assertThrows(JsonParsingException.class, () -> reader("[1 2]").nextValue());
+		assertThrows(JsonParsingException.class, () -> reader("[01]").nextValue());
+		assertThrows(JsonParsingException.class, () -> reader("[tru]").nextValue());
+		assertThrows(JsonParsingException.class, () -> reader("\"abc").nextValue());
+	}
+	
+	@Test
+	void testNextName_Duplicate() throws IOException
+	{
+		JsonStreamReader reader = reader("{\"a\":1,\"a\":2}");
+		reader.beginObject();
+		reader.nextName();
+		reader.nextInt();
+		assertThrows(JsonParsingException.class, () -> reader.nextName());
+	}
+}
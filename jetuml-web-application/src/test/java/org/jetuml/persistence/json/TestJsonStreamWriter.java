@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonStreamWriter
+{
+	private StringWriter aOutput;
+	private JsonStreamWriter aWriter;
+	
+	@BeforeEach
+	void setup()
+	{
+		aOutput = new StringWriter();
+		aWriter = new JsonStreamWriter(aOutput);
+	}
+	
+	@Test
+	void testValue_Scalars() throws IOException
+	{
+		aWriter.beginArray();
+		aWriter.value(true);
+		aWriter.value(-12);
+		aWriter.value("a\"b\n");
+		aWriter.endArray();
+		assertEquals("[true,-12,\"a\\\"b\\n\"]", aOutput.toString());
+	}
+	
+	@Test
+	void testValue_Invalid()
+	{
+		assertThrows(JsonException.class, () -> aWriter.value(new Object()));
+	}
+	
+	@Test
+	void testEmptyContainers() throws IOException
+	{
+		aWriter.beginObject();
+		aWriter.name("a");
+		aWriter.beginArray();
+		aWriter.endArray();
+		aWriter.name("b");
+		aWriter.beginObject();
+		aWriter.endObject();
+		aWriter.endObject();
+		assertEquals("{\"a\":[],\"b\":{}}", aOutput.toString());
+	}
+	
+	@Test
+	void testNested_SameAsJsonObject() throws IOException
+	{
+		JsonObject inner = new JsonObject();
+		inner.put("x", 1);
+		JsonArray array = new JsonArray();
+		array.add(inner);
+		array.add(2);
+		JsonObject outer = new JsonObject();
+		outer.put("list", array);
+		
+		aWriter.beginObject();
+		aWriter.name("list");
+		aWriter.beginArray();
+		aWriter.beginObject();
+		aWriter.name("x");
+		aWriter.value(1);
+		aWriter.endObject();
+		aWriter.value(2);
+		aWriter.endArray();
+		aWriter.endObject();
+		assertEquals(outer.toString(), aOutput.toString());
+	}
+}
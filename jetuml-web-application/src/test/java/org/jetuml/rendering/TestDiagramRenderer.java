@@ -24,14 +24,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.nodes.ClassNode;
 import org.jetuml.diagram.nodes.PackageNode;
 import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
 import org.junit.jupiter.api.Test;
 
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
 public class TestDiagramRenderer
 {
 	private Diagram aDiagram = new Diagram(DiagramType.CLASS);
@@ -107,6 +115,82 @@ public class TestDiagramRenderer
 		assertSame(p2, aRenderer.nodeAt(new Point(15,15)).get());
 	}
 	
+	@Test
+	void testNodeAt_TopmostWhenOverlapping()
+	{
+		ClassNode node = new ClassNode();
+		node.translate(50, 30);
+		aDiagram.addRootNode(node);
+		assertSame(node, aRenderer.nodeAt(new Point(60, 40)).get());
+		assertSame(aNode, aRenderer.nodeAt(new Point(40, 20)).get());
+	}
+	
+	@Test
+	void testNodeAt_AfterMove()
+	{
+		assertSame(aNode, aRenderer.nodeAt(new Point(20,20)).get());
+		aNode.translate(500, 500);
+		assertTrue(aRenderer.nodeAt(new Point(20,20)).isEmpty());
+		assertSame(aNode, aRenderer.nodeAt(new Point(520,520)).get());
+	}
+	
+	@Test
+	void testNodeAt_AfterRemove()
+	{
+		assertSame(aNode, aRenderer.nodeAt(new Point(20,20)).get());
+		aDiagram.removeRootNode(aNode);
+		assertTrue(aRenderer.nodeAt(new Point(20,20)).isEmpty());
+	}
+	
+	@Test
+	void testDraw_VisibleArea()
+	{
+		ClassNode hidden = new ClassNode();
+		hidden.translate(1000, 1000);
+		aDiagram.addRootNode(hidden);
+		List<DiagramElement> drawn = new ArrayList<>();
+		DiagramElementRenderer classNodeRenderer = aRenderer.rendererFor(ClassNode.class);
+		aRenderer.addElementRenderer(ClassNode.class, new DiagramElementRenderer()
+		{
+			@Override
+			public Canvas createIcon(DiagramType pDiagramType, DiagramElement pElement)
+			{
+				return classNodeRenderer.createIcon(pDiagramType, pElement);
+			}
+
+			@Override
+			public Rectangle getBounds(DiagramElement pElement)
+			{
+				return classNodeRenderer.getBounds(pElement);
+			}
+
+			@Override
+			public boolean contains(DiagramElement pElement, Point pPoint)
+			{
+				return classNodeRenderer.contains(pElement, pPoint);
+			}
+
+			@Override
+			public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+			{
+				drawn.add(pElement);
+			}
+
+			@Override
+			public void drawSelectionHandles(DiagramElement pElement, GraphicsContext pGraphics)
+			{}
+		});
+		GraphicsContext graphics = new Canvas().getGraphicsContext2D();
+		aRenderer.draw(graphics, new Rectangle(0, 0, 500, 500));
+		assertEquals(List.of(aNode), drawn);
+		drawn.clear();
+		aRenderer.draw(graphics, new Rectangle(1090, 1050, 100, 100));
+		assertEquals(List.of(hidden), drawn);
+		drawn.clear();
+		aRenderer.draw(graphics);
+		assertEquals(List.of(aNode, hidden), drawn);
+	}
+	
 	@Test
 	void testToPoints_topRight()
 	{
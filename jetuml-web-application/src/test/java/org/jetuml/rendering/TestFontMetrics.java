@@ -28,6 +28,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
 public class TestFontMetrics {
 	
 	@Test
@@ -45,4 +48,37 @@ public class TestFontMetrics {
 	{
 		assertEquals(16, FontMetrics.getHeight(DEFAULT_FONT));	
 	}
+	
+	@Test
+	public void testGetDimension_Cached()
+	{
+		FontMetrics.clearCache();
+		long hits = FontMetrics.getCacheHits();
+		long misses = FontMetrics.getCacheMisses();
+		Dimension dimension = FontMetrics.getDimension("Cached", DEFAULT_FONT);
+		assertEquals(misses + 1, FontMetrics.getCacheMisses());
+		assertEquals(dimension, FontMetrics.getDimension("Cached", DEFAULT_FONT));
+		assertEquals(hits + 1, FontMetrics.getCacheHits());
+		assertEquals(misses + 1, FontMetrics.getCacheMisses());
+	}
+	
+	@Test
+	public void testGetDimension_CachedPerFont()
+	{
+		Font bold = Font.font(FontMetrics.DEFAULT_FONT_NAME, FontWeight.BOLD, FontMetrics.DEFAULT_FONT_SIZE);
+		FontMetrics.getDimension("Cached", DEFAULT_FONT);
+		long misses = FontMetrics.getCacheMisses();
+		FontMetrics.getDimension("Cached", bold);
+		assertEquals(misses + 1, FontMetrics.getCacheMisses());
+	}
+	
+	@Test
+	public void testClearCache()
+	{
+		FontMetrics.getDimension("Cached", DEFAULT_FONT);
+		FontMetrics.clearCache();
+		long misses = FontMetrics.getCacheMisses();
+		FontMetrics.getDimension("Cached", DEFAULT_FONT);
+		assertEquals(misses + 1, FontMetrics.getCacheMisses());
+	}
 }
@@ -341,6 +341,29 @@ public class TestLayouter
 		assertEquals(aEdgeG, aRenderer.edgeAt(new Point(150, 90)).get());
 	}
 	
+	@Test
+	public void testUpdateGeometry_NoChange()
+	{
+		setUpTestLayout();
+		aRenderer.layout();
+		assertTrue(aRenderer.updateGeometry().isEmpty());
+	}
+	
+	@Test
+	public void testUpdateGeometry_MovedNode()
+	{
+		setUpTestLayout();
+		aRenderer.layout();
+		Rectangle before = aRenderer.getBounds(aEdgeA);
+		aEdgeA.start().translate(0, 100);
+		Optional<Rectangle> area = aRenderer.updateGeometry();
+		assertTrue(area.isPresent());
+		assertTrue(area.get().contains(before));
+		assertTrue(area.get().contains(aRenderer.getBounds(aEdgeA)));
+		assertFalse(before.equals(aRenderer.getBounds(aEdgeA)));
+		assertTrue(aRenderer.updateGeometry().isEmpty());
+	}
+	
 	
 	@Test
 	public void testLayoutMergedEndEdges()
@@ -2273,9 +2296,9 @@ public class TestLayouter
 	{
 		try 
 		{
-			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutSegmentedEdges", EdgePriority.class);
+			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutSegmentedEdges", List.class, EdgePriority.class);
 			method.setAccessible(true);
-			method.invoke(aRenderer, pEdgePriority);
+			method.invoke(aRenderer, aDiagram.edges(), pEdgePriority);
 		}
 		catch(ReflectiveOperationException e)
 		{
@@ -2316,9 +2339,9 @@ public class TestLayouter
 	{
 		try 
 		{
-			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutDependencyEdges");
+			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutDependencyEdges", List.class);
 			method.setAccessible(true);
-			method.invoke(aRenderer);
+			method.invoke(aRenderer, aDiagram.edges());
 		}
 		catch(ReflectiveOperationException e)
 		{
@@ -2330,9 +2353,9 @@ public class TestLayouter
 	{
 		try 
 		{
-			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutSelfEdges");
+			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutSelfEdges", List.class);
 			method.setAccessible(true);
-			method.invoke(aRenderer);
+			method.invoke(aRenderer, aDiagram.edges());
 		}
 		catch(ReflectiveOperationException e)
 		{
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TestLruCache
+{
+	private final LruCache<String, Integer> aCache = new LruCache<>(2);
+	
+	@Test
+	public void testGet_Miss()
+	{
+		assertEquals(3, aCache.get("abc", String::length));
+		assertEquals(0, aCache.hits());
+		assertEquals(1, aCache.misses());
+	}
+	
+	@Test
+	public void testGet_Hit()
+	{
+		aCache.get("abc", String::length);
+		assertEquals(3, aCache.get("abc", key -> 0));
+		assertEquals(1, aCache.hits());
+		assertEquals(1, aCache.misses());
+	}
+	
+	@Test
+	public void testGet_EvictsLeastRecentlyUsed()
+	{
+		aCache.get("a", String::length);
+		aCache.get("bb", String::length);
+		aCache.get("a", String::length);
+		aCache.get("ccc", String::length);
+		assertEquals(2, aCache.size());
+		assertEquals(1, aCache.get("a", key -> 0));
+		assertEquals(0, aCache.get("bb", key -> 0));
+	}
+	
+	@Test
+	public void testClear()
+	{
+		aCache.get("a", String::length);
+		aCache.clear();
+		assertEquals(0, aCache.size());
+		assertEquals(1, aCache.misses());
+	}
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import static org.jetuml.testutils.CollectionAssertions.assertThat;
+import static org.jetuml.testutils.CollectionAssertions.hasElementsSameAs;
+import static org.jetuml.testutils.CollectionAssertions.isEmpty;
+
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+import org.junit.jupiter.api.Test;
+
+public class TestSpatialIndex
+{
+	private final SpatialIndex<String> aIndex = new SpatialIndex<>();
+	
+	@Test
+	void testElementsAt_Empty()
+	{
+		assertThat(aIndex.elementsAt(new Point(0, 0)), isEmpty);
+	}
+	
+	@Test
+	void testElementsAt_InsideAndOutside()
+	{
+		aIndex.add("A", new Rectangle(10, 10, 50, 50));
+		assertThat(aIndex.elementsAt(new Point(10, 10)), hasElementsSameAs, "A");
+		assertThat(aIndex.elementsAt(new Point(60, 60)), hasElementsSameAs, "A");
+		assertThat(aIndex.elementsAt(new Point(61, 60)), isEmpty);
+		assertThat(aIndex.elementsAt(new Point(9, 30)), isEmpty);
+	}
+	
+	@Test
+	void testElementsAt_AcrossCells()
+	{
+		aIndex.add("A", new Rectangle(-150, 50, 400, 300));
+		assertThat(aIndex.elementsAt(new Point(-120, 60)), hasElementsSameAs, "A");
+		assertThat(aIndex.elementsAt(new Point(240, 340)), hasElementsSameAs, "A");
+		assertThat(aIndex.elementsAt(new Point(0, 200)), hasElementsSameAs, "A");
+		assertThat(aIndex.elementsAt(new Point(0, 49)), isEmpty);
+	}
+	
+	@Test
+	void testElementsAt_InsertionOrder()
+	{
+		aIndex.add("A", new Rectangle(0, 0, 100, 100));
+		aIndex.addUnbounded("B");
+		aIndex.add("C", new Rectangle(50, 50, 10, 10));
+		aIndex.addUnbounded("D");
+		assertThat(aIndex.elementsAt(new Point(55, 55)), hasElementsSameAs, "A", "B", "C", "D");
+		assertThat(aIndex.elementsAt(new Point(5, 5)), hasElementsSameAs, "A", "B", "D");
+		assertThat(aIndex.elementsAt(new Point(5000, -5000)), hasElementsSameAs, "B", "D");
+	}
+}
@@ -37,26 +37,28 @@ import org.junit.jupiter.api.Test;
 public class TestNodeStorage 
 {	
 	private NodeStorage aNodeStorage;
+	private int aKey;
 
 	@BeforeEach
 	public void setup()
 	{
-		aNodeStorage = new NodeStorage();
+		aKey = 0;
+		aNodeStorage = new NodeStorage(() -> aKey);
 	}
 
 	@Test
-	public void testGetBoundsReturnsDifferentBoundsWhenNodeStorageIsNotActive()
+	public void testGetBoundsReturnsDifferentBoundsWhenKeyChanges()
 	{
 		Node node = new NoteNode();
 		Rectangle boundsA = aNodeStorage.getBounds(node, createDefaultBoundCalculator());
+		aKey++;
 		Rectangle boundsB = aNodeStorage.getBounds(node, createDefaultBoundCalculator());
 		assertNotSame(boundsA, boundsB);
 	}
 
 	@Test
-	public void testGetBoundsReturnsSameBoundsWhenNodeStorageIsActive()
+	public void testGetBoundsReturnsSameBoundsWhenKeyIsUnchanged()
 	{
-		aNodeStorage.activate();
 		Node node = new NoteNode();
 		Rectangle boundsA = aNodeStorage.getBounds(node, createDefaultBoundCalculator());
 		Rectangle boundsB = aNodeStorage.getBounds(node, createDefaultBoundCalculator());
@@ -64,9 +66,8 @@ public class TestNodeStorage
 	}
 
 	@Test
-	public void testGetBoundsReturnsDifferentBoundsForDifferentNodesWhenNodeStorageIsActive()
+	public void testGetBoundsReturnsDifferentBoundsForDifferentNodes()
 	{
-		aNodeStorage.activate();
 		Node node1 = new NoteNode();
 		Node node2 = new NoteNode();
 		Rectangle boundsA = aNodeStorage.getBounds(node1, createDefaultBoundCalculator());
@@ -75,14 +76,13 @@ public class TestNodeStorage
 	}
 	
 	@Test
-	public void testGetBoundsReturnsDifferentBoundsBeforeAndAfterDeactivationOfNodeStorage()
+	public void testGetBoundsReturnsDifferentBoundsBeforeAndAfterClear()
 	{
-		aNodeStorage.activate();
 		Node node = new NoteNode();
-		Rectangle boundsBeforeDeactivation = aNodeStorage.getBounds(node, createDefaultBoundCalculator());
-		aNodeStorage.deactivateAndClear();
-		Rectangle boundsAfterDeactivation = aNodeStorage.getBounds(node, createDefaultBoundCalculator());
-		assertNotSame(boundsBeforeDeactivation, boundsAfterDeactivation);
+		Rectangle boundsBeforeClear = aNodeStorage.getBounds(node, createDefaultBoundCalculator());
+		aNodeStorage.clear();
+		Rectangle boundsAfterClear = aNodeStorage.getBounds(node, createDefaultBoundCalculator());
+		assertNotSame(boundsBeforeClear, boundsAfterClear);
 	}
 
 	private static Function<Node, Rectangle> createDefaultBoundCalculator()
@@ -28,6 +28,7 @@ import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.persistence.PersistenceService;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.FontMetrics;
 
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -71,5 +72,7 @@ import javafx.scene.canvas.GraphicsContext;
 
  		System.out.println("Test DiagramRenderer.draw(diagram) : ");
  		System.out.println("Average Duration (ms) of " + NUMBER_OF_TRIALS + " trials : " + avgExecutionTime);
+ 		System.out.println("Text metrics cache hits : " + FontMetrics.getCacheHits() + 
+ 				", misses : " + FontMetrics.getCacheMisses());
  	}
  }
\ No newline at end of file